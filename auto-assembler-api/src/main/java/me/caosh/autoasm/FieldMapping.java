@@ -51,4 +51,12 @@ public @interface FieldMapping {
      * @return 自定义converter
      */
     Class<? extends ClassifiedConverter> customConverterClass() default NotConfiguredClassifiedConverter.class;
+
+    /**
+     * 自定义converter是否有状态，默认每个converter类只创建一个实例并在所有转换中共享
+     * 配置为true时，每次转换都创建新的converter实例
+     *
+     * @return 自定义converter是否有状态
+     */
+    boolean customConverterStateful() default false;
 }
@@ -0,0 +1,73 @@
+package me.caosh.autoasm.benchmark;
+
+import me.caosh.autoasm.AutoAssembler;
+import me.caosh.autoasm.AutoAssemblers;
+import me.caosh.autoasm.TestSecurityInfo;
+import me.caosh.autoasm.TestSecurityInfoDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AutoAssembler#assembleList(Iterable, Class)}、{@link AutoAssembler#disassembleList(Iterable, Class)}
+ * 在不同列表长度下的耗时
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AssembleListBenchmark {
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int size;
+
+    private final AutoAssembler autoAssembler = AutoAssemblers.getDefault();
+
+    private List<TestSecurityInfo> securityInfoList;
+    private List<TestSecurityInfoDTO> securityInfoDTOList;
+
+    @Setup
+    public void setUp() {
+        securityInfoList = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            securityInfoList.add(new TestSecurityInfo(String.format("%06d", i), "Security" + i));
+        }
+        securityInfoDTOList = HandWrittenMappers.assembleList(securityInfoList);
+    }
+
+    @Benchmark
+    public List<TestSecurityInfoDTO> assembleList() {
+        return autoAssembler.assembleList(securityInfoList, TestSecurityInfoDTO.class);
+    }
+
+    @Benchmark
+    public List<TestSecurityInfoDTO> assembleListBaseline() {
+        return HandWrittenMappers.assembleList(securityInfoList);
+    }
+
+    @Benchmark
+    public List<TestSecurityInfo> disassembleList() {
+        return autoAssembler.disassembleList(securityInfoDTOList, TestSecurityInfo.class);
+    }
+
+    @Benchmark
+    public List<TestSecurityInfo> disassembleListBaseline() {
+        return HandWrittenMappers.disassembleList(securityInfoDTOList);
+    }
+}
@@ -0,0 +1,27 @@
+package me.caosh.autoasm.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 基准测试入口，在JMH命令行参数基础上默认启用{@link GCProfiler}，报告每次操作的分配字节数（gc.alloc.rate.norm）
+ * <p>
+ * 用法：java -jar auto-assembler-benchmarks/target/benchmarks.jar [JMH参数，如 AssembleListBenchmark -p size=1000]
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+public class BenchmarkMain {
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
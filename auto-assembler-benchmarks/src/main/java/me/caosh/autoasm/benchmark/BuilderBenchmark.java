@@ -0,0 +1,58 @@
+package me.caosh.autoasm.benchmark;
+
+import me.caosh.autoasm.AutoAssembler;
+import me.caosh.autoasm.AutoAssemblers;
+import me.caosh.autoasm.BasicTest;
+import me.caosh.autoasm.TestDTOBuilder;
+import org.joda.time.YearMonth;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 通过{@link AutoAssembler#useBuilder(me.caosh.autoasm.ConvertibleBuilder)}装载
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BuilderBenchmark {
+    private final AutoAssembler autoAssembler = AutoAssemblers.getDefault();
+
+    private BasicTest.TestBasicObject basicObject;
+
+    @Setup
+    public void setUp() {
+        basicObject = new BasicTest.TestBasicObject();
+        basicObject.setId(12);
+        basicObject.setName("ccc");
+        basicObject.setYearMonth(new YearMonth(2018, 1));
+        basicObject.setOptionalString("optional");
+    }
+
+    @Benchmark
+    public BasicTest.TestDTO assembleWithBuilder() {
+        return autoAssembler.useBuilder(new TestDTOBuilder())
+                .assemble(basicObject)
+                .build();
+    }
+
+    @Benchmark
+    public BasicTest.TestDTO assembleWithBuilderBaseline() {
+        return HandWrittenMappers.assembleWithBuilder(basicObject);
+    }
+}
@@ -0,0 +1,52 @@
+package me.caosh.autoasm.benchmark;
+
+import me.caosh.autoasm.AutoAssembler;
+import me.caosh.autoasm.AutoAssemblers;
+import me.caosh.autoasm.CustomConverterTest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 配置了{@link me.caosh.autoasm.FieldMapping#customConverterClass()}的字段
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CustomConverterBenchmark {
+    private final AutoAssembler autoAssembler = AutoAssemblers.getDefault();
+
+    private CustomConverterTest.TestCustomConverterObject customConverterObject;
+
+    @Setup
+    public void setUp() {
+        customConverterObject = new CustomConverterTest.TestCustomConverterObject();
+        customConverterObject.setDeviationCtrl(new CustomConverterTest.EnabledDeviationCtrl(new BigDecimal("10.5")));
+    }
+
+    @Benchmark
+    public CustomConverterTest.TestCustomConverterDTO assembleCustomConverter() {
+        return autoAssembler.assemble(customConverterObject, CustomConverterTest.TestCustomConverterDTO.class);
+    }
+
+    @Benchmark
+    public CustomConverterTest.TestCustomConverterDTO assembleCustomConverterBaseline() {
+        return HandWrittenMappers.assemble(customConverterObject);
+    }
+}
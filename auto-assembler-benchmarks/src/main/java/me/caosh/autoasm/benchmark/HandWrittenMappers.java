@@ -0,0 +1,146 @@
+package me.caosh.autoasm.benchmark;
+
+import me.caosh.autoasm.BasicTest;
+import me.caosh.autoasm.CollectionTest;
+import me.caosh.autoasm.CustomConverterTest;
+import me.caosh.autoasm.MappingTest;
+import me.caosh.autoasm.RuntimeTypeTest;
+import me.caosh.autoasm.TestDTOBuilder;
+import me.caosh.autoasm.TestOrderInfo;
+import me.caosh.autoasm.TestOrderInfoDTO;
+import me.caosh.autoasm.TestSecurityInfo;
+import me.caosh.autoasm.TestSecurityInfoDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 手写的映射代码，作为各基准测试的基线，语义与AutoAssembler的对应转换一致
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+class HandWrittenMappers {
+    static TestSecurityInfoDTO assemble(TestSecurityInfo securityInfo) {
+        TestSecurityInfoDTO securityInfoDTO = new TestSecurityInfoDTO();
+        securityInfoDTO.setCode(securityInfo.getCode());
+        securityInfoDTO.setName(securityInfo.getName());
+        return securityInfoDTO;
+    }
+
+    static TestSecurityInfo disassemble(TestSecurityInfoDTO securityInfoDTO) {
+        TestSecurityInfo securityInfo = new TestSecurityInfo();
+        securityInfo.setCode(securityInfoDTO.getCode());
+        securityInfo.setName(securityInfoDTO.getName());
+        return securityInfo;
+    }
+
+    static TestOrderInfoDTO assemble(TestOrderInfo orderInfo) {
+        TestOrderInfoDTO orderInfoDTO = new TestOrderInfoDTO();
+        if (orderInfo.getSecurityInfo() != null) {
+            orderInfoDTO.setSecurityInfo(assemble(orderInfo.getSecurityInfo()));
+        }
+        return orderInfoDTO;
+    }
+
+    static TestOrderInfo disassemble(TestOrderInfoDTO orderInfoDTO) {
+        TestOrderInfo orderInfo = new TestOrderInfo();
+        if (orderInfoDTO.getSecurityInfo() != null) {
+            orderInfo.setSecurityInfo(disassemble(orderInfoDTO.getSecurityInfo()));
+        }
+        return orderInfo;
+    }
+
+    static List<TestSecurityInfoDTO> assembleList(List<TestSecurityInfo> securityInfoList) {
+        List<TestSecurityInfoDTO> securityInfoDTOList = new ArrayList<>(securityInfoList.size());
+        for (TestSecurityInfo securityInfo : securityInfoList) {
+            securityInfoDTOList.add(assemble(securityInfo));
+        }
+        return securityInfoDTOList;
+    }
+
+    static List<TestSecurityInfo> disassembleList(List<TestSecurityInfoDTO> securityInfoDTOList) {
+        List<TestSecurityInfo> securityInfoList = new ArrayList<>(securityInfoDTOList.size());
+        for (TestSecurityInfoDTO securityInfoDTO : securityInfoDTOList) {
+            securityInfoList.add(disassemble(securityInfoDTO));
+        }
+        return securityInfoList;
+    }
+
+    static RuntimeTypeTest.TestConditionOrderDTO assemble(RuntimeTypeTest.TestConditionOrder conditionOrder) {
+        RuntimeTypeTest.TestConditionOrderDTO conditionOrderDTO = new RuntimeTypeTest.TestConditionOrderDTO();
+        RuntimeTypeTest.ExternalProperties externalProperties = conditionOrder.getExternalProperties();
+        if (externalProperties instanceof RuntimeTypeTest.FirstExternalProperties) {
+            RuntimeTypeTest.FirstExternalPropertiesDTO externalPropertiesDTO = new RuntimeTypeTest.FirstExternalPropertiesDTO();
+            externalPropertiesDTO.setX(((RuntimeTypeTest.FirstExternalProperties) externalProperties).getX());
+            conditionOrderDTO.setExternalProperties(externalPropertiesDTO);
+        }
+        return conditionOrderDTO;
+    }
+
+    static CollectionTest.TestListDTO assemble(CollectionTest.TestListObject listObject) {
+        CollectionTest.TestListDTO listDTO = new CollectionTest.TestListDTO();
+        List<String> integerList = new ArrayList<>(listObject.getIntegerList().size());
+        for (Integer integer : listObject.getIntegerList()) {
+            integerList.add(String.valueOf(integer));
+        }
+        listDTO.setIntegerList(integerList);
+        listDTO.setStringList(listObject.getStringList());
+        listDTO.setSecurityInfoList(assembleList(listObject.getSecurityInfoList()));
+        return listDTO;
+    }
+
+    static BasicTest.TestDTO assembleWithBuilder(BasicTest.TestBasicObject basicObject) {
+        TestDTOBuilder builder = new TestDTOBuilder()
+                .setId(basicObject.getId())
+                .setName(basicObject.getName())
+                .setYearMonth(basicObject.getYearMonth());
+        if (basicObject.getOptionalString().isPresent()) {
+            builder.setOptionalString(basicObject.getOptionalString().get());
+        }
+        return builder.build();
+    }
+
+    static CustomConverterTest.TestCustomConverterDTO assemble(CustomConverterTest.TestCustomConverterObject object) {
+        CustomConverterTest.TestCustomConverterDTO converterDTO = new CustomConverterTest.TestCustomConverterDTO();
+        CustomConverterTest.DeviationCtrl deviationCtrl = object.getDeviationCtrl();
+        if (deviationCtrl != null) {
+            converterDTO.setDeviationCtrlFlag(deviationCtrl.isEnabled() ? 1 : 0);
+            if (deviationCtrl instanceof CustomConverterTest.EnabledDeviationCtrl) {
+                converterDTO.setDeviationCtrlLimit(((CustomConverterTest.EnabledDeviationCtrl) deviationCtrl).getLimit());
+            }
+        }
+        return converterDTO;
+    }
+
+    static MappingTest.TestMappingDTO assemble(MappingTest.TestMappingObject mappingObject) {
+        MappingTest.TestMappingDTO mappingDTO = new MappingTest.TestMappingDTO();
+        mappingDTO.setId(mappingObject.getId());
+        mappingDTO.setName(mappingObject.getName());
+        mappingDTO.setDtoName(mappingObject.getDomainName());
+        if (mappingObject.getProperties() instanceof MappingTest.FirstProperties) {
+            mappingDTO.setFirstPrice(((MappingTest.FirstProperties) mappingObject.getProperties()).getPrice());
+        }
+        if (mappingObject.getSecurityInfo() != null) {
+            mappingDTO.setStockInfo(assemble(mappingObject.getSecurityInfo()));
+        }
+        return mappingDTO;
+    }
+
+    static MappingTest.TestMappingObject disassemble(MappingTest.TestMappingDTO mappingDTO) {
+        MappingTest.TestMappingObject mappingObject = new MappingTest.TestMappingObject();
+        mappingObject.setId(mappingDTO.getId());
+        mappingObject.setName(mappingDTO.getName());
+        mappingObject.setDomainName(mappingDTO.getDtoName());
+        if (mappingObject.getProperties() instanceof MappingTest.FirstProperties) {
+            ((MappingTest.FirstProperties) mappingObject.getProperties()).setPrice(mappingDTO.getFirstPrice());
+        }
+        if (mappingDTO.getStockInfo() != null) {
+            mappingObject.setSecurityInfo(disassemble(mappingDTO.getStockInfo()));
+        }
+        return mappingObject;
+    }
+
+    private HandWrittenMappers() {
+    }
+}
@@ -0,0 +1,68 @@
+package me.caosh.autoasm.benchmark;
+
+import me.caosh.autoasm.AutoAssembler;
+import me.caosh.autoasm.AutoAssemblers;
+import me.caosh.autoasm.MappingTest;
+import me.caosh.autoasm.TestSecurityInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 配置了{@link me.caosh.autoasm.FieldMapping#mappedProperty()}的字段，包括多级路径
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MappedPathBenchmark {
+    private final AutoAssembler autoAssembler = AutoAssemblers.getDefault();
+
+    private MappingTest.TestMappingObject mappingObject;
+    private MappingTest.TestMappingDTO mappingDTO;
+
+    @Setup
+    public void setUp() {
+        mappingObject = new MappingTest.TestMappingObject();
+        mappingObject.setId(12);
+        mappingObject.setName("ccc");
+        mappingObject.setDomainName("dn123");
+        mappingObject.setProperties(new MappingTest.FirstProperties("12.22"));
+        mappingObject.setSecurityInfo(new TestSecurityInfo("600000", "PFYH"));
+        mappingDTO = HandWrittenMappers.assemble(mappingObject);
+    }
+
+    @Benchmark
+    public MappingTest.TestMappingDTO assembleMappedPath() {
+        return autoAssembler.assemble(mappingObject, MappingTest.TestMappingDTO.class);
+    }
+
+    @Benchmark
+    public MappingTest.TestMappingDTO assembleMappedPathBaseline() {
+        return HandWrittenMappers.assemble(mappingObject);
+    }
+
+    @Benchmark
+    public MappingTest.TestMappingObject disassembleMappedPath() {
+        return autoAssembler.disassemble(mappingDTO, MappingTest.TestMappingObject.class);
+    }
+
+    @Benchmark
+    public MappingTest.TestMappingObject disassembleMappedPathBaseline() {
+        return HandWrittenMappers.disassemble(mappingDTO);
+    }
+}
@@ -0,0 +1,115 @@
+package me.caosh.autoasm.benchmark;
+
+import com.google.common.collect.Lists;
+import me.caosh.autoasm.AutoAssembler;
+import me.caosh.autoasm.AutoAssemblerBuilder;
+import me.caosh.autoasm.AutoAssemblers;
+import me.caosh.autoasm.CollectionTest;
+import me.caosh.autoasm.RuntimeTypeTest;
+import me.caosh.autoasm.TestOrderInfo;
+import me.caosh.autoasm.TestOrderInfoDTO;
+import me.caosh.autoasm.TestSecurityInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单个对象的assemble/disassemble：嵌套{@link me.caosh.autoasm.Convertible}对象、{@link me.caosh.autoasm.RuntimeType}、List字段
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SingleObjectBenchmark {
+    private final AutoAssembler autoAssembler = AutoAssemblers.getDefault();
+    private final AutoAssembler runtimeMapperAssembler = new AutoAssemblerBuilder().enableRuntimeMappers().build();
+
+    private TestOrderInfo orderInfo;
+    private TestOrderInfoDTO orderInfoDTO;
+    private RuntimeTypeTest.TestConditionOrder conditionOrder;
+    private CollectionTest.TestListObject listObject;
+
+    @Setup
+    public void setUp() {
+        orderInfo = new TestOrderInfo();
+        orderInfo.setSecurityInfo(new TestSecurityInfo("600000", "PFYH"));
+        orderInfoDTO = HandWrittenMappers.assemble(orderInfo);
+
+        RuntimeTypeTest.FirstExternalProperties externalProperties = new RuntimeTypeTest.FirstExternalProperties();
+        externalProperties.setX(123);
+        conditionOrder = new RuntimeTypeTest.TestConditionOrder();
+        conditionOrder.setExternalProperties(externalProperties);
+
+        listObject = new CollectionTest.TestListObject();
+        listObject.setIntegerList(Lists.newArrayList(1, 2, 3));
+        listObject.setStringList(Lists.newArrayList("4", "5", "6"));
+        listObject.setSecurityInfoList(Lists.newArrayList(
+                new TestSecurityInfo("600000", "PFYH"),
+                new TestSecurityInfo("000001", "PAYH")
+        ));
+    }
+
+    @Benchmark
+    public TestOrderInfoDTO assembleNested() {
+        return autoAssembler.assemble(orderInfo, TestOrderInfoDTO.class);
+    }
+
+    @Benchmark
+    public TestOrderInfoDTO assembleNestedRuntimeMapper() {
+        return runtimeMapperAssembler.assemble(orderInfo, TestOrderInfoDTO.class);
+    }
+
+    @Benchmark
+    public TestOrderInfoDTO assembleNestedBaseline() {
+        return HandWrittenMappers.assemble(orderInfo);
+    }
+
+    @Benchmark
+    public TestOrderInfo disassembleNested() {
+        return autoAssembler.disassemble(orderInfoDTO, TestOrderInfo.class);
+    }
+
+    @Benchmark
+    public TestOrderInfo disassembleNestedRuntimeMapper() {
+        return runtimeMapperAssembler.disassemble(orderInfoDTO, TestOrderInfo.class);
+    }
+
+    @Benchmark
+    public TestOrderInfo disassembleNestedBaseline() {
+        return HandWrittenMappers.disassemble(orderInfoDTO);
+    }
+
+    @Benchmark
+    public RuntimeTypeTest.TestConditionOrderDTO assembleRuntimeType() {
+        return autoAssembler.assemble(conditionOrder, RuntimeTypeTest.TestConditionOrderDTO.class);
+    }
+
+    @Benchmark
+    public RuntimeTypeTest.TestConditionOrderDTO assembleRuntimeTypeBaseline() {
+        return HandWrittenMappers.assemble(conditionOrder);
+    }
+
+    @Benchmark
+    public CollectionTest.TestListDTO assembleListField() {
+        return autoAssembler.assemble(listObject, CollectionTest.TestListDTO.class);
+    }
+
+    @Benchmark
+    public CollectionTest.TestListDTO assembleListFieldBaseline() {
+        return HandWrittenMappers.assemble(listObject);
+    }
+}
@@ -0,0 +1,71 @@
+package me.caosh.autoasm.benchmark;
+
+import me.caosh.autoasm.AutoAssembler;
+import me.caosh.autoasm.AutoAssemblerBuilder;
+import me.caosh.autoasm.BasicTest;
+import me.caosh.autoasm.RuntimeTypeTest;
+import me.caosh.autoasm.TestOrderInfo;
+import me.caosh.autoasm.TestOrderInfoDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 加载快照构建{@link AutoAssembler}，与预加载同样类型对的构建相比，差值为读取快照、计算类型指纹的开销
+ * <p>
+ * 内省结果在第一次调用后即被缓存，此处不包括快照节省的内省时间
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SnapshotBenchmark {
+    private Path snapshotFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        snapshotFile = Files.createTempFile("auto-assembler", ".snapshot");
+        preload(new AutoAssemblerBuilder()).build().writeSnapshot(snapshotFile);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(snapshotFile);
+    }
+
+    @Benchmark
+    public AutoAssembler buildWithSnapshot() {
+        return new AutoAssemblerBuilder()
+                .loadSnapshot(snapshotFile)
+                .build();
+    }
+
+    @Benchmark
+    public AutoAssembler buildWithPreload() {
+        return preload(new AutoAssemblerBuilder()).build();
+    }
+
+    private static AutoAssemblerBuilder preload(AutoAssemblerBuilder builder) {
+        return builder.preload(TestOrderInfo.class, TestOrderInfoDTO.class,
+                BasicTest.TestBasicObject.class, BasicTest.TestDTO.class,
+                RuntimeTypeTest.TestConditionOrder.class, RuntimeTypeTest.TestConditionOrderDTO.class);
+    }
+}
@@ -0,0 +1,103 @@
+package me.caosh.autoasm.processor;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import java.beans.Introspector;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 编译期解析类型的JavaBean属性，规则与{@link java.beans.Introspector}一致：
+ * 只解析public的实例方法，子类声明的方法覆盖父类，不包含{@link Object}的class属性
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+class BeanIntrospector {
+    private static final String GET_PREFIX = "get";
+    private static final String IS_PREFIX = "is";
+    private static final String SET_PREFIX = "set";
+
+    /**
+     * 解析类型的属性，按声明顺序返回
+     *
+     * @param typeElement 类型
+     * @return 属性名到属性的映射
+     */
+    static Map<String, BeanProperty> getProperties(TypeElement typeElement) {
+        Map<String, BeanProperty> properties = new LinkedHashMap<>();
+        TypeElement currentType = typeElement;
+        while (currentType != null && !Object.class.getName().equals(currentType.getQualifiedName().toString())) {
+            for (ExecutableElement method : ElementFilter.methodsIn(currentType.getEnclosedElements())) {
+                if (!method.getModifiers().contains(Modifier.PUBLIC) || method.getModifiers().contains(Modifier.STATIC)) {
+                    continue;
+                }
+                addAccessor(properties, method);
+            }
+            currentType = getSuperclass(currentType);
+        }
+        return properties;
+    }
+
+    static List<VariableElement> fieldsIn(TypeElement typeElement) {
+        return ElementFilter.fieldsIn(typeElement.getEnclosedElements());
+    }
+
+    private static void addAccessor(Map<String, BeanProperty> properties, ExecutableElement method) {
+        String methodName = method.getSimpleName().toString();
+        List<? extends VariableElement> parameters = method.getParameters();
+        TypeKind returnKind = method.getReturnType().getKind();
+        if (parameters.isEmpty() && returnKind != TypeKind.VOID) {
+            String propertyName = null;
+            if (methodName.startsWith(GET_PREFIX) && methodName.length() > GET_PREFIX.length()) {
+                propertyName = Introspector.decapitalize(methodName.substring(GET_PREFIX.length()));
+            } else if (methodName.startsWith(IS_PREFIX) && methodName.length() > IS_PREFIX.length()
+                    && returnKind == TypeKind.BOOLEAN) {
+                propertyName = Introspector.decapitalize(methodName.substring(IS_PREFIX.length()));
+            }
+            if (propertyName != null) {
+                BeanProperty property = getOrCreate(properties, propertyName);
+                if (property.getReadMethod() == null) {
+                    property.setReadMethod(method);
+                }
+            }
+        } else if (parameters.size() == 1 && returnKind == TypeKind.VOID
+                && methodName.startsWith(SET_PREFIX) && methodName.length() > SET_PREFIX.length()) {
+            String propertyName = Introspector.decapitalize(methodName.substring(SET_PREFIX.length()));
+            BeanProperty property = getOrCreate(properties, propertyName);
+            if (property.getWriteMethod() == null) {
+                property.setWriteMethod(method);
+            }
+        }
+    }
+
+    private static BeanProperty getOrCreate(Map<String, BeanProperty> properties, String propertyName) {
+        BeanProperty property = properties.get(propertyName);
+        if (property == null) {
+            property = new BeanProperty(propertyName);
+            properties.put(propertyName, property);
+        }
+        return property;
+    }
+
+    private static TypeElement getSuperclass(TypeElement typeElement) {
+        TypeMirror superclass = typeElement.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        Element superElement = ((DeclaredType) superclass).asElement();
+        return superElement.getKind() == ElementKind.CLASS ? (TypeElement) superElement : null;
+    }
+
+    private BeanIntrospector() {
+    }
+}
@@ -0,0 +1,76 @@
+package me.caosh.autoasm.processor;
+
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+
+/**
+ * 编译期的JavaBean属性，与运行时{@link java.beans.PropertyDescriptor}对应
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+class BeanProperty {
+    private final String name;
+    private ExecutableElement readMethod;
+    private ExecutableElement writeMethod;
+
+    BeanProperty(String name) {
+        this.name = name;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    ExecutableElement getReadMethod() {
+        return readMethod;
+    }
+
+    void setReadMethod(ExecutableElement readMethod) {
+        this.readMethod = readMethod;
+    }
+
+    ExecutableElement getWriteMethod() {
+        return writeMethod;
+    }
+
+    void setWriteMethod(ExecutableElement writeMethod) {
+        this.writeMethod = writeMethod;
+    }
+
+    /**
+     * getter返回类型
+     *
+     * @return getter返回类型
+     */
+    TypeMirror getReadType() {
+        return readMethod.getReturnType();
+    }
+
+    /**
+     * setter参数类型
+     *
+     * @return setter参数类型
+     */
+    TypeMirror getWriteType() {
+        return writeMethod.getParameters().get(0).asType();
+    }
+
+    /**
+     * 在访问方法的声明类中查找同名字段，与运行时getDeclaredField一致
+     *
+     * @param accessorMethod getter或setter
+     * @return 字段，不存在返回null
+     */
+    VariableElement findDeclaredField(ExecutableElement accessorMethod) {
+        TypeElement declaringType = (TypeElement) accessorMethod.getEnclosingElement();
+        for (VariableElement field : BeanIntrospector.fieldsIn(declaringType)) {
+            if (field.getSimpleName().contentEquals(name)) {
+                return field;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,397 @@
+package me.caosh.autoasm.processor;
+
+import me.caosh.autoasm.Convertible;
+import me.caosh.autoasm.FieldMapping;
+import me.caosh.autoasm.MappedClass;
+import me.caosh.autoasm.RuntimeType;
+import me.caosh.autoasm.SkippedField;
+import me.caosh.autoasm.converter.NotConfiguredClassifiedConverter;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 编译期读取{@link Convertible}、{@link MappedClass}、{@link RuntimeType}、{@link FieldMapping}、{@link SkippedField}，
+ * 为{@link MappedClass}配置的每一对类型生成assemble、disassemble两个方向的映射器，并注册到
+ * META-INF/services/me.caosh.autoasm.mapper.Mapper中，AutoAssembler加载后优先使用
+ * <p>
+ * 生成的映射器只处理无需转换即可直接赋值的属性，需要converter、嵌套转换、多级路径、常量值或默认值的属性仍在运行时处理。
+ * 运行时会抛出的配置错误在编译期报告：
+ * 1. 属性的getter/setter所在类中没有同名字段
+ * 2. {@link RuntimeType}配置的子类没有注解{@link MappedClass}
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+@SupportedAnnotationTypes({
+        "me.caosh.autoasm.Convertible",
+        "me.caosh.autoasm.MappedClass",
+        "me.caosh.autoasm.RuntimeType"
+})
+public class MapperProcessor extends AbstractProcessor {
+    static final String MAPPER_SERVICE_FILE = "META-INF/services/me.caosh.autoasm.mapper.Mapper";
+
+    private static final String ASSEMBLE = "ASSEMBLE";
+    private static final String DISASSEMBLE = "DISASSEMBLE";
+    private static final String OPTIONAL_CLASS = "com.google.common.base.Optional";
+    private static final String PATH_SEPARATOR = ".";
+
+    private final Set<String> generatedMappers = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        // 需要检查getter字段的类型（会被disassemble的），值为true
+        Map<TypeElement, Boolean> convertibleTypes = new LinkedHashMap<>();
+        for (TypeElement typeElement : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(Convertible.class))) {
+            convertibleTypes.put(typeElement, false);
+        }
+        for (TypeElement typeElement : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(MappedClass.class))) {
+            convertibleTypes.put(typeElement, true);
+        }
+
+        for (Map.Entry<TypeElement, Boolean> entry : convertibleTypes.entrySet()) {
+            TypeElement typeElement = entry.getKey();
+            boolean valid = checkDeclaredFields(typeElement, entry.getValue());
+            if (valid && entry.getValue()) {
+                generateMappers(typeElement);
+            }
+        }
+        for (TypeElement typeElement : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(RuntimeType.class))) {
+            checkRuntimeType(typeElement);
+        }
+
+        if (roundEnv.processingOver()) {
+            writeServiceFile();
+        }
+        return false;
+    }
+
+    /**
+     * 检查属性的getter/setter所在类中是否有同名字段，运行时在此处抛出IllegalArgumentException
+     */
+    private boolean checkDeclaredFields(TypeElement typeElement, boolean checkReadMethods) {
+        boolean valid = true;
+        for (BeanProperty property : BeanIntrospector.getProperties(typeElement).values()) {
+            List<ExecutableElement> accessorMethods = new ArrayList<>(2);
+            if (property.getWriteMethod() != null) {
+                accessorMethods.add(property.getWriteMethod());
+            }
+            if (checkReadMethods && property.getReadMethod() != null) {
+                accessorMethods.add(property.getReadMethod());
+            }
+            for (ExecutableElement accessorMethod : accessorMethods) {
+                if (property.findDeclaredField(accessorMethod) == null) {
+                    TypeElement declaringType = (TypeElement) accessorMethod.getEnclosingElement();
+                    error(accessorMethod.getEnclosingElement().equals(typeElement) ? accessorMethod : typeElement,
+                            "Get declared field (" + property.getName() + ") from property declaring class <"
+                                    + declaringType.getSimpleName() + "> failed");
+                    valid = false;
+                    break;
+                }
+            }
+        }
+        return valid;
+    }
+
+    private void checkRuntimeType(TypeElement typeElement) {
+        AnnotationMirror runtimeType = getAnnotationMirror(typeElement, RuntimeType.class);
+        for (AnnotationValue subClassValue : getListValue(runtimeType, "value")) {
+            TypeElement subClass = (TypeElement) ((DeclaredType) subClassValue.getValue()).asElement();
+            if (getAnnotationMirror(subClass, MappedClass.class) == null) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "Runtime type subclass should be annotated with @MappedClass: " + subClass.getQualifiedName(),
+                        typeElement, runtimeType, subClassValue);
+            }
+        }
+    }
+
+    private void generateMappers(TypeElement targetType) {
+        AnnotationMirror mappedClass = getAnnotationMirror(targetType, MappedClass.class);
+        TypeElement sourceType = (TypeElement) ((DeclaredType) getAnnotationValue(mappedClass, "value")).asElement();
+
+        PackageElement targetPackage = processingEnv.getElementUtils().getPackageOf(targetType);
+        if (!isAccessible(targetType, targetPackage) || !isAccessible(sourceType, targetPackage)) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                    "Mapper not generated, inaccessible or generic type: " + sourceType.getQualifiedName(), targetType);
+            return;
+        }
+
+        Map<String, BeanProperty> targetProperties = BeanIntrospector.getProperties(targetType);
+        Map<String, BeanProperty> sourceProperties = BeanIntrospector.getProperties(sourceType);
+        MapperWriter mapperWriter = new MapperWriter(processingEnv.getFiler(), processingEnv.getElementUtils(),
+                processingEnv.getTypeUtils());
+        try {
+            generatedMappers.add(mapperWriter.write(ASSEMBLE, targetType, sourceType, targetType,
+                    getAssembleMappings(targetProperties, sourceProperties)));
+            generatedMappers.add(mapperWriter.write(DISASSEMBLE, targetType, targetType, sourceType,
+                    getDisassembleMappings(targetProperties, sourceProperties)));
+        } catch (IOException e) {
+            error(targetType, "Generate mapper failed: " + e);
+        }
+    }
+
+    private List<PropertyMapping> getAssembleMappings(Map<String, BeanProperty> targetProperties,
+                                                      Map<String, BeanProperty> sourceProperties) {
+        List<PropertyMapping> propertyMappings = new ArrayList<>();
+        for (BeanProperty targetProperty : targetProperties.values()) {
+            ExecutableElement writeMethod = targetProperty.getWriteMethod();
+            if (writeMethod == null) {
+                continue;
+            }
+            VariableElement field = targetProperty.findDeclaredField(writeMethod);
+            if (getAnnotationMirror(field, SkippedField.class) != null) {
+                continue;
+            }
+
+            String propertyName = targetProperty.getName();
+            AnnotationMirror fieldMapping = getAnnotationMirror(field, FieldMapping.class);
+            String propertyPath = propertyName;
+            if (fieldMapping != null) {
+                if (!getStringValue(fieldMapping, "value").isEmpty() || hasCustomConverter(fieldMapping)) {
+                    continue;
+                }
+                String mappedProperty = getStringValue(fieldMapping, "mappedProperty");
+                if (!mappedProperty.isEmpty()) {
+                    propertyPath = mappedProperty;
+                }
+            }
+            if (propertyPath.contains(PATH_SEPARATOR)) {
+                continue;
+            }
+
+            // 与运行时一致，先读取映射的属性，为null时读取同名属性
+            List<ExecutableElement> readMethods = new ArrayList<>(2);
+            addReadMethod(readMethods, sourceProperties.get(propertyPath));
+            if (!propertyPath.equals(propertyName)) {
+                addReadMethod(readMethods, sourceProperties.get(propertyName));
+            }
+            if (readMethods.isEmpty() || !isSameReturnType(readMethods)) {
+                continue;
+            }
+            if (isDirectlyAssignable(readMethods.get(0).getReturnType(), field.asType(), targetProperty.getWriteType())) {
+                propertyMappings.add(new PropertyMapping(propertyName, readMethods, writeMethod));
+            }
+        }
+        return propertyMappings;
+    }
+
+    private List<PropertyMapping> getDisassembleMappings(Map<String, BeanProperty> targetProperties,
+                                                         Map<String, BeanProperty> sourceProperties) {
+        List<PropertyMapping> propertyMappings = new ArrayList<>();
+        for (BeanProperty targetProperty : targetProperties.values()) {
+            ExecutableElement readMethod = targetProperty.getReadMethod();
+            if (readMethod == null) {
+                continue;
+            }
+            VariableElement field = targetProperty.findDeclaredField(readMethod);
+            if (getAnnotationMirror(field, SkippedField.class) != null) {
+                continue;
+            }
+
+            String propertyName = targetProperty.getName();
+            AnnotationMirror fieldMapping = getAnnotationMirror(field, FieldMapping.class);
+            String propertyPath = propertyName;
+            if (fieldMapping != null) {
+                if (!getStringValue(fieldMapping, "defaultValue").isEmpty() || hasCustomConverter(fieldMapping)) {
+                    continue;
+                }
+                String mappedProperty = getStringValue(fieldMapping, "mappedProperty");
+                if (!mappedProperty.isEmpty()) {
+                    propertyPath = mappedProperty;
+                }
+            }
+            if (propertyPath.contains(PATH_SEPARATOR)) {
+                continue;
+            }
+
+            BeanProperty sourceProperty = sourceProperties.get(propertyPath);
+            if (sourceProperty == null || sourceProperty.getWriteMethod() == null) {
+                continue;
+            }
+            VariableElement sourceField = sourceProperty.findDeclaredField(sourceProperty.getWriteMethod());
+            TypeMirror sourceFieldType = sourceField != null ? sourceField.asType() : sourceProperty.getWriteType();
+            if (isDirectlyAssignable(readMethod.getReturnType(), sourceFieldType, sourceProperty.getWriteType())) {
+                List<ExecutableElement> readMethods = new ArrayList<>(1);
+                readMethods.add(readMethod);
+                propertyMappings.add(new PropertyMapping(propertyName, readMethods, sourceProperty.getWriteMethod()));
+            }
+        }
+        return propertyMappings;
+    }
+
+    private static void addReadMethod(List<ExecutableElement> readMethods, BeanProperty property) {
+        if (property != null && property.getReadMethod() != null) {
+            readMethods.add(property.getReadMethod());
+        }
+    }
+
+    private boolean isSameReturnType(List<ExecutableElement> readMethods) {
+        TypeMirror returnType = readMethods.get(0).getReturnType();
+        for (ExecutableElement readMethod : readMethods) {
+            if (!processingEnv.getTypeUtils().isSameType(returnType, readMethod.getReturnType())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 值无需转换即可写入：非泛型、非{@link com.google.common.base.Optional}，装箱后可赋值给字段类型和setter参数类型
+     * 与运行时isInstance判断一致
+     */
+    private boolean isDirectlyAssignable(TypeMirror valueType, TypeMirror fieldType, TypeMirror writeType) {
+        if (!isPlainType(valueType) || !isPlainType(fieldType) || !isPlainType(writeType)) {
+            return false;
+        }
+        Types types = processingEnv.getTypeUtils();
+        TypeElement optionalElement = processingEnv.getElementUtils().getTypeElement(OPTIONAL_CLASS);
+        if (optionalElement != null) {
+            TypeMirror optionalType = types.erasure(optionalElement.asType());
+            if (types.isAssignable(optionalType, valueType) || types.isAssignable(valueType, optionalType)) {
+                return false;
+            }
+        }
+        TypeMirror boxedValueType = box(valueType);
+        return types.isAssignable(boxedValueType, box(fieldType)) && types.isAssignable(boxedValueType, box(writeType));
+    }
+
+    private static boolean isPlainType(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return true;
+        }
+        return type.getKind() == TypeKind.DECLARED && ((DeclaredType) type).getTypeArguments().isEmpty();
+    }
+
+    private TypeMirror box(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            Types types = processingEnv.getTypeUtils();
+            return types.boxedClass(types.getPrimitiveType(type.getKind())).asType();
+        }
+        return type;
+    }
+
+    /**
+     * 类型及其外部类可在包中访问，且不是泛型类型
+     */
+    private static boolean isAccessible(TypeElement typeElement, PackageElement packageElement) {
+        Element element = typeElement;
+        while (element.getKind().isClass() || element.getKind().isInterface()) {
+            Set<Modifier> modifiers = element.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE)) {
+                return false;
+            }
+            if (!modifiers.contains(Modifier.PUBLIC) && !getPackage(element).equals(packageElement)) {
+                return false;
+            }
+            if (!((TypeElement) element).getTypeParameters().isEmpty()) {
+                return false;
+            }
+            element = element.getEnclosingElement();
+        }
+        return true;
+    }
+
+    private static PackageElement getPackage(Element element) {
+        while (element.getKind() != ElementKind.PACKAGE) {
+            element = element.getEnclosingElement();
+        }
+        return (PackageElement) element;
+    }
+
+    private boolean hasCustomConverter(AnnotationMirror fieldMapping) {
+        DeclaredType customConverterClass = (DeclaredType) getAnnotationValue(fieldMapping, "customConverterClass");
+        return !((TypeElement) customConverterClass.asElement()).getQualifiedName()
+                .contentEquals(NotConfiguredClassifiedConverter.class.getCanonicalName());
+    }
+
+    private String getStringValue(AnnotationMirror annotationMirror, String name) {
+        return (String) getAnnotationValue(annotationMirror, name);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<? extends AnnotationValue> getListValue(AnnotationMirror annotationMirror, String name) {
+        return (List<? extends AnnotationValue>) getAnnotationValue(annotationMirror, name);
+    }
+
+    private Object getAnnotationValue(AnnotationMirror annotationMirror, String name) {
+        Elements elementUtils = processingEnv.getElementUtils();
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : elementUtils.getElementValuesWithDefaults(annotationMirror).entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue().getValue();
+            }
+        }
+        throw new IllegalArgumentException("Annotation value not found: " + name);
+    }
+
+    private static AnnotationMirror getAnnotationMirror(Element element, Class<?> annotationClass) {
+        if (element == null) {
+            return null;
+        }
+        for (AnnotationMirror annotationMirror : element.getAnnotationMirrors()) {
+            TypeElement annotationElement = (TypeElement) annotationMirror.getAnnotationType().asElement();
+            if (annotationElement.getQualifiedName().contentEquals(annotationClass.getCanonicalName())) {
+                return annotationMirror;
+            }
+        }
+        return null;
+    }
+
+    private void writeServiceFile() {
+        if (generatedMappers.isEmpty()) {
+            return;
+        }
+        try {
+            FileObject serviceFile = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+                    MAPPER_SERVICE_FILE);
+            try (Writer writer = serviceFile.openWriter()) {
+                for (String generatedMapper : generatedMappers) {
+                    writer.write(generatedMapper);
+                    writer.write("\n");
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Write " + MAPPER_SERVICE_FILE + " failed: " + e);
+        }
+    }
+
+    private void error(Element element, String message) {
+        Messager messager = processingEnv.getMessager();
+        messager.printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
@@ -0,0 +1,121 @@
+package me.caosh.autoasm.processor;
+
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * 生成映射器源码，生成的源码只包含ASCII字符，避免依赖编译时的文件编码；生成的类继承me.caosh.autoasm.mapper.AbstractMapper，直接调用getter/setter
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+class MapperWriter {
+    private static final String ABSTRACT_MAPPER = "me.caosh.autoasm.mapper.AbstractMapper";
+    private static final String MAPPING_DIRECTION = "me.caosh.autoasm.plan.MappingDirection";
+    private static final String VALUE_SUFFIX = "Value";
+
+    private final Filer filer;
+    private final Elements elements;
+    private final Types types;
+
+    MapperWriter(Filer filer, Elements elements, Types types) {
+        this.filer = filer;
+        this.elements = elements;
+        this.types = types;
+    }
+
+    /**
+     * 生成映射器
+     *
+     * @param direction        映射方向，ASSEMBLE或DISASSEMBLE
+     * @param annotatedType    注解了@MappedClass的类型，生成的映射器与其在同一个包中
+     * @param fromType         读取方类型
+     * @param toType           写入方类型
+     * @param propertyMappings 属性读写
+     * @return 生成的映射器全限定类名
+     * @throws IOException 写入失败
+     */
+    String write(String direction, TypeElement annotatedType, TypeElement fromType, TypeElement toType,
+                 List<PropertyMapping> propertyMappings) throws IOException {
+        PackageElement packageElement = elements.getPackageOf(annotatedType);
+        String packageName = packageElement.getQualifiedName().toString();
+        String simpleName = getFlatName(annotatedType, packageName) + "_" + toCamelCase(direction) + "Mapper";
+        String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+
+        String fromName = types.erasure(fromType.asType()).toString();
+        String toName = types.erasure(toType.asType()).toString();
+
+        JavaFileObject sourceFile = filer.createSourceFile(qualifiedName, annotatedType, fromType);
+        try (Writer writer = sourceFile.openWriter()) {
+            if (!packageName.isEmpty()) {
+                writer.write("package " + packageName + ";\n\n");
+            }
+            writer.write("/**\n");
+            writer.write(" * " + fromType.getSimpleName() + " -> " + toType.getSimpleName() + "\n");
+            writer.write(" * Generated by auto-assembler-processor, do not edit.\n");
+            writer.write(" */\n");
+            writer.write("public final class " + simpleName + " extends " + ABSTRACT_MAPPER
+                    + "<" + fromName + ", " + toName + "> {\n");
+
+            writer.write("    public " + simpleName + "() {\n");
+            writer.write("        super(" + MAPPING_DIRECTION + "." + direction + ", "
+                    + fromName + ".class, " + toName + ".class");
+            for (PropertyMapping propertyMapping : propertyMappings) {
+                writer.write(", \"" + propertyMapping.getPropertyName() + "\"");
+            }
+            writer.write(");\n");
+            writer.write("    }\n\n");
+
+            writer.write("    @Override\n");
+            writer.write("    public void map(" + fromName + " from, " + toName + " to) {\n");
+            for (PropertyMapping propertyMapping : propertyMappings) {
+                writeProperty(writer, propertyMapping);
+            }
+            writer.write("    }\n");
+            writer.write("}\n");
+        }
+        return qualifiedName;
+    }
+
+    private void writeProperty(Writer writer, PropertyMapping propertyMapping) throws IOException {
+        String variable = propertyMapping.getPropertyName() + VALUE_SUFFIX;
+        String setterName = propertyMapping.getWriteMethod().getSimpleName().toString();
+        List<ExecutableElement> readMethods = propertyMapping.getReadMethods();
+
+        writer.write("        " + propertyMapping.getValueType() + " " + variable + " = from."
+                + readMethods.get(0).getSimpleName() + "();\n");
+        if (propertyMapping.getValueType().getKind().isPrimitive()) {
+            writer.write("        to." + setterName + "(" + variable + ");\n");
+            return;
+        }
+        for (ExecutableElement readMethod : readMethods.subList(1, readMethods.size())) {
+            writer.write("        if (" + variable + " == null) {\n");
+            writer.write("            " + variable + " = from." + readMethod.getSimpleName() + "();\n");
+            writer.write("        }\n");
+        }
+        writer.write("        if (" + variable + " != null) {\n");
+        writer.write("            to." + setterName + "(" + variable + ");\n");
+        writer.write("        }\n");
+    }
+
+    /**
+     * 嵌套类的类名以下划线连接外部类名
+     */
+    private String getFlatName(TypeElement typeElement, String packageName) {
+        String binaryName = elements.getBinaryName(typeElement).toString();
+        String localName = packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1);
+        return localName.replace('$', '_');
+    }
+
+    private static String toCamelCase(String direction) {
+        return direction.charAt(0) + direction.substring(1).toLowerCase();
+    }
+}
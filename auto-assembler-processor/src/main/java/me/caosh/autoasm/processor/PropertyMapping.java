@@ -0,0 +1,49 @@
+package me.caosh.autoasm.processor;
+
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.type.TypeMirror;
+import java.util.List;
+
+/**
+ * 生成代码中单个属性的直接读写：依次调用getter直到取得非null值，再调用setter
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+class PropertyMapping {
+    private final String propertyName;
+    private final List<ExecutableElement> readMethods;
+    private final ExecutableElement writeMethod;
+
+    PropertyMapping(String propertyName, List<ExecutableElement> readMethods, ExecutableElement writeMethod) {
+        this.propertyName = propertyName;
+        this.readMethods = readMethods;
+        this.writeMethod = writeMethod;
+    }
+
+    /**
+     * 目标类上的属性名
+     *
+     * @return 属性名
+     */
+    String getPropertyName() {
+        return propertyName;
+    }
+
+    /**
+     * 读取方的getter，按优先级排列，返回类型相同
+     *
+     * @return getter列表
+     */
+    List<ExecutableElement> getReadMethods() {
+        return readMethods;
+    }
+
+    ExecutableElement getWriteMethod() {
+        return writeMethod;
+    }
+
+    TypeMirror getValueType() {
+        return readMethods.get(0).getReturnType();
+    }
+}
@@ -0,0 +1,191 @@
+package me.caosh.autoasm.processor;
+
+import me.caosh.autoasm.AutoAssembler;
+import me.caosh.autoasm.AutoAssemblerBuilder;
+import me.caosh.autoasm.mapper.Mapper;
+import me.caosh.autoasm.mapper.MapperRegistry;
+import me.caosh.autoasm.plan.MappingDirection;
+import org.testng.annotations.Test;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.testng.Assert.*;
+
+/**
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+public class MapperProcessorTest {
+    private static final String ORDER = "package test;\n"
+            + "public class Order {\n"
+            + "    private Integer id;\n"
+            + "    private String name;\n"
+            + "    private int quantity;\n"
+            + "    private String remark;\n"
+            + "    public Integer getId() { return id; }\n"
+            + "    public void setId(Integer id) { this.id = id; }\n"
+            + "    public String getName() { return name; }\n"
+            + "    public void setName(String name) { this.name = name; }\n"
+            + "    public int getQuantity() { return quantity; }\n"
+            + "    public void setQuantity(int quantity) { this.quantity = quantity; }\n"
+            + "    public String getRemark() { return remark; }\n"
+            + "    public void setRemark(String remark) { this.remark = remark; }\n"
+            + "}\n";
+
+    private static final String ORDER_DTO = "package test;\n"
+            + "import me.caosh.autoasm.FieldMapping;\n"
+            + "import me.caosh.autoasm.MappedClass;\n"
+            + "import me.caosh.autoasm.SkippedField;\n"
+            + "@MappedClass(Order.class)\n"
+            + "public class OrderDTO {\n"
+            + "    private Integer id;\n"
+            + "    @FieldMapping(mappedProperty = \"name\")\n"
+            + "    private String orderName;\n"
+            + "    private Integer quantity;\n"
+            + "    @SkippedField\n"
+            + "    private String remark;\n"
+            + "    public Integer getId() { return id; }\n"
+            + "    public void setId(Integer id) { this.id = id; }\n"
+            + "    public String getOrderName() { return orderName; }\n"
+            + "    public void setOrderName(String orderName) { this.orderName = orderName; }\n"
+            + "    public Integer getQuantity() { return quantity; }\n"
+            + "    public void setQuantity(Integer quantity) { this.quantity = quantity; }\n"
+            + "    public String getRemark() { return remark; }\n"
+            + "    public void setRemark(String remark) { this.remark = remark; }\n"
+            + "}\n";
+
+    @Test
+    public void testGenerateMappers() throws Exception {
+        File outputDirectory = Files.createTempDirectory("mapper-processor").toFile();
+        List<Diagnostic<? extends JavaFileObject>> diagnostics = compile(outputDirectory, ORDER, ORDER_DTO);
+        assertTrue(getErrors(diagnostics).isEmpty(), getErrors(diagnostics).toString());
+
+        File serviceFile = new File(outputDirectory, MapperProcessor.MAPPER_SERVICE_FILE);
+        assertEquals(Files.readAllLines(serviceFile.toPath(), StandardCharsets.UTF_8),
+                Arrays.asList("test.OrderDTO_AssembleMapper", "test.OrderDTO_DisassembleMapper"));
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{outputDirectory.toURI().toURL()},
+                getClass().getClassLoader())) {
+            Class<?> orderClass = classLoader.loadClass("test.Order");
+            Class<?> orderDTOClass = classLoader.loadClass("test.OrderDTO");
+
+            MapperRegistry mapperRegistry = MapperRegistry.load(classLoader);
+            Mapper<Object, Object> assembleMapper = mapperRegistry.find(MappingDirection.ASSEMBLE,
+                    orderClass, orderDTOClass);
+            // 基本类型装箱后可直接赋值，跳过的字段不处理
+            assertEquals(assembleMapper.getMappedProperties(),
+                    new HashSet<>(Arrays.asList("id", "orderName", "quantity")));
+            assertNotNull(mapperRegistry.find(MappingDirection.DISASSEMBLE, orderDTOClass, orderClass));
+
+            Object order = orderClass.getDeclaredConstructor().newInstance();
+            orderClass.getMethod("setId", Integer.class).invoke(order, 12);
+            orderClass.getMethod("setName", String.class).invoke(order, "ccc");
+            orderClass.getMethod("setQuantity", int.class).invoke(order, 3);
+            orderClass.getMethod("setRemark", String.class).invoke(order, "skipped");
+
+            Thread currentThread = Thread.currentThread();
+            ClassLoader contextClassLoader = currentThread.getContextClassLoader();
+            currentThread.setContextClassLoader(classLoader);
+            AutoAssembler autoAssembler;
+            try {
+                autoAssembler = new AutoAssemblerBuilder().build();
+            } finally {
+                currentThread.setContextClassLoader(contextClassLoader);
+            }
+
+            Object orderDTO = autoAssembler.assemble(order, orderDTOClass);
+            assertEquals(orderDTOClass.getMethod("getId").invoke(orderDTO), 12);
+            assertEquals(orderDTOClass.getMethod("getOrderName").invoke(orderDTO), "ccc");
+            assertEquals(orderDTOClass.getMethod("getQuantity").invoke(orderDTO), 3);
+            assertNull(orderDTOClass.getMethod("getRemark").invoke(orderDTO));
+
+            Object disassembled = autoAssembler.disassemble(orderDTO, orderClass);
+            assertEquals(orderClass.getMethod("getId").invoke(disassembled), 12);
+            assertEquals(orderClass.getMethod("getName").invoke(disassembled), "ccc");
+            assertEquals(orderClass.getMethod("getQuantity").invoke(disassembled), 3);
+        }
+    }
+
+    @Test
+    public void testMissingDeclaredField() throws Exception {
+        String dto = "package test;\n"
+                + "import me.caosh.autoasm.MappedClass;\n"
+                + "@MappedClass(Order.class)\n"
+                + "public class NoFieldDTO {\n"
+                + "    public String getFullName() { return null; }\n"
+                + "}\n";
+        File outputDirectory = Files.createTempDirectory("mapper-processor").toFile();
+        List<String> errors = getErrors(compile(outputDirectory, ORDER, dto));
+        assertEquals(errors, Collections.singletonList(
+                "Get declared field (fullName) from property declaring class <NoFieldDTO> failed"));
+    }
+
+    @Test
+    public void testRuntimeTypeWithoutMappedClass() throws Exception {
+        String base = "package test;\n"
+                + "import me.caosh.autoasm.RuntimeType;\n"
+                + "@RuntimeType({Sub.class})\n"
+                + "public abstract class Base {\n"
+                + "}\n";
+        String sub = "package test;\n"
+                + "public class Sub extends Base {\n"
+                + "}\n";
+        File outputDirectory = Files.createTempDirectory("mapper-processor").toFile();
+        List<String> errors = getErrors(compile(outputDirectory, base, sub));
+        assertEquals(errors, Collections.singletonList(
+                "Runtime type subclass should be annotated with @MappedClass: test.Sub"));
+    }
+
+    private static List<Diagnostic<? extends JavaFileObject>> compile(File outputDirectory, String... sources)
+            throws IOException {
+        File sourceDirectory = new File(outputDirectory, "src");
+        List<File> sourceFiles = new ArrayList<>();
+        for (String source : sources) {
+            String className = source.substring(source.indexOf("class ") + "class ".length());
+            className = className.substring(0, className.indexOf(' '));
+            File sourceFile = new File(sourceDirectory, "test/" + className + ".java");
+            sourceFile.getParentFile().mkdirs();
+            Files.write(sourceFile.toPath(), source.getBytes(StandardCharsets.UTF_8));
+            sourceFiles.add(sourceFile);
+        }
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnosticCollector = new DiagnosticCollector<>();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnosticCollector, null,
+                StandardCharsets.UTF_8)) {
+            List<String> options = Arrays.asList("-d", outputDirectory.getPath(),
+                    "-classpath", System.getProperty("java.class.path"));
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnosticCollector, options,
+                    null, fileManager.getJavaFileObjectsFromFiles(sourceFiles));
+            task.setProcessors(Collections.singletonList(new MapperProcessor()));
+            task.call();
+        }
+        return diagnosticCollector.getDiagnostics();
+    }
+
+    private static List<String> getErrors(List<Diagnostic<? extends JavaFileObject>> diagnostics) {
+        List<String> errors = new ArrayList<>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics) {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                errors.add(diagnostic.getMessage(null));
+            }
+        }
+        return errors;
+    }
+}
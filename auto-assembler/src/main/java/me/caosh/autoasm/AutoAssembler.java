@@ -1,34 +1,53 @@
 package me.caosh.autoasm;
 
 import com.google.common.base.Converter;
+import com.google.common.base.Function;
 import com.google.common.base.Optional;
-import com.google.common.base.Preconditions;
-import com.google.common.collect.Iterables;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
+import com.google.common.primitives.Primitives;
+import me.caosh.autoasm.collection.ElementConverters;
+import me.caosh.autoasm.collection.GenericTypeConverter;
 import me.caosh.autoasm.converter.ClassifiedConverter;
 import me.caosh.autoasm.converter.ConverterMapping;
 import me.caosh.autoasm.converter.DefaultConverterMapping;
-import me.caosh.autoasm.converter.NotConfiguredClassifiedConverter;
-import me.caosh.autoasm.handler.FieldMappingAssembleReadHandler;
-import me.caosh.autoasm.handler.FieldMappingDisassemblePropertyFinder;
-import me.caosh.autoasm.handler.FieldMappingDisassembleReadHandler;
-import me.caosh.autoasm.handler.PropertyFinder;
-import me.caosh.autoasm.handler.ReadHandler;
-import me.caosh.autoasm.handler.ReadHandlerChain;
-import me.caosh.autoasm.handler.ReflectionReadHandler;
+import me.caosh.autoasm.instantiator.ConstructorInstantiatorFactory;
+import me.caosh.autoasm.instantiator.InstantiatorCache;
+import me.caosh.autoasm.instantiator.InstantiatorFactory;
+import me.caosh.autoasm.mapper.Mapper;
+import me.caosh.autoasm.mapper.MapperRegistry;
+import me.caosh.autoasm.mapper.MethodHandleMapperFactory;
+import me.caosh.autoasm.plan.ConstantValue;
+import me.caosh.autoasm.plan.ConstantValueResolver;
+import me.caosh.autoasm.plan.MappingDirection;
+import me.caosh.autoasm.plan.MappingPlan;
+import me.caosh.autoasm.plan.MappingPlanCache;
+import me.caosh.autoasm.plan.MappingPlanFactory;
+import me.caosh.autoasm.plan.PropertyPlan;
 import me.caosh.autoasm.util.AssemblerWithBuilder;
-import me.caosh.autoasm.util.PropertyFindResult;
-import me.caosh.autoasm.util.PropertyUtils;
-import me.caosh.autoasm.util.ReflectionUtils;
-import org.springframework.beans.BeanUtils;
-
-import java.beans.PropertyDescriptor;
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
+import me.caosh.autoasm.util.ImmutableTypeRegistry;
+import me.caosh.autoasm.util.PropertyAccessor;
+import me.caosh.autoasm.util.PropertyPath;
+import me.caosh.autoasm.util.RuntimeTypeTable;
+
+import java.io.IOException;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 自动装载器，自动完成domain object与pojo之间或pojo之间的转换
@@ -38,28 +57,99 @@ import java.util.List;
  * @date 2018/1/10
  */
 public class AutoAssembler {
-    private static final String CLASS = "class";
-
-    private ReadHandler assembleReadHandler;
-    private ReadHandler disassembleReadHandler;
-    private PropertyFinder disassemblePropertyFinder;
-    private ConverterMapping converterMapping;
+    private final ConverterMapping converterMapping;
+    private final ImmutableTypeRegistry immutableTypeRegistry;
+    private final MappingPlanFactory mappingPlanFactory;
+    /**
+     * 映射计划在注册新的converter后保留，其中依赖converter的常量值、映射器在下次使用时按新版本重新创建
+     */
+    private final MappingPlanCache assemblePlans = new MappingPlanCache();
+    private final MappingPlanCache disassemblePlans = new MappingPlanCache();
+    private final MapperRegistry mapperRegistry;
+    /**
+     * 为空时不生成映射器，全部属性按映射计划处理
+     */
+    private final MethodHandleMapperFactory mapperFactory;
+    private final InstantiatorCache instantiators;
+    private final GenericTypeConverter genericTypeConverter = new GenericTypeConverter();
+    private final ElementConverters assembleElementConverters = new ElementConverters() {
+        @Override
+        public Function<Object, Object> get(Class<?> toClass) {
+            return elementConverter(MappingDirection.ASSEMBLE, (Class<Object>) toClass, null);
+        }
+    };
+    private final ElementConverters disassembleElementConverters = new ElementConverters() {
+        @Override
+        public Function<Object, Object> get(Class<?> toClass) {
+            return elementConverter(MappingDirection.DISASSEMBLE, (Class<Object>) toClass, null);
+        }
+    };
+    /**
+     * 无状态的自定义converter，每个类型一个实例及其反向converter
+     */
+    private final ClassValue<CustomConverters> customConverters = new ClassValue<CustomConverters>() {
+        @Override
+        protected CustomConverters computeValue(Class<?> type) {
+            return new CustomConverters(instantiators.newInstance((Class<? extends ClassifiedConverter<?, ?>>) type));
+        }
+    };
 
     AutoAssembler() {
         this(new DefaultConverterMapping());
     }
 
     AutoAssembler(ConverterMapping converterMapping) {
-        this.assembleReadHandler = new ReadHandlerChain(
-                new FieldMappingAssembleReadHandler(),
-                new ReflectionReadHandler()
-        );
-        this.disassembleReadHandler = new ReadHandlerChain(
-                new ReflectionReadHandler(),
-                new FieldMappingDisassembleReadHandler()
-        );
-        this.disassemblePropertyFinder = new FieldMappingDisassemblePropertyFinder();
+        this(converterMapping, MapperRegistry.load(), null, new ConstructorInstantiatorFactory(),
+                new ImmutableTypeRegistry());
+    }
+
+    AutoAssembler(ConverterMapping converterMapping, MapperRegistry mapperRegistry,
+                  MethodHandleMapperFactory mapperFactory, InstantiatorFactory instantiatorFactory,
+                  ImmutableTypeRegistry immutableTypeRegistry) {
         this.converterMapping = converterMapping;
+        this.immutableTypeRegistry = immutableTypeRegistry;
+        this.mappingPlanFactory = new MappingPlanFactory(new ConstantValueResolver() {
+            @Override
+            public ConstantValue resolve(MappingDirection direction, PropertyPlan propertyPlan, String literal) {
+                // 字面值无法转换的在此抛出异常，不会缓存错误的映射计划
+                Object value = convertConstantValue(direction, propertyPlan, literal);
+                // converter返回null的，写入null
+                if (value == null || AutoAssembler.this.immutableTypeRegistry.isImmutable(value.getClass())) {
+                    return ConstantValue.shared(literal, value);
+                }
+                return ConstantValue.unshared(literal, value);
+            }
+        }, immutableTypeRegistry);
+        this.mapperRegistry = mapperRegistry;
+        this.mapperFactory = mapperFactory;
+        this.instantiators = new InstantiatorCache(instantiatorFactory);
+    }
+
+    /**
+     * 注册源类型与目标类型之间互转的converter，可在使用中注册，不影响并发进行的转换
+     *
+     * @param sourceClass 源类型class
+     * @param targetClass 目标类型class
+     * @param converter   guava converter
+     * @param <S>         源类型参数
+     * @param <T>         目标类型参数
+     */
+    public <S, T> void registerConverter(Class<S> sourceClass, Class<T> targetClass, Converter<S, T> converter) {
+        converterMapping.register(sourceClass, targetClass, converter);
+    }
+
+    /**
+     * 注册源类型与目标类型之间互转的{@link ClassifiedConverter}，可在使用中注册，不影响并发进行的转换
+     *
+     * @param sourceClass 源类型class
+     * @param targetClass 目标类型class
+     * @param converter   classified converter
+     * @param <S>         源类型参数
+     * @param <T>         目标类型参数
+     */
+    public <S, T> void registerConverter(Class<S> sourceClass, Class<T> targetClass,
+                                         ClassifiedConverter<S, T> converter) {
+        converterMapping.register(sourceClass, targetClass, converter);
     }
 
     /**
@@ -75,13 +165,25 @@ public class AutoAssembler {
      * @return 目标对象，不可能为空
      */
     public <S, T> T assemble(S sourceObject, Class<T> targetClass) {
+        return assemble(sourceObject, targetClass, null);
+    }
+
+    /**
+     * 在转换上下文中将source对象转换装载为targetClass的实例对象，同一个上下文中已转换的对象（包括嵌套对象）直接复用
+     *
+     * @param sourceObject 源对象
+     * @param targetClass  目标类信息
+     * @param context      转换上下文，为空时与{@link #assemble(Object, Class)}相同
+     * @param <T>          目标类型
+     * @return 目标对象，以{@link ConversionContext#truncateAtDepth(int)}创建的上下文中，超过最大深度的嵌套对象为空
+     * @throws MaxDepthExceededException 嵌套对象超过{@link ConversionContext#withMaxDepth(int)}的最大深度
+     */
+    public <S, T> T assemble(S sourceObject, Class<T> targetClass, ConversionContext context) {
         ClassifiedConverter<S, T> scalaConverter = converterMapping.find((Class<S>) sourceObject.getClass(), targetClass);
         if (scalaConverter != null) {
             return scalaConverter.convert(sourceObject, targetClass);
         }
-        T targetObject = ReflectionUtils.newInstance(targetClass);
-        assembleToTarget(sourceObject, targetObject);
-        return targetObject;
+        return (T) mapObject(MappingDirection.ASSEMBLE, null, sourceObject, targetClass, context);
     }
 
     public <S, BT extends ConvertibleBuilder> BT assemble(S sourceObject, BT targetBuilder) {
@@ -89,43 +191,153 @@ public class AutoAssembler {
         return targetBuilder;
     }
 
+    /**
+     * 将source对象合并到已有的target对象，忽略source中为null的属性
+     *
+     * @param sourceObject 源对象
+     * @param targetObject 已有的目标对象
+     * @param <T>          目标类型
+     * @return targetObject
+     * @see #assembleInto(Object, Object, NullValuePolicy)
+     */
+    public <S, T> T assembleInto(S sourceObject, T targetObject) {
+        return assembleInto(sourceObject, targetObject, NullValuePolicy.IGNORE);
+    }
+
+    /**
+     * 将source对象合并到已有的target对象
+     * <p>
+     * 1. 嵌套的{@link Convertible}或{@link RuntimeType}属性已有值且类型一致时，递归合并到已有的嵌套对象
+     * 2. 集合、Map属性已有可修改的容器时，清空后填充转换后的元素，元素本身不复用
+     * 3. 其他属性与assemble相同，转换后赋值
+     * <p>
+     * 不处理循环引用
+     *
+     * @param sourceObject    源对象
+     * @param targetObject    已有的目标对象
+     * @param nullValuePolicy null值的处理方式
+     * @param <T>             目标类型
+     * @return targetObject
+     */
+    public <S, T> T assembleInto(S sourceObject, T targetObject, NullValuePolicy nullValuePolicy) {
+        return assembleInto(sourceObject, targetObject, nullValuePolicy, null);
+    }
+
+    /**
+     * 将source对象合并到已有的target对象，与已有值相等的属性不调用setter，实际变化的属性记录到changes
+     *
+     * @param sourceObject    源对象
+     * @param targetObject    已有的目标对象
+     * @param nullValuePolicy null值的处理方式
+     * @param changes         记录变化的属性，为空时与{@link #assembleInto(Object, Object, NullValuePolicy)}相同
+     * @param <T>             目标类型
+     * @return targetObject
+     */
+    public <S, T> T assembleInto(S sourceObject, T targetObject, NullValuePolicy nullValuePolicy,
+                                 PropertyChanges changes) {
+        mergeInto(getAssemblePlan(sourceObject.getClass(), targetObject.getClass()), sourceObject, targetObject,
+                nullValuePolicy, changes, "");
+        return targetObject;
+    }
+
     public <S, T> List<T> assembleList(Iterable<S> sourceList, Class<T> targetElementClass) {
-        if (Iterables.isEmpty(sourceList)) {
+        // 只迭代一次，sourceList可以是只能读取一次的游标
+        Iterator<S> sourceIterator = sourceList.iterator();
+        if (!sourceIterator.hasNext()) {
+            return Collections.emptyList();
+        }
+        List<T> targetList = newListFor(sourceList);
+        Iterators.addAll(targetList, assembleIterator(sourceIterator, targetElementClass));
+        return targetList;
+    }
+
+    /**
+     * 按并行策略将源列表转换装载为targetElementClass的列表，元素数量未达到阈值时在调用线程转换
+     *
+     * @param sourceList         源列表
+     * @param targetElementClass 目标元素类型
+     * @param parallelismPolicy  并行策略
+     * @param <S>                源类型
+     * @param <T>                目标类型
+     * @return 目标列表，与源列表顺序一致
+     * @throws ElementConversionException 元素转换失败
+     */
+    public <S, T> List<T> assembleList(Iterable<S> sourceList, Class<T> targetElementClass,
+                                       ParallelismPolicy parallelismPolicy) {
+        List<S> sources = asList(sourceList);
+        if (sources.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return parallelismPolicy.transform(sources,
+                this.<S, T>elementConverter(MappingDirection.ASSEMBLE, targetElementClass, null));
+    }
+
+    /**
+     * 在转换上下文中将源列表转换装载为targetElementClass的列表，列表中重复引用的对象只转换一次
+     *
+     * @param sourceList         源列表
+     * @param targetElementClass 目标元素类型
+     * @param context            转换上下文
+     * @param <S>                源类型
+     * @param <T>                目标类型
+     * @return 目标列表
+     */
+    public <S, T> List<T> assembleList(Iterable<S> sourceList, Class<T> targetElementClass,
+                                       ConversionContext context) {
+        Iterator<S> sourceIterator = sourceList.iterator();
+        if (!sourceIterator.hasNext()) {
             return Collections.emptyList();
         }
-        Class<S> sourceElementClass = (Class<S>) sourceList.iterator().next().getClass();
-        Converter<S, T> converter = getConverterFor(sourceElementClass, targetElementClass);
-        return Lists.newArrayList(Iterables.transform(sourceList, converter));
+        List<T> targetList = newListFor(sourceList);
+        Iterators.addAll(targetList, Iterators.transform(sourceIterator,
+                this.<S, T>elementConverter(MappingDirection.ASSEMBLE, targetElementClass, context)));
+        return targetList;
     }
 
     private void assembleToTarget(Object sourceObject, Object targetObject) {
-        Class<?> targetClass = targetObject.getClass();
-        PropertyDescriptor[] targetPropertyDescriptors = BeanUtils.getPropertyDescriptors(targetClass);
-        for (PropertyDescriptor targetPropertyDescriptor : targetPropertyDescriptors) {
-            Method writeMethod = targetPropertyDescriptor.getWriteMethod();
-            if (writeMethod != null) {
-                String propertyName = targetPropertyDescriptor.getName();
-                if (CLASS.equals(propertyName)) {
-                    // 每个对象都有一个class属性，不处理
-                    continue;
-                }
+        assembleToTarget(getAssemblePlan(sourceObject.getClass(), targetObject.getClass()), sourceObject, targetObject,
+                null);
+    }
 
-                PropertyMeta propertyMeta = getPropertyMeta(propertyName, writeMethod);
-                if (propertyMeta.getSkippedField().isPresent()) {
-                    // 配置为跳过的字段不处理
-                    continue;
-                }
+    private void assembleToTarget(MappingPlan mappingPlan, Object sourceObject, Object targetObject,
+                                  ConversionContext context) {
+        Mapper<Object, Object> mapper = mappingPlan.getMapper();
+        if (mapper != null) {
+            mapper.map(sourceObject, targetObject);
+        }
+        for (PropertyPlan propertyPlan : mappingPlan.getPropertyPlans()) {
+            ConstantValue constantValue = propertyPlan.getConstantValue();
+            if (constantValue != null) {
+                propertyPlan.getWritePropertyAccessor().set(targetObject,
+                        getConstantValue(MappingDirection.ASSEMBLE, propertyPlan, constantValue));
+                continue;
+            }
 
-                Object value = assembleReadHandler.read(propertyMeta.getFieldMapping().orNull(), sourceObject, propertyName);
-                if (value != null) {
-                    Class<?> propertyType = targetPropertyDescriptor.getPropertyType();
-                    ClassifiedConverter<?, ?> converter = getAssembleConverter(propertyMeta.getFieldMapping().orNull(),
-                            value, propertyType);
-                    Object convertedValue = convertValueOnAssembling(value, propertyMeta.getFieldGenericType(), converter);
-                    PropertyUtils.setProperty(targetPropertyDescriptor, targetObject, convertedValue);
-                }
+            FieldMapping fieldMapping = propertyPlan.getFieldMapping();
+            String propertyName = propertyPlan.getPropertyName();
+            Object value = propertyPlan.getReadHandler().read(fieldMapping, sourceObject, propertyName);
+            if (isDirectWrite(propertyPlan, value) || isSharedContainer(propertyPlan, value)) {
+                propertyPlan.getWritePropertyAccessor().set(targetObject, value);
+                continue;
             }
+            if (value != null) {
+                ClassifiedConverter<?, ?> converter = getPropertyConverter(propertyPlan, value, false);
+                Object convertedValue = convertValueOnAssembling(value, propertyPlan.getWriteFieldGenericType(),
+                        converter, context);
+                propertyPlan.getWritePropertyAccessor().set(targetObject, convertedValue);
+            }
+        }
+    }
+
+    private MappingPlan getAssemblePlan(Class<?> sourceClass, Class<?> targetClass) {
+        MappingPlan mappingPlan = assemblePlans.get(sourceClass, targetClass);
+        if (mappingPlan == null) {
+            // 先取版本号再创建计划，创建过程中注册的converter在下次使用时生效
+            long version = converterMapping.getVersion();
+            mappingPlan = assemblePlans.putIfAbsent(sourceClass, targetClass,
+                    withConverters(mappingPlanFactory.createAssemblePlan(sourceClass, targetClass), null, version));
         }
+        return refreshConverters(assemblePlans, mappingPlan);
     }
 
     /**
@@ -142,13 +354,26 @@ public class AutoAssembler {
      * @return 源对象
      */
     public <S, T> S disassemble(T targetObject, Class<S> sourceClass) {
+        return disassemble(targetObject, sourceClass, null);
+    }
+
+    /**
+     * 在转换上下文中将targetObject反装载为sourceClass的实例对象，同一个上下文中已转换的对象（包括嵌套对象）直接复用
+     *
+     * @param targetObject 目标对象
+     * @param sourceClass  源类型class
+     * @param context      转换上下文，为空时与{@link #disassemble(Object, Class)}相同
+     * @param <S>          源类型
+     * @param <T>          目标类型
+     * @return 源对象，以{@link ConversionContext#truncateAtDepth(int)}创建的上下文中，超过最大深度的嵌套对象为空
+     * @throws MaxDepthExceededException 嵌套对象超过{@link ConversionContext#withMaxDepth(int)}的最大深度
+     */
+    public <S, T> S disassemble(T targetObject, Class<S> sourceClass, ConversionContext context) {
         ClassifiedConverter<T, S> scalaConverter = converterMapping.find((Class<T>) targetObject.getClass(), sourceClass);
         if (scalaConverter != null) {
             return scalaConverter.convert(targetObject, sourceClass);
         }
-        S sourceObject = ReflectionUtils.newInstance(sourceClass);
-        disassembleFromTarget(targetObject, sourceObject);
-        return sourceObject;
+        return (S) mapObject(MappingDirection.DISASSEMBLE, null, targetObject, sourceClass, context);
     }
 
     public <SB, T> SB disassemble(T targetObject, SB sourceBuilder) {
@@ -156,87 +381,481 @@ public class AutoAssembler {
         return sourceBuilder;
     }
 
+    /**
+     * 将target对象反装载合并到已有的source对象，忽略target中为null的属性
+     *
+     * @param targetObject 目标对象
+     * @param sourceObject 已有的源对象
+     * @param <S>          源类型
+     * @return sourceObject
+     * @see #disassembleInto(Object, Object, NullValuePolicy)
+     */
+    public <S, T> S disassembleInto(T targetObject, S sourceObject) {
+        return disassembleInto(targetObject, sourceObject, NullValuePolicy.IGNORE);
+    }
+
+    /**
+     * 将target对象反装载合并到已有的source对象，嵌套对象及容器的复用规则与
+     * {@link #assembleInto(Object, Object, NullValuePolicy)}相同
+     * <p>
+     * 配置了默认值的属性读取到null时仍写入默认值
+     *
+     * @param targetObject    目标对象
+     * @param sourceObject    已有的源对象
+     * @param nullValuePolicy null值的处理方式
+     * @param <S>             源类型
+     * @return sourceObject
+     */
+    public <S, T> S disassembleInto(T targetObject, S sourceObject, NullValuePolicy nullValuePolicy) {
+        return disassembleInto(targetObject, sourceObject, nullValuePolicy, null);
+    }
+
+    /**
+     * 将target对象反装载合并到已有的source对象，与已有值相等的属性不调用setter，实际变化的属性记录到changes
+     * <p>
+     * 用于写入ORM托管的实体，未变化的属性不会使实体被标记为已修改
+     *
+     * @param targetObject    目标对象
+     * @param sourceObject    已有的源对象
+     * @param nullValuePolicy null值的处理方式
+     * @param changes         记录变化的属性，为空时与{@link #disassembleInto(Object, Object, NullValuePolicy)}相同
+     * @param <S>             源类型
+     * @return sourceObject
+     */
+    public <S, T> S disassembleInto(T targetObject, S sourceObject, NullValuePolicy nullValuePolicy,
+                                    PropertyChanges changes) {
+        mergeInto(getDisassemblePlan(targetObject.getClass(), sourceObject.getClass()), targetObject, sourceObject,
+                nullValuePolicy, changes, "");
+        return sourceObject;
+    }
+
     public <S, T> List<S> disassembleList(Iterable<T> targetList, Class<S> sourceElementClass) {
-        if (Iterables.isEmpty(targetList)) {
+        Iterator<T> targetIterator = targetList.iterator();
+        if (!targetIterator.hasNext()) {
+            return Collections.emptyList();
+        }
+        List<S> sourceList = newListFor(targetList);
+        Iterators.addAll(sourceList, disassembleIterator(targetIterator, sourceElementClass));
+        return sourceList;
+    }
+
+    /**
+     * 按并行策略将目标列表反装载为sourceElementClass的列表，元素数量未达到阈值时在调用线程转换
+     *
+     * @param targetList         目标列表
+     * @param sourceElementClass 源元素类型
+     * @param parallelismPolicy  并行策略
+     * @param <S>                源类型
+     * @param <T>                目标类型
+     * @return 源列表，与目标列表顺序一致
+     * @throws ElementConversionException 元素转换失败
+     */
+    public <S, T> List<S> disassembleList(Iterable<T> targetList, Class<S> sourceElementClass,
+                                          ParallelismPolicy parallelismPolicy) {
+        List<T> targets = asList(targetList);
+        if (targets.isEmpty()) {
             return Collections.emptyList();
         }
-        Class<T> targetElementClass = (Class<T>) targetList.iterator().getClass();
-        Converter<T, S> converter = getConverterFor(sourceElementClass, targetElementClass).reverse();
-        return Lists.newArrayList(Iterables.transform(targetList, converter));
+        return parallelismPolicy.transform(targets,
+                this.<T, S>elementConverter(MappingDirection.DISASSEMBLE, sourceElementClass, null));
+    }
+
+    /**
+     * 在转换上下文中将目标列表反装载为sourceElementClass的列表，列表中重复引用的对象只转换一次
+     *
+     * @param targetList         目标列表
+     * @param sourceElementClass 源元素类型
+     * @param context            转换上下文
+     * @param <S>                源类型
+     * @param <T>                目标类型
+     * @return 源列表
+     */
+    public <S, T> List<S> disassembleList(Iterable<T> targetList, Class<S> sourceElementClass,
+                                          ConversionContext context) {
+        Iterator<T> targetIterator = targetList.iterator();
+        if (!targetIterator.hasNext()) {
+            return Collections.emptyList();
+        }
+        List<S> sourceList = newListFor(targetList);
+        Iterators.addAll(sourceList, Iterators.transform(targetIterator,
+                this.<T, S>elementConverter(MappingDirection.DISASSEMBLE, sourceElementClass, context)));
+        return sourceList;
+    }
+
+    /**
+     * 惰性地将源对象逐个转换装载为targetElementClass的实例，每次{@link Iterator#next()}时才读取并转换一个源对象
+     * <p>
+     * 不缓存源对象和转换结果，可用于逐行读取的数据库游标等大数据量的场景
+     *
+     * @param sourceIterator     源对象迭代器
+     * @param targetElementClass 目标元素类型
+     * @param <S>                源类型
+     * @param <T>                目标类型
+     * @return 目标对象迭代器
+     */
+    public <S, T> Iterator<T> assembleIterator(Iterator<S> sourceIterator, Class<T> targetElementClass) {
+        return Iterators.transform(sourceIterator,
+                this.<S, T>elementConverter(MappingDirection.ASSEMBLE, targetElementClass, null));
+    }
+
+    /**
+     * 惰性地将源对象转换装载为targetElementClass的实例，每次迭代都重新读取源对象并转换
+     *
+     * @param sourceIterable     源对象
+     * @param targetElementClass 目标元素类型
+     * @param <S>                源类型
+     * @param <T>                目标类型
+     * @return 目标对象视图
+     */
+    public <S, T> Iterable<T> assembleIterable(final Iterable<S> sourceIterable, final Class<T> targetElementClass) {
+        return new FluentIterable<T>() {
+            @Override
+            public Iterator<T> iterator() {
+                return assembleIterator(sourceIterable.iterator(), targetElementClass);
+            }
+        };
+    }
+
+    /**
+     * 惰性地将目标对象逐个反装载为sourceElementClass的实例，每次{@link Iterator#next()}时才读取并转换一个目标对象
+     *
+     * @param targetIterator     目标对象迭代器
+     * @param sourceElementClass 源元素类型
+     * @param <S>                源类型
+     * @param <T>                目标类型
+     * @return 源对象迭代器
+     */
+    public <S, T> Iterator<S> disassembleIterator(Iterator<T> targetIterator, Class<S> sourceElementClass) {
+        return Iterators.transform(targetIterator,
+                this.<T, S>elementConverter(MappingDirection.DISASSEMBLE, sourceElementClass, null));
+    }
+
+    /**
+     * 惰性地将目标对象反装载为sourceElementClass的实例，每次迭代都重新读取目标对象并转换
+     *
+     * @param targetIterable     目标对象
+     * @param sourceElementClass 源元素类型
+     * @param <S>                源类型
+     * @param <T>                目标类型
+     * @return 源对象视图
+     */
+    public <S, T> Iterable<S> disassembleIterable(final Iterable<T> targetIterable, final Class<S> sourceElementClass) {
+        return new FluentIterable<S>() {
+            @Override
+            public Iterator<S> iterator() {
+                return disassembleIterator(targetIterable.iterator(), sourceElementClass);
+            }
+        };
+    }
+
+    private static <E> List<E> newListFor(Iterable<?> iterable) {
+        if (iterable instanceof Collection) {
+            return new ArrayList<>(((Collection<?>) iterable).size());
+        }
+        return new ArrayList<>();
+    }
+
+    private static <E> List<E> asList(Iterable<E> iterable) {
+        // 并行转换需要按下标访问
+        if (iterable instanceof List && iterable instanceof RandomAccess) {
+            return (List<E>) iterable;
+        }
+        return Lists.newArrayList(iterable);
     }
 
     private void disassembleFromTarget(Object targetObject, Object sourceObject) {
-        Class<?> targetClass = targetObject.getClass();
-        PropertyDescriptor[] targetPropertyDescriptors = BeanUtils.getPropertyDescriptors(targetClass);
-        for (PropertyDescriptor targetPropertyDescriptor : targetPropertyDescriptors) {
-            Method readMethod = targetPropertyDescriptor.getReadMethod();
-            if (readMethod != null) {
-                String propertyName = targetPropertyDescriptor.getName();
-                if (CLASS.equals(propertyName)) {
-                    // 每个对象都有一个class属性，不处理
-                    continue;
-                }
+        disassembleFromTarget(getDisassemblePlan(targetObject.getClass(), sourceObject.getClass()),
+                targetObject, sourceObject, null);
+    }
 
-                PropertyMeta propertyMeta = getPropertyMeta(propertyName, readMethod);
-                if (propertyMeta.getSkippedField().isPresent()) {
-                    // 配置为跳过的字段不处理
-                    continue;
+    private void disassembleFromTarget(MappingPlan mappingPlan, Object targetObject, Object sourceObject,
+                                       ConversionContext context) {
+        Mapper<Object, Object> mapper = mappingPlan.getMapper();
+        if (mapper != null) {
+            mapper.map(targetObject, sourceObject);
+        }
+        for (PropertyPlan propertyPlan : mappingPlan.getPropertyPlans()) {
+            FieldMapping fieldMapping = propertyPlan.getFieldMapping();
+            String propertyName = propertyPlan.getPropertyName();
+            Object value = propertyPlan.getReadHandler().read(fieldMapping, targetObject, propertyName);
+            if (value == null) {
+                ConstantValue constantValue = propertyPlan.getConstantValue();
+                if (constantValue != null) {
+                    propertyPlan.getWritePropertyAccessor().set(sourceObject,
+                            getConstantValue(MappingDirection.DISASSEMBLE, propertyPlan, constantValue));
                 }
+                continue;
+            }
 
-                Object value = disassembleReadHandler.read(propertyMeta.getFieldMapping().orNull(), targetObject, propertyName);
-                if (value != null) {
-                    PropertyFindResult propertyFindResult = disassemblePropertyFinder.findPropertyDescriptor(
-                            sourceObject, propertyName, propertyMeta.getFieldMapping().orNull());
-                    if (propertyFindResult != null) {
-                        PropertyDescriptor propertyDescriptor = propertyFindResult.getPropertyDescriptor();
-                        Class<?> propertyType = propertyDescriptor.getPropertyType();
-                        Class<?> targetPropertyType = targetPropertyDescriptor.getPropertyType();
-                        ClassifiedConverter<?, ?> converter = getDisassembleConverter(propertyMeta.getFieldMapping().orNull(),
-                                value, propertyType);
-                        Object convertedValue = convertValueOnDisassembling(value, targetPropertyType,
-                                propertyFindResult.getFieldGenericType(), converter);
-                        PropertyUtils.setProperty(propertyDescriptor, propertyFindResult.getOwnObject(), convertedValue);
-                    }
+            PropertyPath writePropertyPath = propertyPlan.getWritePropertyPath();
+            if (isDirectWrite(propertyPlan, value) || isSharedContainer(propertyPlan, value)) {
+                propertyPlan.getWritePropertyAccessor().set(sourceObject, value);
+                continue;
+            }
+            if (writePropertyPath == null) {
+                ClassifiedConverter<?, ?> converter = getPropertyConverter(propertyPlan, value, true);
+                Object convertedValue = convertValueOnDisassembling(value, propertyPlan.getReadPropertyType(),
+                        propertyPlan.getWriteFieldGenericType(), converter, context);
+                propertyPlan.getWritePropertyAccessor().set(sourceObject, convertedValue);
+                continue;
+            }
+
+            Object ownObject = writePropertyPath.readOwner(sourceObject);
+            if (ownObject == null) {
+                continue;
+            }
+            PropertyAccessor propertyAccessor = writePropertyPath.resolveLast(ownObject.getClass());
+            if (propertyAccessor != null) {
+                ClassifiedConverter<?, ?> converter = getCustomConverter(propertyPlan, true);
+                if (converter == null) {
+                    converter = converterMapping.find(value.getClass(), propertyAccessor.getPropertyType());
                 }
+                Object convertedValue = convertValueOnDisassembling(value, propertyPlan.getReadPropertyType(),
+                        propertyAccessor.getFieldGenericType(), converter, context);
+                propertyAccessor.set(ownObject, convertedValue);
             }
         }
     }
 
-    private PropertyMeta getPropertyMeta(String propertyName, Method accessorMethod) {
-        Field declaredField;
-        try {
-            declaredField = accessorMethod.getDeclaringClass().getDeclaredField(propertyName);
-        } catch (NoSuchFieldException e) {
-            throw new IllegalArgumentException("Get declared field (" + propertyName + ") from property declaring class <"
-                    + accessorMethod.getDeclaringClass().getSimpleName() + "> failed", e);
+    private MappingPlan getDisassemblePlan(Class<?> targetClass, Class<?> sourceClass) {
+        MappingPlan mappingPlan = disassemblePlans.get(targetClass, sourceClass);
+        if (mappingPlan == null) {
+            long version = converterMapping.getVersion();
+            mappingPlan = disassemblePlans.putIfAbsent(targetClass, sourceClass,
+                    withConverters(mappingPlanFactory.createDisassemblePlan(targetClass, sourceClass), null, version));
+        }
+        return refreshConverters(disassemblePlans, mappingPlan);
+    }
+
+    /**
+     * 预加载源类型与目标类型之间的转换，用于服务启动时预热
+     * <p>
+     * 创建两个方向上的映射计划、映射器、实例化方式及无状态的自定义converter，
+     * 并按属性类型递归预加载嵌套的{@link Convertible}、{@link RuntimeType}、{@link MappedClass}类型，
+     * 首次转换不再承担内省、生成映射器的开销。注册新的converter后只重新转换常量值、重新生成组合了converter的映射器
+     *
+     * @param sourceClass 源类型class
+     * @param targetClass 目标类型class
+     */
+    public void preload(Class<?> sourceClass, Class<?> targetClass) {
+        preload(sourceClass, targetClass,
+                Collections.newSetFromMap(new ConcurrentHashMap<List<Class<?>>, Boolean>()));
+    }
+
+    /**
+     * @param preloaded 已预加载的类型对，可在多个线程间共享，每个类型对只预加载一次
+     */
+    void preload(Class<?> sourceClass, Class<?> targetClass, Set<List<Class<?>>> preloaded) {
+        if (!preloaded.add(Arrays.<Class<?>>asList(sourceClass, targetClass))) {
+            return;
+        }
+        instantiators.preload(sourceClass);
+        instantiators.preload(targetClass);
+
+        for (PropertyPlan propertyPlan : getAssemblePlan(sourceClass, targetClass).getAllPropertyPlans()) {
+            preloadConverters(propertyPlan);
+            Class<?> readPropertyType = propertyPlan.getReadPropertyType();
+            Type writeFieldGenericType = propertyPlan.getWriteFieldGenericType();
+            if (writeFieldGenericType instanceof Class && readPropertyType != null) {
+                preloadNested(readPropertyType, (Class<?>) writeFieldGenericType, preloaded);
+            } else if (writeFieldGenericType != null) {
+                preloadElements(writeFieldGenericType, preloaded);
+            }
+        }
+        for (PropertyPlan propertyPlan : getDisassemblePlan(targetClass, sourceClass).getAllPropertyPlans()) {
+            preloadConverters(propertyPlan);
+            Class<?> readPropertyType = propertyPlan.getReadPropertyType();
+            Type writeFieldGenericType = propertyPlan.getWriteFieldGenericType();
+            if (writeFieldGenericType instanceof Class && readPropertyType != null) {
+                preloadNested((Class<?>) writeFieldGenericType, readPropertyType, preloaded);
+            }
+        }
+    }
+
+    /**
+     * 将已创建的映射计划的类型对及相关类型的内省结果写入快照文件，
+     * 之后启动的JVM使用{@link AutoAssemblerBuilder#loadSnapshot(Path)}加载，跳过未修改类型的内省并预加载这些类型对
+     *
+     * @param file 快照文件，已存在时替换
+     * @throws IOException 写入失败
+     */
+    public void writeSnapshot(Path file) throws IOException {
+        List<MappingPlan> mappingPlans = new ArrayList<>(assemblePlans.values());
+        mappingPlans.addAll(disassemblePlans.values());
+        MappingSnapshot.write(file, mappingPlans);
+    }
+
+    /**
+     * 预加载嵌套属性的类型对，与转换时一致，有标量converter的不按嵌套对象转换
+     */
+    private void preloadNested(Class<?> sourceClass, Class<?> targetClass, Set<List<Class<?>>> preloaded) {
+        if (sourceClass.isPrimitive() || targetClass.isPrimitive()
+                || converterMapping.find(sourceClass, targetClass) != null) {
+            return;
+        }
+        // 源类型为接口或抽象类时，转换按值的运行时类型进行，无法预先确定
+        if (targetClass.getAnnotation(Convertible.class) != null && isConcrete(sourceClass)) {
+            preload(sourceClass, targetClass, preloaded);
         }
+        preloadMappedClasses(targetClass, preloaded);
+    }
 
-        Type genericType = declaredField.getGenericType();
-        FieldMapping fieldMapping = declaredField.getAnnotation(FieldMapping.class);
-        SkippedField skippedField = declaredField.getAnnotation(SkippedField.class);
-        return new PropertyMeta(genericType, fieldMapping, skippedField);
+    /**
+     * 集合、Map、数组的元素在转换时按运行时类型处理，只能预加载配置了映射类型的元素类型
+     */
+    private void preloadElements(Type type, Set<List<Class<?>>> preloaded) {
+        if (type instanceof Class) {
+            Class<?> elementClass = (Class<?>) type;
+            if (elementClass.isArray()) {
+                preloadElements(elementClass.getComponentType(), preloaded);
+            } else {
+                preloadMappedClasses(elementClass, preloaded);
+            }
+        } else if (type instanceof ParameterizedType) {
+            for (Type typeArgument : ((ParameterizedType) type).getActualTypeArguments()) {
+                preloadElements(typeArgument, preloaded);
+            }
+        } else if (type instanceof GenericArrayType) {
+            preloadElements(((GenericArrayType) type).getGenericComponentType(), preloaded);
+        }
     }
 
-    private ClassifiedConverter<?, ?> getAssembleConverter(FieldMapping fieldMapping, Object value, Class<?> propertyType) {
-        if (fieldMapping != null) {
-            Class<? extends ClassifiedConverter> customConverterClass = fieldMapping.customConverterClass();
-            if (!NotConfiguredClassifiedConverter.class.equals(customConverterClass)) {
-                // 不是默认值的，使用配置的converter类
-                return ReflectionUtils.newInstance(customConverterClass);
+    private void preloadMappedClasses(Class<?> type, Set<List<Class<?>>> preloaded) {
+        MappedClass mappedClass = type.getAnnotation(MappedClass.class);
+        if (mappedClass != null) {
+            preload(mappedClass.value(), type, preloaded);
+        }
+        RuntimeTypeTable runtimeTypeTable = RuntimeTypeTable.of(type);
+        if (runtimeTypeTable != null) {
+            for (Map.Entry<Class<?>, Class<?>> entry : runtimeTypeTable.getMappedClasses().entrySet()) {
+                preload(entry.getValue(), entry.getKey(), preloaded);
             }
         }
-        return converterMapping.find(value.getClass(), propertyType);
     }
 
-    private ClassifiedConverter<?, ?> getDisassembleConverter(FieldMapping fieldMapping, Object value, Class<?> propertyType) {
-        if (fieldMapping != null) {
-            Class<? extends ClassifiedConverter> customConverterClass = fieldMapping.customConverterClass();
-            if (!NotConfiguredClassifiedConverter.class.equals(customConverterClass)) {
-                // 不是默认值的，使用配置的converter类并取反向converter
-                return ReflectionUtils.newInstance(customConverterClass).reverse();
+    private void preloadConverters(PropertyPlan propertyPlan) {
+        Class<? extends ClassifiedConverter> customConverterClass = propertyPlan.getCustomConverterClass();
+        if (customConverterClass != null) {
+            if (propertyPlan.isCustomConverterStateful()) {
+                instantiators.preload(customConverterClass);
+            } else {
+                customConverters.get(customConverterClass);
             }
+            return;
+        }
+        Class<?> readPropertyType = propertyPlan.getReadPropertyType();
+        if (readPropertyType != null && propertyPlan.getWritePropertyDescriptor() != null) {
+            // 按声明类型填充计划中的converter缓存，值为子类型时转换时重新查找
+            propertyPlan.findConverter(converterMapping, Primitives.wrap(readPropertyType));
+        }
+    }
+
+    private static boolean isConcrete(Class<?> type) {
+        return !type.isInterface() && !Modifier.isAbstract(type.getModifiers());
+    }
+
+    /**
+     * 依赖converter的计划在注册新的converter后，重新转换常量值、重新生成组合了converter的映射器，其余部分保留
+     * <p>
+     * 并发更新时可能以较旧版本的计划覆盖较新的，下次使用时再次更新
+     */
+    private MappingPlan refreshConverters(MappingPlanCache mappingPlanCache, MappingPlan mappingPlan) {
+        long converterVersion = mappingPlan.getConverterVersion();
+        if (converterVersion == MappingPlan.CONVERTER_INDEPENDENT) {
+            return mappingPlan;
+        }
+        long version = converterMapping.getVersion();
+        if (converterVersion == version) {
+            return mappingPlan;
+        }
+        Mapper<Object, Object> mapper = mappingPlan.getMapper();
+        if (mapperFactory != null && mapperFactory.isConverterDependent(mapper)) {
+            mapper = null;
+        }
+        MappingPlan refreshed = withConverters(mappingPlanFactory.resolveConstantValues(mappingPlan), mapper, version);
+        mappingPlanCache.put(refreshed.getFromClass(), refreshed.getToClass(), refreshed);
+        return refreshed;
+    }
+
+    /**
+     * @param mapper  可复用的映射器，为空时查找或生成
+     * @param version 创建计划前取得的converter版本
+     */
+    private MappingPlan withConverters(MappingPlan mappingPlan, Mapper<Object, Object> mapper, long version) {
+        MappingPlan plan = mapper != null ? mappingPlan.withMapper(mapper) : withMapper(mappingPlan);
+        if (plan.hasConstantValues()
+                || mapperFactory != null && mapperFactory.isConverterDependent(plan.getMapper())) {
+            return plan.withConverterVersion(version);
+        }
+        return plan;
+    }
+
+    private MappingPlan withMapper(MappingPlan mappingPlan) {
+        // 优先使用编译期生成的映射器，其次运行时生成
+        Mapper<Object, Object> mapper = mapperRegistry.find(mappingPlan.getDirection(),
+                mappingPlan.getFromClass(), mappingPlan.getToClass());
+        if (mapper == null && mapperFactory != null) {
+            mapper = mapperFactory.create(mappingPlan, converterMapping);
+        }
+        return mappingPlan.withMapper(mapper);
+    }
+
+    private Object getConstantValue(MappingDirection direction, PropertyPlan propertyPlan,
+                                    ConstantValue constantValue) {
+        if (constantValue.isShared()) {
+            return constantValue.getValue();
+        }
+        if (constantValue.isCopyable()) {
+            return constantValue.copy();
+        }
+        return convertConstantValue(direction, propertyPlan, constantValue.getLiteral());
+    }
+
+    private Object convertConstantValue(MappingDirection direction, PropertyPlan propertyPlan, String literal) {
+        if (direction == MappingDirection.ASSEMBLE) {
+            ClassifiedConverter<?, ?> converter = getPropertyConverter(propertyPlan, literal, false);
+            return convertValueOnAssembling(literal, propertyPlan.getWriteFieldGenericType(), converter, null);
+        }
+        ClassifiedConverter<?, ?> converter = getPropertyConverter(propertyPlan, literal, true);
+        return convertValueOnDisassembling(literal, propertyPlan.getReadPropertyType(),
+                propertyPlan.getWriteFieldGenericType(), converter, null);
+    }
+
+    /**
+     * 不可变类型的字段，值为字段类型实例时与转换结果相同，直接写入，跳过converter查找
+     */
+    private static boolean isDirectWrite(PropertyPlan propertyPlan, Object value) {
+        Class<?> directWriteClass = propertyPlan.getDirectWriteClass();
+        return directWriteClass != null && directWriteClass.isInstance(value);
+    }
+
+    /**
+     * 声明类型可共享的容器值直接写入，合并到已有对象时仍填充已有容器
+     */
+    private static boolean isSharedContainer(PropertyPlan propertyPlan, Object value) {
+        return value != null && propertyPlan.isSharedContainer();
+    }
+
+    private ClassifiedConverter<?, ?> getPropertyConverter(PropertyPlan propertyPlan, Object value, boolean reverse) {
+        ClassifiedConverter<?, ?> customConverter = getCustomConverter(propertyPlan, reverse);
+        if (customConverter != null) {
+            return customConverter;
+        }
+        return propertyPlan.findConverter(converterMapping, value.getClass());
+    }
+
+    private ClassifiedConverter<?, ?> getCustomConverter(PropertyPlan propertyPlan, boolean reverse) {
+        Class<? extends ClassifiedConverter> customConverterClass = propertyPlan.getCustomConverterClass();
+        if (customConverterClass == null) {
+            return null;
         }
-        return converterMapping.find(value.getClass(), propertyType);
+        // 配置了converter类的，disassemble时取反向converter
+        if (propertyPlan.isCustomConverterStateful()) {
+            ClassifiedConverter<?, ?> customConverter = instantiators.newInstance(customConverterClass);
+            return reverse ? customConverter.reverse() : customConverter;
+        }
+        CustomConverters converters = customConverters.get(customConverterClass);
+        return reverse ? converters.reverse : converters.forward;
     }
 
     /**
@@ -245,18 +864,20 @@ public class AutoAssembler {
      * @param originalValue          转换前字段值
      * @param targetFieldGenericType 目标字段Type
      * @param converter              类型不兼容时使用的converter
+     * @param context                转换上下文，可为空
      * @return 转换后字段值
      */
     private Object convertValueOnAssembling(Object originalValue,
                                             Type targetFieldGenericType,
-                                            ClassifiedConverter converter) {
+                                            ClassifiedConverter converter,
+                                            ConversionContext context) {
         Object value = stripOptionalValue(originalValue);
         if (value == null) {
             return null;
         }
 
-        if (targetFieldGenericType instanceof ParameterizedType) {
-            return convertGenericTypeField(originalValue, targetFieldGenericType, false);
+        if (!(targetFieldGenericType instanceof Class)) {
+            return convertGenericTypeField(value, targetFieldGenericType, false, context);
         }
 
         // 非参数化字段的，视为普通字段，其他Type暂不支持
@@ -269,61 +890,39 @@ public class AutoAssembler {
         if (converter != null) {
             return converter.convert(value, targetPropertyType);
         }
+        if (targetPropertyType.isArray()) {
+            return convertGenericTypeField(value, targetPropertyType, false, context);
+        }
 
         Convertible convertible = targetPropertyType.getAnnotation(Convertible.class);
         if (convertible != null) {
-            return assemble(value, targetPropertyType);
-        }
-        RuntimeType runtimeType = targetPropertyType.getAnnotation(RuntimeType.class);
-        if (runtimeType != null) {
-            Class<?>[] subClasses = runtimeType.value();
-            for (Class<?> subClass : subClasses) {
-                MappedClass mappedClass = subClass.getAnnotation(MappedClass.class);
-                if (mappedClass == null) {
-                    throw new IllegalArgumentException("Runtime type subclass should be annotated with @MappedClass");
-                }
-                if (mappedClass.value().isInstance(value)) {
-                    return assemble(value, subClass);
-                }
+            return assemble(value, targetPropertyType, context);
+        }
+        RuntimeTypeTable runtimeTypeTable = RuntimeTypeTable.of(targetPropertyType);
+        if (runtimeTypeTable != null) {
+            Class<?> subClass = runtimeTypeTable.getAssembleClass(value.getClass());
+            if (subClass != null) {
+                return assemble(value, subClass, context);
             }
         }
         throw new IllegalArgumentException("Type mismatch and cannot convert: " + value.getClass().getSimpleName()
                 + " to " + targetPropertyType.getSimpleName());
     }
 
-    private Object convertGenericTypeField(Object originalValue, Type expectedFieldGenericType, boolean reverse) {
-        // 源字段、目标字段都是泛型集合，进行集合转换
-        ParameterizedType parameterizedType = (ParameterizedType) expectedFieldGenericType;
-        if (originalValue instanceof List
-                && parameterizedType.getRawType() instanceof Class
-                && List.class.isAssignableFrom((Class<?>) parameterizedType.getRawType())) {
-            // NOTICE: 暂时只支持List，扩展需要重构
-
-            List originalList = (List) originalValue;
-            if (originalList.isEmpty()) {
-                return Collections.emptyList();
-            }
-
-            Preconditions.checkArgument(parameterizedType.getActualTypeArguments().length == 1,
-                    "Type argument of List must be 1");
-
-            Class<?> originalClass = originalList.get(0).getClass();
-            Class<?> expectedClass = (Class<?>) parameterizedType.getActualTypeArguments()[0];
-
-            if (expectedClass.isAssignableFrom(originalClass)) {
-                return originalList;
-            }
-
-            Converter<?, ?> converterForElement;
-            if (reverse) {
-                converterForElement = getConverterFor(expectedClass, originalClass).reverse();
-            } else {
-                converterForElement = getConverterFor(originalClass, expectedClass);
-            }
-            return Lists.newArrayList(Lists.transform((List) originalValue, converterForElement));
+    private Object convertGenericTypeField(Object value, Type expectedFieldGenericType, boolean reverse,
+                                           final ConversionContext context) {
+        // 集合、Map、数组及其嵌套，非容器元素按运行时类型assemble或disassemble
+        if (context == null) {
+            return genericTypeConverter.convert(value, expectedFieldGenericType,
+                    reverse ? disassembleElementConverters : assembleElementConverters);
         }
-        // 暂不支持的抛出异常
-        throw new IllegalArgumentException("Non-collection generic type fields not supported: " + expectedFieldGenericType);
+        final MappingDirection direction = reverse ? MappingDirection.DISASSEMBLE : MappingDirection.ASSEMBLE;
+        return genericTypeConverter.convert(value, expectedFieldGenericType, new ElementConverters() {
+            @Override
+            public Function<Object, Object> get(Class<?> toClass) {
+                return elementConverter(direction, (Class<Object>) toClass, context);
+            }
+        });
     }
 
     /**
@@ -333,19 +932,21 @@ public class AutoAssembler {
      * @param targetPropertyType       目标类型，即入参类型
      * @param expectedFieldGenericType 期望返回的字段type
      * @param converter                类型不兼容时使用的converter
+     * @param context                  转换上下文，可为空
      * @return 转换后字段值
      */
     private Object convertValueOnDisassembling(Object originalValue,
                                                Class<?> targetPropertyType,
                                                Type expectedFieldGenericType,
-                                               ClassifiedConverter converter) {
+                                               ClassifiedConverter converter,
+                                               ConversionContext context) {
         Object value = stripOptionalValue(originalValue);
         if (value == null) {
             return null;
         }
 
-        if (expectedFieldGenericType instanceof ParameterizedType) {
-            return convertGenericTypeField(originalValue, expectedFieldGenericType, true);
+        if (!(expectedFieldGenericType instanceof Class)) {
+            return convertGenericTypeField(value, expectedFieldGenericType, true, context);
         }
 
         // 非参数化字段的，视为普通字段，其他Type暂不支持
@@ -358,22 +959,19 @@ public class AutoAssembler {
         if (converter != null) {
             return converter.convert(value, expectedPropertyType);
         }
+        if (expectedPropertyType.isArray()) {
+            return convertGenericTypeField(value, expectedPropertyType, true, context);
+        }
 
         Convertible convertible = targetPropertyType.getAnnotation(Convertible.class);
         if (convertible != null) {
-            return disassemble(value, expectedPropertyType);
-        }
-        RuntimeType runtimeType = targetPropertyType.getAnnotation(RuntimeType.class);
-        if (runtimeType != null) {
-            Class<?>[] subClasses = runtimeType.value();
-            for (Class<?> subClass : subClasses) {
-                MappedClass mappedClass = subClass.getAnnotation(MappedClass.class);
-                if (mappedClass == null) {
-                    throw new IllegalArgumentException("Runtime type subclass should be annotated with @MappedClass");
-                }
-                if (subClass.isInstance(value)) {
-                    return disassemble(value, mappedClass.value());
-                }
+            return disassemble(value, expectedPropertyType, context);
+        }
+        RuntimeTypeTable runtimeTypeTable = RuntimeTypeTable.of(targetPropertyType);
+        if (runtimeTypeTable != null) {
+            Class<?> mappedClass = runtimeTypeTable.getDisassembleClass(value.getClass());
+            if (mappedClass != null) {
+                return disassemble(value, mappedClass, context);
             }
         }
         throw new IllegalArgumentException("Type mismatch and cannot convert: " + value.getClass().getSimpleName()
@@ -414,4 +1012,338 @@ public class AutoAssembler {
     public <T, BT extends ConvertibleBuilder<T>> AssemblerWithBuilder<T, BT> useBuilder(BT convertibleBuilder) {
         return new AssemblerWithBuilder<>(this, convertibleBuilder);
     }
+
+    /**
+     * 创建集合元素转换函数，每个元素按其运行时类型转换
+     *
+     * @param direction 转换方向
+     * @param toClass   转换后的元素类型
+     * @param context   转换上下文，可为空
+     * @return 元素转换函数
+     */
+    private <F, T> Function<F, T> elementConverter(MappingDirection direction, Class<T> toClass,
+                                                   ConversionContext context) {
+        return (Function<F, T>) new ElementConverter(direction, toClass, context);
+    }
+
+    /**
+     * 按映射计划将fromObject合并到已有的toObject
+     * <p>
+     * 忽略null值且不记录变化时先执行映射器，映射器同样不写入null；
+     * 需要写入null或比较已有值时不使用映射器，逐个处理全部属性
+     *
+     * @param changes    记录变化的属性，为空时不比较已有值
+     * @param pathPrefix 嵌套对象的属性路径前缀
+     */
+    private void mergeInto(MappingPlan mappingPlan, Object fromObject, Object toObject,
+                           NullValuePolicy nullValuePolicy, PropertyChanges changes, String pathPrefix) {
+        MappingDirection direction = mappingPlan.getDirection();
+        PropertyPlan[] propertyPlans;
+        if (nullValuePolicy == NullValuePolicy.SET_NULL || changes != null) {
+            propertyPlans = mappingPlan.getAllPropertyPlans();
+        } else {
+            Mapper<Object, Object> mapper = mappingPlan.getMapper();
+            if (mapper != null) {
+                mapper.map(fromObject, toObject);
+            }
+            propertyPlans = mappingPlan.getPropertyPlans();
+        }
+
+        for (PropertyPlan propertyPlan : propertyPlans) {
+            ConstantValue constantValue = propertyPlan.getConstantValue();
+            if (constantValue != null && direction == MappingDirection.ASSEMBLE) {
+                writeProperty(propertyPlan.getWritePropertyAccessor(), toObject,
+                        getConstantValue(direction, propertyPlan, constantValue), changes, pathPrefix);
+                continue;
+            }
+
+            FieldMapping fieldMapping = propertyPlan.getFieldMapping();
+            Object value = propertyPlan.getReadHandler().read(fieldMapping, fromObject, propertyPlan.getPropertyName());
+            if (value == null && constantValue != null) {
+                writeProperty(propertyPlan.getWritePropertyAccessor(), toObject,
+                        getConstantValue(direction, propertyPlan, constantValue), changes, pathPrefix);
+                continue;
+            }
+
+            Object ownObject = toObject;
+            PropertyAccessor propertyAccessor = propertyPlan.getWritePropertyAccessor();
+            Type fieldGenericType = propertyPlan.getWriteFieldGenericType();
+            String ownPathPrefix = pathPrefix;
+            PropertyPath writePropertyPath = propertyPlan.getWritePropertyPath();
+            if (writePropertyPath != null) {
+                ownObject = writePropertyPath.readOwner(toObject);
+                if (ownObject == null) {
+                    continue;
+                }
+                propertyAccessor = writePropertyPath.resolveLast(ownObject.getClass());
+                if (propertyAccessor == null) {
+                    continue;
+                }
+                fieldGenericType = propertyAccessor.getFieldGenericType();
+                String path = writePropertyPath.getPath();
+                ownPathPrefix = pathPrefix + path.substring(0, path.lastIndexOf('.') + 1);
+            }
+
+            if (value == null) {
+                if (nullValuePolicy == NullValuePolicy.SET_NULL && !propertyAccessor.getPropertyType().isPrimitive()) {
+                    writeProperty(propertyAccessor, ownObject, null, changes, ownPathPrefix);
+                }
+                continue;
+            }
+
+            if (writePropertyPath == null && isDirectWrite(propertyPlan, value)) {
+                writeProperty(propertyAccessor, ownObject, value, changes, ownPathPrefix);
+                continue;
+            }
+            ClassifiedConverter<?, ?> converter;
+            if (writePropertyPath != null) {
+                converter = getCustomConverter(propertyPlan, true);
+                if (converter == null) {
+                    converter = converterMapping.find(value.getClass(), propertyAccessor.getPropertyType());
+                }
+            } else {
+                converter = getPropertyConverter(propertyPlan, value, direction == MappingDirection.DISASSEMBLE);
+            }
+            if (converter == null && mergeExisting(direction, propertyPlan.getReadPropertyType(), propertyAccessor,
+                    ownObject, stripOptionalValue(value), fieldGenericType, nullValuePolicy, changes, ownPathPrefix)) {
+                continue;
+            }
+
+            Object convertedValue = direction == MappingDirection.ASSEMBLE
+                    ? convertValueOnAssembling(value, fieldGenericType, converter, null)
+                    : convertValueOnDisassembling(value, propertyPlan.getReadPropertyType(), fieldGenericType,
+                    converter, null);
+            writeProperty(propertyAccessor, ownObject, convertedValue, changes, ownPathPrefix);
+        }
+    }
+
+    /**
+     * 写入属性，记录变化时与已有值相等的不调用setter
+     */
+    private void writeProperty(PropertyAccessor propertyAccessor, Object ownObject, Object value,
+                               PropertyChanges changes, String pathPrefix) {
+        if (changes != null) {
+            if (propertyAccessor.isReadable() && Objects.equals(propertyAccessor.get(ownObject), value)) {
+                return;
+            }
+            changes.add(pathPrefix + propertyAccessor.getPropertyName());
+        }
+        propertyAccessor.set(ownObject, value);
+    }
+
+    /**
+     * 属性已有的嵌套对象或容器可以复用时，将值合并到已有对象
+     *
+     * @return 已合并返回true，否则需要转换后赋值
+     */
+    private boolean mergeExisting(MappingDirection direction, Class<?> readPropertyType,
+                                  PropertyAccessor propertyAccessor, Object ownObject, Object value,
+                                  Type fieldGenericType, NullValuePolicy nullValuePolicy,
+                                  PropertyChanges changes, String pathPrefix) {
+        if (value == null || !propertyAccessor.isReadable()) {
+            return false;
+        }
+
+        if (!(fieldGenericType instanceof Class)) {
+            Object existing = propertyAccessor.get(ownObject);
+            if (existing == null) {
+                return false;
+            }
+            ElementConverters elementConverters = direction == MappingDirection.ASSEMBLE
+                    ? assembleElementConverters : disassembleElementConverters;
+            if (changes == null) {
+                return genericTypeConverter.convertInto(value, fieldGenericType, existing, elementConverters);
+            }
+            // 先转换再与已有容器比较，相等时不修改已有容器
+            Object convertedValue = genericTypeConverter.convert(value, fieldGenericType, elementConverters);
+            if (existing.equals(convertedValue)) {
+                return true;
+            }
+            if (genericTypeConverter.convertInto(convertedValue, fieldGenericType, existing, elementConverters)) {
+                changes.add(pathPrefix + propertyAccessor.getPropertyName());
+                return true;
+            }
+            return false;
+        }
+
+        Class<?> fieldClass = (Class<?>) fieldGenericType;
+        if (fieldClass.isInstance(value) || fieldClass.isArray()) {
+            return false;
+        }
+        // 与assemble/disassemble中嵌套对象的判断一致，disassemble时注解在读取方的属性类型上
+        Class<?> annotatedClass = direction == MappingDirection.ASSEMBLE ? fieldClass : readPropertyType;
+        Class<?> nestedClass = null;
+        if (annotatedClass.getAnnotation(Convertible.class) != null) {
+            nestedClass = fieldClass;
+        } else {
+            RuntimeTypeTable runtimeTypeTable = RuntimeTypeTable.of(annotatedClass);
+            if (runtimeTypeTable != null) {
+                nestedClass = direction == MappingDirection.ASSEMBLE
+                        ? runtimeTypeTable.getAssembleClass(value.getClass())
+                        : runtimeTypeTable.getDisassembleClass(value.getClass());
+            }
+        }
+        if (nestedClass == null || converterMapping.find(value.getClass(), nestedClass) != null) {
+            return false;
+        }
+
+        Object existing = propertyAccessor.get(ownObject);
+        if (existing == null || existing.getClass() != nestedClass) {
+            return false;
+        }
+        MappingPlan nestedPlan = direction == MappingDirection.ASSEMBLE
+                ? getAssemblePlan(value.getClass(), nestedClass)
+                : getDisassemblePlan(value.getClass(), nestedClass);
+        mergeInto(nestedPlan, value, existing, nullValuePolicy, changes,
+                pathPrefix + propertyAccessor.getPropertyName() + ".");
+        return true;
+    }
+
+    /**
+     * 创建toClass的实例并映射属性
+     * <p>
+     * 有转换上下文时，已转换的对象直接返回，新创建的对象在映射属性之前登记，使循环引用转换为相同的循环引用；
+     * 超过上下文最大深度时抛出{@link MaxDepthExceededException}，上下文指定截断时返回null
+     *
+     * @param direction   转换方向
+     * @param mappingPlan 映射计划，为空时按对象类型查找
+     * @param fromObject  转换前对象
+     * @param toClass     转换后类型
+     * @param context     转换上下文，可为空
+     * @return 转换后对象
+     */
+    private Object mapObject(MappingDirection direction, MappingPlan mappingPlan, Object fromObject,
+                             Class<?> toClass, ConversionContext context) {
+        if (context != null) {
+            Object converted = context.getConverted(fromObject, toClass);
+            if (converted != null) {
+                return converted;
+            }
+            if (!context.enter()) {
+                if (context.isTruncating()) {
+                    return null;
+                }
+                throw new MaxDepthExceededException(context.getMaxDepth(), fromObject.getClass(), toClass);
+            }
+        }
+        try {
+            Object toObject = instantiators.newInstance(toClass);
+            if (context != null) {
+                context.putConverted(fromObject, toClass, toObject);
+            }
+            if (direction == MappingDirection.ASSEMBLE) {
+                MappingPlan plan = mappingPlan != null ? mappingPlan
+                        : getAssemblePlan(fromObject.getClass(), toObject.getClass());
+                assembleToTarget(plan, fromObject, toObject, context);
+            } else {
+                MappingPlan plan = mappingPlan != null ? mappingPlan
+                        : getDisassemblePlan(fromObject.getClass(), toObject.getClass());
+                disassembleFromTarget(plan, fromObject, toObject, context);
+            }
+            return toObject;
+        } finally {
+            if (context != null) {
+                context.exit();
+            }
+        }
+    }
+
+    /**
+     * 按元素运行时类型解析的转换函数，用于集合转换
+     * <p>
+     * 解析结果（标量converter或映射计划）以内联缓存保存：同类型元素的集合只命中单态缓存，
+     * 混合了子类、代理类的集合依次缓存最多{@link #POLYMORPHIC_LIMIT}种类型，超出的类型每次按类型查找。
+     * 缓存项不可变，多个线程共享同一实例时只可能重复解析，不会得到错误结果
+     */
+    private final class ElementConverter implements Function<Object, Object> {
+        private static final int POLYMORPHIC_LIMIT = 4;
+
+        private final MappingDirection direction;
+        private final Class<?> toClass;
+        private final ConversionContext context;
+        private ElementMapping monomorphic;
+        private ElementMapping[] polymorphic;
+
+        ElementConverter(MappingDirection direction, Class<?> toClass, ConversionContext context) {
+            this.direction = direction;
+            this.toClass = toClass;
+            this.context = context;
+        }
+
+        @Override
+        public Object apply(Object fromObject) {
+            Class<?> fromClass = fromObject.getClass();
+            ElementMapping elementMapping = monomorphic;
+            if (elementMapping == null || elementMapping.fromClass != fromClass) {
+                elementMapping = lookup(fromClass);
+            }
+
+            if (elementMapping.converter != null) {
+                return elementMapping.converter.convert(fromObject, toClass);
+            }
+            return mapObject(direction, elementMapping.mappingPlan, fromObject, toClass, context);
+        }
+
+        private ElementMapping lookup(Class<?> fromClass) {
+            if (monomorphic == null) {
+                ElementMapping elementMapping = resolve(fromClass);
+                monomorphic = elementMapping;
+                return elementMapping;
+            }
+
+            ElementMapping[] cached = polymorphic;
+            if (cached != null) {
+                for (ElementMapping elementMapping : cached) {
+                    if (elementMapping.fromClass == fromClass) {
+                        return elementMapping;
+                    }
+                }
+            }
+
+            ElementMapping elementMapping = resolve(fromClass);
+            if (cached == null) {
+                polymorphic = new ElementMapping[]{elementMapping};
+            } else if (cached.length < POLYMORPHIC_LIMIT) {
+                ElementMapping[] expanded = Arrays.copyOf(cached, cached.length + 1);
+                expanded[cached.length] = elementMapping;
+                polymorphic = expanded;
+            }
+            return elementMapping;
+        }
+
+        private ElementMapping resolve(Class<?> fromClass) {
+            // 与assemble/disassemble一致，优先使用标量converter
+            ClassifiedConverter converter = converterMapping.find(fromClass, toClass);
+            if (converter != null) {
+                return new ElementMapping(fromClass, converter, null);
+            }
+            MappingPlan mappingPlan = direction == MappingDirection.ASSEMBLE
+                    ? getAssemblePlan(fromClass, toClass)
+                    : getDisassemblePlan(fromClass, toClass);
+            return new ElementMapping(fromClass, null, mappingPlan);
+        }
+    }
+
+    private static class ElementMapping {
+        private final Class<?> fromClass;
+        private final ClassifiedConverter converter;
+        private final MappingPlan mappingPlan;
+
+        ElementMapping(Class<?> fromClass, ClassifiedConverter converter, MappingPlan mappingPlan) {
+            this.fromClass = fromClass;
+            this.converter = converter;
+            this.mappingPlan = mappingPlan;
+        }
+    }
+
+    private static class CustomConverters {
+        private final ClassifiedConverter<?, ?> forward;
+        private final ClassifiedConverter<?, ?> reverse;
+
+        CustomConverters(ClassifiedConverter<?, ?> forward) {
+            this.forward = forward;
+            this.reverse = forward.reverse();
+        }
+    }
+
 }
@@ -1,9 +1,23 @@
 package me.caosh.autoasm;
 
 import com.google.common.base.Converter;
+import com.google.common.base.Preconditions;
 import me.caosh.autoasm.converter.ClassifiedConverter;
 import me.caosh.autoasm.converter.ConverterMapping;
 import me.caosh.autoasm.converter.DefaultConverterMapping;
+import me.caosh.autoasm.instantiator.ConstructorInstantiatorFactory;
+import me.caosh.autoasm.instantiator.InstantiatorFactory;
+import me.caosh.autoasm.mapper.MapperRegistry;
+import me.caosh.autoasm.mapper.MethodHandleMapperFactory;
+import me.caosh.autoasm.util.ImmutableTypeRegistry;
+import me.caosh.autoasm.util.ReflectionUtils;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * 支持自定义AutoAssembler的Builder
@@ -13,6 +27,13 @@ import me.caosh.autoasm.converter.DefaultConverterMapping;
  */
 public class AutoAssemblerBuilder {
     private ConverterMapping converterMapping = new DefaultConverterMapping();
+    private InstantiatorFactory instantiatorFactory = new ConstructorInstantiatorFactory();
+    private boolean generatedMappersEnabled = true;
+    private boolean runtimeMappersEnabled = false;
+    private final Set<Class<?>> immutableTypes = new HashSet<>();
+    private final List<Class<?>> preloadClassPairs = new ArrayList<>();
+    private final List<String> preloadPackageNames = new ArrayList<>();
+    private Path snapshotFile;
 
     public <S, T> AutoAssemblerBuilder registerConverter(Class<S> sourceClass, Class<T> targetClass, Converter<S, T> converter) {
         converterMapping.register(sourceClass, targetClass, converter);
@@ -24,7 +45,108 @@ public class AutoAssemblerBuilder {
         return this;
     }
 
+    /**
+     * 使用自定义的方式创建目标对象、嵌套对象和自定义converter，默认使用无参构造函数
+     *
+     * @param instantiatorFactory Instantiator工厂
+     * @return this
+     */
+    public AutoAssemblerBuilder instantiatorFactory(InstantiatorFactory instantiatorFactory) {
+        this.instantiatorFactory = instantiatorFactory;
+        return this;
+    }
+
+    /**
+     * 不使用auto-assembler-processor在编译期生成的映射器，全部属性按反射处理
+     *
+     * @return this
+     */
+    public AutoAssemblerBuilder disableGeneratedMappers() {
+        this.generatedMappersEnabled = false;
+        return this;
+    }
+
+    /**
+     * 启用运行时生成的映射器，无需转换的属性由组合后的{@link java.lang.invoke.MethodHandle}直接读写
+     *
+     * @return this
+     */
+    public AutoAssemblerBuilder enableRuntimeMappers() {
+        this.runtimeMappersEnabled = true;
+        return this;
+    }
+
+    /**
+     * 注册额外的不可变值类型，字段为该类型且值为其实例时直接写入，不查找converter，
+     * 字面常量转换为该类型后也在对象间共享。基本类型、枚举、String、BigDecimal及joda、java.time类型已内置
+     *
+     * @param types 不可变类型，按类型精确匹配
+     * @return this
+     */
+    public AutoAssemblerBuilder registerImmutableTypes(Class<?>... types) {
+        immutableTypes.addAll(Arrays.asList(types));
+        return this;
+    }
+
+    /**
+     * 在{@link #build()}时预加载类型对之间的转换，嵌套的可转换类型随之递归预加载，
+     * 用于在服务接收请求之前完成内省及映射器生成
+     *
+     * @param classPairs 按（源类型, 目标类型）依次排列的类型对，如preload(Order.class, OrderDTO.class)
+     * @return this
+     */
+    public AutoAssemblerBuilder preload(Class<?>... classPairs) {
+        Preconditions.checkArgument(classPairs.length % 2 == 0,
+                "Class pairs should be (source class, target class) pairs");
+        preloadClassPairs.addAll(Arrays.asList(classPairs));
+        return this;
+    }
+
+    /**
+     * 在{@link #build()}时扫描包及其子包，预加载配置了{@link MappedClass}、{@link RuntimeType}的类型的转换，
+     * 预先内省{@link Convertible}类型
+     *
+     * @param packageNames 包名
+     * @return this
+     */
+    public AutoAssemblerBuilder preloadPackages(String... packageNames) {
+        preloadPackageNames.addAll(Arrays.asList(packageNames));
+        return this;
+    }
+
+    /**
+     * 在{@link #build()}时加载{@link AutoAssembler#writeSnapshot(Path)}写入的快照，
+     * class文件未修改的类型使用快照中的内省结果，并预加载快照中的类型对。
+     * 快照不存在、无法读取或JDK版本不一致时按无快照处理
+     *
+     * @param snapshotFile 快照文件
+     * @return this
+     */
+    public AutoAssemblerBuilder loadSnapshot(Path snapshotFile) {
+        this.snapshotFile = snapshotFile;
+        return this;
+    }
+
+    /**
+     * 创建AutoAssembler，配置了预加载时在多个线程上并行预加载，完成后返回
+     *
+     * @return AutoAssembler
+     */
     public AutoAssembler build() {
-        return new AutoAssembler(converterMapping);
+        AutoAssembler autoAssembler = new AutoAssembler(converterMapping,
+                generatedMappersEnabled ? MapperRegistry.load() : new MapperRegistry(),
+                runtimeMappersEnabled ? new MethodHandleMapperFactory() : null, instantiatorFactory,
+                new ImmutableTypeRegistry(immutableTypes));
+        List<Class<?>> classPairs = new ArrayList<>(preloadClassPairs);
+        if (snapshotFile != null) {
+            for (List<Class<?>> classPair : MappingSnapshot.restore(snapshotFile,
+                    ReflectionUtils.getDefaultClassLoader())) {
+                classPairs.addAll(classPair);
+            }
+        }
+        if (!classPairs.isEmpty() || !preloadPackageNames.isEmpty()) {
+            new Preloader(autoAssembler).preload(classPairs, preloadPackageNames);
+        }
+        return autoAssembler;
     }
 }
\ No newline at end of file
@@ -0,0 +1,128 @@
+package me.caosh.autoasm;
+
+import com.google.common.base.Preconditions;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * 对象图转换上下文，用于一次转换（单个对象或一个列表）内共享已转换的对象
+ * <p>
+ * 1. 以原对象的identity及转换后类型为键记录转换结果，同一个原对象被多次引用时只转换一次，转换结果也是同一个对象
+ * 2. 转换结果在读写属性之前记录，循环引用的对象转换后保持相同的循环引用，不会无限递归
+ * 3. 嵌套对象的转换深度超过{@link #getMaxDepth()}时抛出{@link MaxDepthExceededException}，
+ * 以{@link #truncateAtDepth(int)}创建的上下文不再转换，对应属性保持为null
+ * <p>
+ * 上下文不是线程安全的，不能在并行转换中使用，也不应跨越多次互不相关的转换复用
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+public class ConversionContext {
+    private final int maxDepth;
+    private final boolean truncating;
+    private final Map<Object, Converted> convertedObjects = new IdentityHashMap<>();
+    private int depth;
+
+    private ConversionContext(int maxDepth, boolean truncating) {
+        Preconditions.checkArgument(maxDepth > 0, "maxDepth should be positive");
+        this.maxDepth = maxDepth;
+        this.truncating = truncating;
+    }
+
+    /**
+     * 创建不限制深度的转换上下文
+     *
+     * @return 转换上下文
+     */
+    public static ConversionContext create() {
+        return new ConversionContext(Integer.MAX_VALUE, false);
+    }
+
+    /**
+     * 创建限制深度的转换上下文，最外层对象深度为1，超过最大深度时抛出{@link MaxDepthExceededException}
+     *
+     * @param maxDepth 最大深度
+     * @return 转换上下文
+     */
+    public static ConversionContext withMaxDepth(int maxDepth) {
+        return new ConversionContext(maxDepth, false);
+    }
+
+    /**
+     * 创建截断深度的转换上下文，最外层对象深度为1，超过最大深度的嵌套对象不再转换，对应属性保持为null
+     *
+     * @param maxDepth 最大深度
+     * @return 转换上下文
+     */
+    public static ConversionContext truncateAtDepth(int maxDepth) {
+        return new ConversionContext(maxDepth, true);
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * 超过最大深度时是否截断为null
+     *
+     * @return 是否截断
+     */
+    public boolean isTruncating() {
+        return truncating;
+    }
+
+    /**
+     * 已转换的对象数量
+     *
+     * @return 对象数量
+     */
+    public int size() {
+        return convertedObjects.size();
+    }
+
+    Object getConverted(Object fromObject, Class<?> toClass) {
+        for (Converted converted = convertedObjects.get(fromObject); converted != null; converted = converted.next) {
+            if (converted.toClass == toClass) {
+                return converted.toObject;
+            }
+        }
+        return null;
+    }
+
+    void putConverted(Object fromObject, Class<?> toClass, Object toObject) {
+        convertedObjects.put(fromObject, new Converted(toClass, toObject, convertedObjects.get(fromObject)));
+    }
+
+    /**
+     * 进入下一层嵌套对象
+     *
+     * @return 未超过最大深度返回true，此时需要调用{@link #exit()}
+     */
+    boolean enter() {
+        if (depth >= maxDepth) {
+            return false;
+        }
+        depth++;
+        return true;
+    }
+
+    void exit() {
+        depth--;
+    }
+
+    /**
+     * 同一个原对象转换为不同类型的结果，以链表保存，通常只有一个
+     */
+    private static class Converted {
+        private final Class<?> toClass;
+        private final Object toObject;
+        private final Converted next;
+
+        Converted(Class<?> toClass, Object toObject, Converted next) {
+            this.toClass = toClass;
+            this.toObject = toObject;
+            this.next = next;
+        }
+    }
+}
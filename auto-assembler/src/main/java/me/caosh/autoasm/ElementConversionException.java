@@ -0,0 +1,27 @@
+package me.caosh.autoasm;
+
+/**
+ * 集合转换中单个元素转换失败，携带元素在集合中的下标
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+public class ElementConversionException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final int index;
+
+    public ElementConversionException(int index, Throwable cause) {
+        super("Convert element failed at index " + index, cause);
+        this.index = index;
+    }
+
+    /**
+     * 转换失败的元素下标
+     *
+     * @return 下标
+     */
+    public int getIndex() {
+        return index;
+    }
+}
@@ -0,0 +1,501 @@
+package me.caosh.autoasm;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import me.caosh.autoasm.plan.MappingPlan;
+import me.caosh.autoasm.plan.PropertyPlan;
+import me.caosh.autoasm.util.BeanIntrospector;
+
+import java.beans.IntrospectionException;
+import java.beans.PropertyDescriptor;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * 映射元数据快照，保存已创建映射计划的类型对，及这些类型和多级属性路径上的类型的内省结果，
+ * 之后启动的JVM加载快照后，未修改的类型跳过内省，并预加载快照中的类型对
+ * <p>
+ * 文件格式（大端）：magic、格式版本、字符串表、JDK版本、类型段、类型对段。
+ * 字符串表为数量及每个字符串的长度（无符号short）和UTF-8字节，之后的段以下标（int）引用字符串，-1表示不存在；
+ * 类型段为数量及每个类型的类名、指纹（16字节）、属性数量和属性，
+ * 属性为名称、类型、getter所在类及方法名、setter所在类、方法名及参数类型；类型对段为数量及每对的源类型、目标类型
+ * <p>
+ * 类型的指纹为该类及其非JDK父类、接口的class文件元数据的哈希：jar中的class文件取条目的CRC及大小，
+ * 目录中的取文件大小及修改时间，均不读取class文件内容；任一修改后指纹不一致，该类型重新内省。
+ * JDK版本不一致时整个快照不使用。converter在运行时注册，不保存在快照中，预加载时重新查找
+ * <p>
+ * 读取时字符串按需从映射的文件中解码，指纹不一致的类型不解码其属性，读取完成后立即解除映射
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+class MappingSnapshot {
+    private static final int MAGIC = 0x41415350;
+    private static final int FORMAT_VERSION = 2;
+    private static final int FINGERPRINT_BYTES = 16;
+    /**
+     * 每个属性的字符串下标数量：名称、类型、getter所在类、getter、setter所在类、setter、setter参数类型
+     */
+    private static final int PROPERTY_STRINGS = 7;
+    private static final int NONE = -1;
+    private static final String PATH_SEPARATOR = ".";
+
+    private static final Map<String, Class<?>> PRIMITIVE_TYPES = new HashMap<>();
+
+    static {
+        for (Class<?> primitiveType : Arrays.<Class<?>>asList(boolean.class, byte.class, char.class, short.class,
+                int.class, long.class, float.class, double.class)) {
+            PRIMITIVE_TYPES.put(primitiveType.getName(), primitiveType);
+        }
+    }
+
+    /**
+     * 写入快照，先写入同目录下的临时文件再替换，正在读取旧快照的进程不受影响
+     *
+     * @param file         快照文件
+     * @param mappingPlans 映射计划
+     * @throws IOException 写入失败
+     */
+    static void write(Path file, List<MappingPlan> mappingPlans) throws IOException {
+        Set<List<Class<?>>> classPairs = new LinkedHashSet<>();
+        Set<Class<?>> classes = new LinkedHashSet<>();
+        for (MappingPlan mappingPlan : mappingPlans) {
+            Class<?> sourceClass = mappingPlan.getSourceClass();
+            classPairs.add(Arrays.<Class<?>>asList(sourceClass, mappingPlan.getTargetClass()));
+            classes.add(sourceClass);
+            classes.add(mappingPlan.getTargetClass());
+            for (PropertyPlan propertyPlan : mappingPlan.getAllPropertyPlans()) {
+                addPathClasses(sourceClass, propertyPlan.getFieldMapping(), classes);
+            }
+        }
+
+        StringTable strings = new StringTable();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(body);
+        out.writeInt(strings.index(System.getProperty("java.version")));
+
+        List<Class<?>> fingerprintedClasses = new ArrayList<>();
+        List<byte[]> fingerprints = new ArrayList<>();
+        try (Fingerprinter fingerprinter = new Fingerprinter()) {
+            for (Class<?> type : classes) {
+                byte[] fingerprint = fingerprinter.fingerprint(type);
+                if (fingerprint != null) {
+                    fingerprintedClasses.add(type);
+                    fingerprints.add(fingerprint);
+                }
+            }
+        }
+        out.writeInt(fingerprintedClasses.size());
+        for (int i = 0; i < fingerprintedClasses.size(); i++) {
+            Class<?> type = fingerprintedClasses.get(i);
+            out.writeInt(strings.index(type.getName()));
+            out.write(fingerprints.get(i));
+            PropertyDescriptor[] propertyDescriptors = BeanIntrospector.getPropertyDescriptors(type);
+            out.writeInt(propertyDescriptors.length);
+            for (PropertyDescriptor propertyDescriptor : propertyDescriptors) {
+                Method readMethod = propertyDescriptor.getReadMethod();
+                Method writeMethod = propertyDescriptor.getWriteMethod();
+                out.writeInt(strings.index(propertyDescriptor.getName()));
+                out.writeInt(strings.index(propertyDescriptor.getPropertyType().getName()));
+                out.writeInt(strings.index(readMethod != null ? readMethod.getDeclaringClass().getName() : null));
+                out.writeInt(strings.index(readMethod != null ? readMethod.getName() : null));
+                out.writeInt(strings.index(writeMethod != null ? writeMethod.getDeclaringClass().getName() : null));
+                out.writeInt(strings.index(writeMethod != null ? writeMethod.getName() : null));
+                out.writeInt(strings.index(writeMethod != null ? writeMethod.getParameterTypes()[0].getName() : null));
+            }
+        }
+
+        out.writeInt(classPairs.size());
+        for (List<Class<?>> classPair : classPairs) {
+            out.writeInt(strings.index(classPair.get(0).getName()));
+            out.writeInt(strings.index(classPair.get(1).getName()));
+        }
+        out.flush();
+
+        Path directory = file.toAbsolutePath().getParent();
+        Path tempFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream fileOut = new DataOutputStream(Files.newOutputStream(tempFile))) {
+                fileOut.writeInt(MAGIC);
+                fileOut.writeInt(FORMAT_VERSION);
+                strings.writeTo(fileOut);
+                body.writeTo(fileOut);
+            }
+            try {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * 加载快照，按内存映射方式读取，指纹一致的类型使用快照中的内省结果
+     * <p>
+     * 快照只用于加速启动，文件不存在、无法读取、格式或JDK版本不一致时按无快照处理，不抛出异常
+     *
+     * @param file        快照文件
+     * @param classLoader 加载快照中类型的ClassLoader
+     * @return 快照中可加载的类型对，每对为源类型、目标类型
+     */
+    static List<List<Class<?>>> restore(Path file, ClassLoader classLoader) {
+        return restore(file, classLoader, null);
+    }
+
+    /**
+     * @param presetClasses 接收使用了快照中内省结果的类型，可为空
+     */
+    static List<List<Class<?>>> restore(Path file, ClassLoader classLoader, Collection<Class<?>> presetClasses) {
+        if (!Files.isRegularFile(file)) {
+            return Collections.emptyList();
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            try (Fingerprinter fingerprinter = new Fingerprinter()) {
+                return restore(buffer, classLoader, fingerprinter, presetClasses);
+            } finally {
+                unmap(buffer);
+            }
+        } catch (IOException | RuntimeException e) {
+            return Collections.emptyList();
+        }
+    }
+
+    private static List<List<Class<?>>> restore(ByteBuffer buffer, ClassLoader classLoader,
+                                                Fingerprinter fingerprinter, Collection<Class<?>> presetClasses) {
+        if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+            return Collections.emptyList();
+        }
+        StringTableReader strings = new StringTableReader(buffer);
+        if (!System.getProperty("java.version").equals(strings.get(buffer.getInt()))) {
+            return Collections.emptyList();
+        }
+
+        int classCount = buffer.getInt();
+        for (int i = 0; i < classCount; i++) {
+            String className = strings.get(buffer.getInt());
+            byte[] fingerprint = new byte[FINGERPRINT_BYTES];
+            buffer.get(fingerprint);
+            int propertyCount = buffer.getInt();
+            int propertiesEnd = buffer.position() + propertyCount * PROPERTY_STRINGS * 4;
+            Class<?> type = loadClass(className, classLoader);
+            if (type != null && matches(type, fingerprint, fingerprinter)
+                    && restoreClass(type, buffer, propertyCount, strings, classLoader) && presetClasses != null) {
+                presetClasses.add(type);
+            }
+            ((Buffer) buffer).position(propertiesEnd);
+        }
+
+        int classPairCount = buffer.getInt();
+        List<List<Class<?>>> classPairs = new ArrayList<>(classPairCount);
+        for (int i = 0; i < classPairCount; i++) {
+            Class<?> sourceClass = loadClass(strings.get(buffer.getInt()), classLoader);
+            Class<?> targetClass = loadClass(strings.get(buffer.getInt()), classLoader);
+            if (sourceClass != null && targetClass != null) {
+                classPairs.add(Arrays.<Class<?>>asList(sourceClass, targetClass));
+            }
+        }
+        return classPairs;
+    }
+
+    private static boolean matches(Class<?> type, byte[] fingerprint, Fingerprinter fingerprinter) {
+        try {
+            return Arrays.equals(fingerprint, fingerprinter.fingerprint(type));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 方法无法解析时不使用快照中的结果，按需重新内省
+     *
+     * @return 是否使用了快照中的内省结果
+     */
+    private static boolean restoreClass(Class<?> type, ByteBuffer buffer, int propertyCount,
+                                        StringTableReader strings, ClassLoader classLoader) {
+        try {
+            PropertyDescriptor[] propertyDescriptors = new PropertyDescriptor[propertyCount];
+            String[] property = new String[PROPERTY_STRINGS];
+            for (int i = 0; i < propertyCount; i++) {
+                for (int k = 0; k < property.length; k++) {
+                    property[k] = strings.get(buffer.getInt());
+                }
+                Method readMethod = null;
+                if (property[3] != null) {
+                    readMethod = Class.forName(property[2], false, classLoader).getMethod(property[3]);
+                    if (!readMethod.getReturnType().getName().equals(property[1])) {
+                        return false;
+                    }
+                }
+                Method writeMethod = null;
+                if (property[5] != null) {
+                    writeMethod = Class.forName(property[4], false, classLoader)
+                            .getMethod(property[5], loadType(property[6], classLoader));
+                }
+                propertyDescriptors[i] = new PropertyDescriptor(property[0], readMethod, writeMethod);
+            }
+            BeanIntrospector.preset(type, propertyDescriptors);
+            return true;
+        } catch (ReflectiveOperationException | IntrospectionException | LinkageError e) {
+            // 重新内省
+            return false;
+        }
+    }
+
+    /**
+     * 多级属性路径在转换时按中间对象的运行时类型查找，按声明类型收集路径上的类型
+     */
+    private static void addPathClasses(Class<?> sourceClass, FieldMapping fieldMapping, Set<Class<?>> classes) {
+        if (fieldMapping == null || !fieldMapping.mappedProperty().contains(PATH_SEPARATOR)) {
+            return;
+        }
+        String[] propertyNames = fieldMapping.mappedProperty().split("\\.");
+        Class<?> ownerClass = sourceClass;
+        for (int i = 0; i < propertyNames.length - 1; i++) {
+            PropertyDescriptor propertyDescriptor = BeanIntrospector.getPropertyDescriptor(ownerClass,
+                    propertyNames[i]);
+            if (propertyDescriptor == null) {
+                return;
+            }
+            ownerClass = propertyDescriptor.getPropertyType();
+            classes.add(ownerClass);
+        }
+    }
+
+    private static Class<?> loadClass(String className, ClassLoader classLoader) {
+        try {
+            return Class.forName(className, false, classLoader);
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private static Class<?> loadType(String typeName, ClassLoader classLoader) throws ClassNotFoundException {
+        Class<?> primitiveType = PRIMITIVE_TYPES.get(typeName);
+        return primitiveType != null ? primitiveType : Class.forName(typeName, false, classLoader);
+    }
+
+    /**
+     * 解除文件映射，不等待GC回收；JDK不支持时由GC回收
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            // Java 9+
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            invokeCleaner.invoke(theUnsafe.get(null), buffer);
+        } catch (NoSuchMethodException e) {
+            try {
+                // Java 7、8
+                Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buffer);
+                if (cleaner != null) {
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
+                }
+            } catch (ReflectiveOperationException | RuntimeException ignored) {
+                // 由GC回收
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // 由GC回收
+        }
+    }
+
+    /**
+     * 字符串表，类名、属性名在快照中只保存一次
+     */
+    private static class StringTable {
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final List<String> strings = new ArrayList<>();
+
+        int index(String string) {
+            if (string == null) {
+                return NONE;
+            }
+            Integer index = indexes.get(string);
+            if (index == null) {
+                index = strings.size();
+                indexes.put(string, index);
+                strings.add(string);
+            }
+            return index;
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(strings.size());
+            for (String string : strings) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                out.writeShort(bytes.length);
+                out.write(bytes);
+            }
+        }
+    }
+
+    /**
+     * 读取字符串表，只记录各字符串的位置，使用时才从映射的文件中解码
+     */
+    private static class StringTableReader {
+        private final ByteBuffer buffer;
+        private final int[] offsets;
+        private final String[] strings;
+
+        StringTableReader(ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.offsets = new int[buffer.getInt()];
+            this.strings = new String[offsets.length];
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = buffer.position();
+                ((Buffer) buffer).position(offsets[i] + 2 + (buffer.getShort() & 0xFFFF));
+            }
+        }
+
+        String get(int index) {
+            if (index == NONE) {
+                return null;
+            }
+            String string = strings[index];
+            if (string == null) {
+                int offset = offsets[index];
+                ByteBuffer bytes = buffer.duplicate();
+                ((Buffer) bytes).limit(offset + 2 + (buffer.getShort(offset) & 0xFFFF));
+                ((Buffer) bytes).position(offset + 2);
+                string = StandardCharsets.UTF_8.decode(bytes).toString();
+                strings[index] = string;
+            }
+            return string;
+        }
+    }
+
+    /**
+     * 计算类型及其非JDK父类、接口的class文件元数据的哈希，一次读写快照中每个jar只打开一次，
+     * 共同的父类、接口只计算一次
+     */
+    private static class Fingerprinter implements Closeable {
+        private static final String JAR_URL_SEPARATOR = "!/";
+        /**
+         * 没有class文件的类型
+         */
+        private static final HashCode ABSENT = HashCode.fromInt(0);
+
+        private final Map<String, JarFile> jarFiles = new HashMap<>();
+        private final Map<Class<?>, HashCode> classFileHashes = new HashMap<>();
+
+        /**
+         * @return 指纹，类型或其父类没有class文件（如运行时生成的类）时返回null
+         */
+        byte[] fingerprint(Class<?> type) throws IOException {
+            Set<Class<?>> hierarchy = new LinkedHashSet<>();
+            addHierarchy(type, hierarchy);
+            Hasher hasher = Hashing.murmur3_128().newHasher();
+            for (Class<?> hierarchyClass : hierarchy) {
+                HashCode classFileHash = classFileHashes.get(hierarchyClass);
+                if (classFileHash == null) {
+                    classFileHash = hashClassFile(hierarchyClass);
+                    classFileHashes.put(hierarchyClass, classFileHash);
+                }
+                if (classFileHash == ABSENT) {
+                    return null;
+                }
+                hasher.putBytes(classFileHash.asBytes());
+            }
+            return hasher.hash().asBytes();
+        }
+
+        /**
+         * jar中的class文件取条目的CRC及大小，目录中的取文件大小及修改时间，其他来源（如嵌套jar）读取字节
+         */
+        private HashCode hashClassFile(Class<?> type) throws IOException {
+            URL url = type.getClassLoader().getResource(type.getName().replace('.', '/') + ".class");
+            if (url == null) {
+                return ABSENT;
+            }
+            Hasher hasher = Hashing.murmur3_128().newHasher();
+            if ("file".equals(url.getProtocol())) {
+                File file = toFile(url.toExternalForm());
+                return hasher.putLong(file.length()).putLong(file.lastModified()).hash();
+            }
+            String path = url.getPath();
+            int separator = path.indexOf(JAR_URL_SEPARATOR);
+            if ("jar".equals(url.getProtocol()) && path.startsWith("file:") && separator > 0) {
+                JarEntry entry = getJarFile(path.substring(0, separator))
+                        .getJarEntry(path.substring(separator + JAR_URL_SEPARATOR.length()));
+                if (entry != null && entry.getCrc() != -1) {
+                    return hasher.putLong(entry.getSize()).putLong(entry.getCrc()).hash();
+                }
+            }
+            try (InputStream in = url.openStream()) {
+                return hasher.putBytes(ByteStreams.toByteArray(in)).hash();
+            }
+        }
+
+        private JarFile getJarFile(String jarUrl) throws IOException {
+            JarFile jarFile = jarFiles.get(jarUrl);
+            if (jarFile == null) {
+                jarFile = new JarFile(toFile(jarUrl));
+                jarFiles.put(jarUrl, jarFile);
+            }
+            return jarFile;
+        }
+
+        private static File toFile(String fileUrl) throws IOException {
+            try {
+                return new File(new URL(fileUrl).toURI());
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                throw new IOException("Invalid file URL: " + fileUrl, e);
+            }
+        }
+
+        private static void addHierarchy(Class<?> type, Set<Class<?>> hierarchy) {
+            if (type == null || type.isPrimitive() || type.isArray() || type.getClassLoader() == null
+                    || !hierarchy.add(type)) {
+                return;
+            }
+            addHierarchy(type.getSuperclass(), hierarchy);
+            for (Class<?> interfaceType : type.getInterfaces()) {
+                addHierarchy(interfaceType, hierarchy);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (JarFile jarFile : jarFiles.values()) {
+                jarFile.close();
+            }
+        }
+    }
+}
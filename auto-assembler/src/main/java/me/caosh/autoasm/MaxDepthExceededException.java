@@ -0,0 +1,28 @@
+package me.caosh.autoasm;
+
+/**
+ * 嵌套对象的转换深度超过{@link ConversionContext#getMaxDepth()}，且上下文未指定截断
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+public class MaxDepthExceededException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final int maxDepth;
+
+    public MaxDepthExceededException(int maxDepth, Class<?> fromClass, Class<?> toClass) {
+        super("Max depth " + maxDepth + " exceeded when converting " + fromClass.getName() + " to "
+                + toClass.getName());
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * 超过的最大深度
+     *
+     * @return 最大深度
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+}
@@ -0,0 +1,18 @@
+package me.caosh.autoasm;
+
+/**
+ * 合并到已有对象时，对读取到的null值的处理方式
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+public enum NullValuePolicy {
+    /**
+     * 忽略null值，保留已有对象的属性值
+     */
+    IGNORE,
+    /**
+     * 将已有对象的属性置为null，基本类型属性保留原值
+     */
+    SET_NULL
+}
@@ -0,0 +1,191 @@
+package me.caosh.autoasm;
+
+import com.google.common.base.Function;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 集合并行转换策略，元素数量达到阈值时拆分为多段，在{@link Executor}（如{@link java.util.concurrent.ForkJoinPool}）上并行转换
+ * <p>
+ * 调用线程转换第一段，其余段提交给executor，executor拒绝或尚未开始执行的由调用线程转换，
+ * 嵌套转换在同一executor上不会因等待排队中的段而阻塞；
+ * 结果按原顺序写入预先分配的数组，元素转换失败时抛出携带失败下标的{@link ElementConversionException}，
+ * 其他段随即停止转换
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+public class ParallelismPolicy {
+    private final Executor executor;
+    private final int threshold;
+    private final int parallelism;
+
+    private ParallelismPolicy(Executor executor, int threshold, int parallelism) {
+        Preconditions.checkNotNull(executor, "executor cannot be null");
+        Preconditions.checkArgument(threshold > 0, "threshold should be positive");
+        Preconditions.checkArgument(parallelism > 0, "parallelism should be positive");
+        this.executor = executor;
+        this.threshold = threshold;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * 创建并行转换策略，并行度为CPU核数
+     *
+     * @param executor  执行转换的executor
+     * @param threshold 并行转换的最小元素数量
+     * @return 并行转换策略
+     */
+    public static ParallelismPolicy of(Executor executor, int threshold) {
+        return of(executor, threshold, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * 创建并行转换策略
+     *
+     * @param executor    执行转换的executor
+     * @param threshold   并行转换的最小元素数量
+     * @param parallelism 最多拆分的段数（含调用线程）
+     * @return 并行转换策略
+     */
+    public static ParallelismPolicy of(Executor executor, int threshold, int parallelism) {
+        return new ParallelismPolicy(executor, threshold, parallelism);
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * 按策略转换列表，保持原顺序
+     *
+     * @param fromList 原列表
+     * @param function 元素转换函数
+     * @param <F>      原元素类型
+     * @param <T>      转换后元素类型
+     * @return 转换后的列表
+     */
+    <F, T> List<T> transform(List<F> fromList, Function<? super F, ? extends T> function) {
+        int size = fromList.size();
+        Object[] results = new Object[size];
+        int chunks = Math.min(parallelism, size);
+        if (size < threshold || chunks <= 1) {
+            transformRange(fromList, function, results, 0, size, null);
+            return toList(results);
+        }
+
+        int chunkSize = (size + chunks - 1) / chunks;
+        AtomicBoolean failed = new AtomicBoolean();
+        List<FutureTask<Void>> tasks = new ArrayList<>(chunks - 1);
+        for (int from = chunkSize; from < size; from += chunkSize) {
+            FutureTask<Void> task = new FutureTask<>(new ChunkTask<>(fromList, function, results,
+                    from, Math.min(from + chunkSize, size), failed));
+            tasks.add(task);
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                task.run();
+            }
+        }
+
+        try {
+            transformRange(fromList, function, results, 0, Math.min(chunkSize, size), failed);
+        } catch (RuntimeException e) {
+            failed.set(true);
+            throw e;
+        }
+
+        // 按段的顺序等待，抛出第一个失败段的异常；尚未开始的段由调用线程执行，已开始的段run()不做任何事
+        for (FutureTask<Void> task : tasks) {
+            try {
+                task.run();
+                task.get();
+            } catch (InterruptedException e) {
+                failed.set(true);
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while converting list", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw (Error) cause;
+            }
+        }
+        return toList(results);
+    }
+
+    private static <F, T> void transformRange(List<F> fromList, Function<? super F, ? extends T> function,
+                                              Object[] results, int from, int to, AtomicBoolean failed) {
+        for (int i = from; i < to; i++) {
+            if (failed != null && failed.get()) {
+                // 其他段已失败，结果不再使用
+                return;
+            }
+            try {
+                results[i] = function.apply(fromList.get(i));
+            } catch (RuntimeException e) {
+                if (failed != null) {
+                    failed.set(true);
+                }
+                throw new ElementConversionException(i, e);
+            }
+        }
+    }
+
+    private static <T> List<T> toList(Object[] results) {
+        return new ArrayList<>((List<T>) Arrays.asList(results));
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(ParallelismPolicy.class)
+                .add("executor", executor)
+                .add("threshold", threshold)
+                .add("parallelism", parallelism)
+                .toString();
+    }
+
+    private static class ChunkTask<F, T> implements Callable<Void> {
+        private final List<F> fromList;
+        private final Function<? super F, ? extends T> function;
+        private final Object[] results;
+        private final int from;
+        private final int to;
+        private final AtomicBoolean failed;
+
+        ChunkTask(List<F> fromList, Function<? super F, ? extends T> function, Object[] results,
+                  int from, int to, AtomicBoolean failed) {
+            this.fromList = fromList;
+            this.function = function;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+            this.failed = failed;
+        }
+
+        @Override
+        public Void call() throws Exception {
+            transformRange(fromList, function, results, from, to, failed);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package me.caosh.autoasm;
+
+import com.google.common.base.Splitter;
+import com.google.common.reflect.ClassPath;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import me.caosh.autoasm.util.BeanIntrospector;
+import me.caosh.autoasm.util.ReflectionUtils;
+import me.caosh.autoasm.util.RuntimeTypeTable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * 启动时预加载{@link AutoAssembler}的转换
+ * <p>
+ * 类型对来自显式配置及包扫描：配置了{@link MappedClass}的类与其映射类型组成类型对，
+ * {@link RuntimeType}的每个子类型与其映射类型组成类型对；只有{@link Convertible}的类型没有确定的源类型，
+ * 预先内省其属性，作为嵌套属性时随外层类型对预加载。
+ * 各类型对在多个线程上并行预加载，全部完成（或任一失败）后返回
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+class Preloader {
+    private static final String CLASS_FILE_SUFFIX = ".class";
+
+    private final AutoAssembler autoAssembler;
+    private final Set<List<Class<?>>> preloaded =
+            Collections.newSetFromMap(new ConcurrentHashMap<List<Class<?>>, Boolean>());
+
+    Preloader(AutoAssembler autoAssembler) {
+        this.autoAssembler = autoAssembler;
+    }
+
+    /**
+     * @param classPairs   按（源类型, 目标类型）依次排列的类型对
+     * @param packageNames 扫描的包名，包括子包
+     */
+    void preload(List<Class<?>> classPairs, List<String> packageNames) {
+        Set<List<Class<?>>> pairs = new LinkedHashSet<>();
+        for (int i = 0; i < classPairs.size(); i += 2) {
+            pairs.add(Arrays.<Class<?>>asList(classPairs.get(i), classPairs.get(i + 1)));
+        }
+        List<Class<?>> convertibleClasses = new ArrayList<>();
+        for (Class<?> scannedClass : scan(packageNames)) {
+            MappedClass mappedClass = scannedClass.getAnnotation(MappedClass.class);
+            if (mappedClass != null) {
+                pairs.add(Arrays.<Class<?>>asList(mappedClass.value(), scannedClass));
+            }
+            RuntimeTypeTable runtimeTypeTable = RuntimeTypeTable.of(scannedClass);
+            if (runtimeTypeTable != null) {
+                for (Map.Entry<Class<?>, Class<?>> entry : runtimeTypeTable.getMappedClasses().entrySet()) {
+                    pairs.add(Arrays.<Class<?>>asList(entry.getValue(), entry.getKey()));
+                }
+            }
+            if (mappedClass == null && runtimeTypeTable == null
+                    && scannedClass.getAnnotation(Convertible.class) != null) {
+                convertibleClasses.add(scannedClass);
+            }
+        }
+
+        List<Callable<Void>> tasks = new ArrayList<>(pairs.size() + convertibleClasses.size());
+        for (final List<Class<?>> pair : pairs) {
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    autoAssembler.preload(pair.get(0), pair.get(1), preloaded);
+                    return null;
+                }
+            });
+        }
+        for (final Class<?> convertibleClass : convertibleClasses) {
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    BeanIntrospector.getPropertyDescriptors(convertibleClass);
+                    return null;
+                }
+            });
+        }
+        invokeAll(tasks);
+    }
+
+    private static void invokeAll(List<Callable<Void>> tasks) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        int threads = Math.min(tasks.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder()
+                .setNameFormat("auto-assembler-preload-%d")
+                .setDaemon(true)
+                .build());
+        try {
+            List<Future<Void>> futures = new ArrayList<>(tasks.size());
+            for (Callable<Void> task : tasks) {
+                futures.add(executor.submit(task));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while preloading", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Preload failed", cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 扫描包及其子包中的类，包括嵌套类
+     * <p>
+     * 类加载器不是URLClassLoader（如Java 9+的应用类加载器）时{@link ClassPath}找不到类，
+     * 此时改为扫描java.class.path中的目录及jar；仍找不到类的包视为配置错误
+     */
+    private static List<Class<?>> scan(List<String> packageNames) {
+        if (packageNames.isEmpty()) {
+            return Collections.emptyList();
+        }
+        ClassLoader classLoader = ReflectionUtils.getDefaultClassLoader();
+        ClassPath classPath;
+        try {
+            classPath = ClassPath.from(classLoader);
+        } catch (IOException e) {
+            throw new IllegalStateException("Scan class path failed", e);
+        }
+
+        Set<String> classNames = new LinkedHashSet<>();
+        for (String packageName : packageNames) {
+            List<String> packageClassNames = new ArrayList<>();
+            for (ClassPath.ClassInfo classInfo : classPath.getAllClasses()) {
+                if (isInPackage(classInfo.getPackageName(), packageName)) {
+                    packageClassNames.add(classInfo.getName());
+                }
+            }
+            if (packageClassNames.isEmpty()) {
+                packageClassNames = scanClassPath(System.getProperty("java.class.path", ""), packageName);
+            }
+            if (packageClassNames.isEmpty()) {
+                throw new IllegalStateException("No class found in package " + packageName);
+            }
+            classNames.addAll(packageClassNames);
+        }
+
+        List<Class<?>> classes = new ArrayList<>(classNames.size());
+        for (String className : classNames) {
+            try {
+                classes.add(Class.forName(className, false, classLoader));
+            } catch (ClassNotFoundException | LinkageError e) {
+                // 依赖缺失的类不会被转换，忽略
+            }
+        }
+        return classes;
+    }
+
+    /**
+     * 扫描类路径中的目录及jar，返回包及其子包中的类名
+     *
+     * @param classPath   以{@link File#pathSeparator}分隔的类路径
+     * @param packageName 包名
+     * @return 类名
+     */
+    static List<String> scanClassPath(String classPath, String packageName) {
+        String resourcePrefix = packageName.replace('.', '/') + "/";
+        List<String> classNames = new ArrayList<>();
+        for (String entry : Splitter.on(File.pathSeparatorChar).omitEmptyStrings().split(classPath)) {
+            File file = new File(entry);
+            if (file.isDirectory()) {
+                scanDirectory(new File(file, resourcePrefix), packageName, classNames);
+            } else if (file.isFile()) {
+                scanJar(file, resourcePrefix, classNames);
+            }
+        }
+        return classNames;
+    }
+
+    private static void scanDirectory(File directory, String packageName, List<String> classNames) {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            String name = file.getName();
+            if (file.isDirectory()) {
+                scanDirectory(file, packageName + "." + name, classNames);
+            } else if (isClassFile(name)) {
+                classNames.add(packageName + "." + name.substring(0, name.length() - CLASS_FILE_SUFFIX.length()));
+            }
+        }
+    }
+
+    private static void scanJar(File file, String resourcePrefix, List<String> classNames) {
+        try (JarFile jarFile = new JarFile(file)) {
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                String name = entries.nextElement().getName();
+                if (name.startsWith(resourcePrefix) && isClassFile(name)) {
+                    classNames.add(name.substring(0, name.length() - CLASS_FILE_SUFFIX.length()).replace('/', '.'));
+                }
+            }
+        } catch (IOException e) {
+            // 不是jar的文件不包含类，忽略
+        }
+    }
+
+    private static boolean isClassFile(String name) {
+        return name.endsWith(CLASS_FILE_SUFFIX) && !name.endsWith("module-info" + CLASS_FILE_SUFFIX)
+                && !name.endsWith("package-info" + CLASS_FILE_SUFFIX);
+    }
+
+    private static boolean isInPackage(String packageName, String scanPackageName) {
+        return packageName.equals(scanPackageName) || packageName.startsWith(scanPackageName + ".");
+    }
+}
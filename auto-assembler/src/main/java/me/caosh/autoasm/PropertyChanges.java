@@ -0,0 +1,51 @@
+package me.caosh.autoasm;
+
+import com.google.common.base.MoreObjects;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 合并到已有对象时实际发生变化的属性
+ * <p>
+ * 传入{@link AutoAssembler#assembleInto(Object, Object, NullValuePolicy, PropertyChanges)}等方法后，
+ * 写入前先读取已有值，与新值相等（{@link Object#equals(Object)}）的不调用setter，
+ * 适用于ORM托管的实体，避免setter调用使实体被标记为已修改
+ * <p>
+ * 嵌套对象的属性以"."连接，如security.code；集合、Map属性以整个属性记录
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+public class PropertyChanges {
+    private final Set<String> changedProperties = new LinkedHashSet<>();
+
+    /**
+     * 已变化的属性，按写入顺序
+     *
+     * @return 属性路径集合，不可修改
+     */
+    public Set<String> getChangedProperties() {
+        return Collections.unmodifiableSet(changedProperties);
+    }
+
+    public boolean isChanged(String propertyPath) {
+        return changedProperties.contains(propertyPath);
+    }
+
+    public boolean isEmpty() {
+        return changedProperties.isEmpty();
+    }
+
+    void add(String propertyPath) {
+        changedProperties.add(propertyPath);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(PropertyChanges.class)
+                .add("changedProperties", changedProperties)
+                .toString();
+    }
+}
@@ -0,0 +1,19 @@
+package me.caosh.autoasm.collection;
+
+import com.google.common.base.Function;
+
+/**
+ * 提供容器元素的转换函数，由调用方决定元素按assemble还是disassemble转换
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+public interface ElementConverters {
+    /**
+     * 获取将元素转换为toClass实例的函数，同一个容器的元素共用一个函数
+     *
+     * @param toClass 转换后的元素类型，不是基本类型
+     * @return 元素转换函数，入参非空
+     */
+    Function<Object, Object> get(Class<?> toClass);
+}
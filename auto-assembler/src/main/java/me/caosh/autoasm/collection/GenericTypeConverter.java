@@ -0,0 +1,458 @@
+package me.caosh.autoasm.collection;
+
+import com.google.common.base.Function;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.primitives.Primitives;
+import me.caosh.autoasm.util.ImmutableTypeRegistry;
+import me.caosh.autoasm.util.ReflectionUtils;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 按字段的泛型Type转换容器：{@link Collection}（List、Set、SortedSet、Queue等）、{@link Map}（键和值均转换）、
+ * 数组（包括基本类型数组）及其任意嵌套，如{@code List<List<X>>}、{@code Map<String, List<X>>}
+ * <p>
+ * 1. 读取方与写入方的声明类型由{@link #isShareable(Type, Type, ImmutableTypeRegistry)}在创建计划时判定可共享的，
+ * 由调用方直接写入原容器，不再检查元素
+ * 2. 其他情况在一次遍历中逐个转换元素，值已是期望的容器类型且全部元素（逐层）均未转换的，共享原容器；
+ * 出现第一个需要转换的元素时才按最终大小创建容器，非容器元素由{@link ElementConverters}按运行时类型转换
+ * <p>
+ * 接口类型的容器使用保持顺序的默认实现：List、Collection为{@link ArrayList}，Set为{@link LinkedHashSet}，
+ * SortedSet为{@link TreeSet}，Map为{@link LinkedHashMap}，SortedMap为{@link TreeMap}
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+public class GenericTypeConverter {
+    /**
+     * 将值转换为期望的Type
+     *
+     * @param value             转换前的值，可为空
+     * @param expectedType      期望的Type
+     * @param elementConverters 非容器元素的转换函数
+     * @return 转换后的值
+     */
+    public Object convert(Object value, Type expectedType, ElementConverters elementConverters) {
+        if (value == null) {
+            return null;
+        }
+        if (expectedType instanceof Class) {
+            Class<?> expectedClass = (Class<?>) expectedType;
+            if (expectedClass.isArray()) {
+                return convertArray(value, expectedClass.getComponentType(), expectedClass.getComponentType(),
+                        elementConverters);
+            }
+            Class<?> wrappedClass = Primitives.wrap(expectedClass);
+            if (wrappedClass.isInstance(value)) {
+                return value;
+            }
+            return elementConverters.get(wrappedClass).apply(value);
+        }
+        if (expectedType instanceof GenericArrayType) {
+            Type componentType = ((GenericArrayType) expectedType).getGenericComponentType();
+            return convertArray(value, componentType, getRawClass(componentType), elementConverters);
+        }
+        if (expectedType instanceof WildcardType || expectedType instanceof TypeVariable) {
+            return convert(value, getUpperBound(expectedType), elementConverters);
+        }
+        if (expectedType instanceof ParameterizedType) {
+            ParameterizedType parameterizedType = (ParameterizedType) expectedType;
+            Class<?> rawClass = getRawClass(parameterizedType);
+            Type[] typeArguments = parameterizedType.getActualTypeArguments();
+            if (Map.class.isAssignableFrom(rawClass)) {
+                Preconditions.checkArgument(typeArguments.length == 2,
+                        "Type argument of " + rawClass.getSimpleName() + " must be 2");
+                return convertMap(value, rawClass, typeArguments[0], typeArguments[1], elementConverters);
+            }
+            if (Iterable.class.isAssignableFrom(rawClass)) {
+                Preconditions.checkArgument(typeArguments.length == 1,
+                        "Type argument of " + rawClass.getSimpleName() + " must be 1");
+                return convertCollection(value, rawClass, typeArguments[0], elementConverters);
+            }
+            if (isAssignable(value, expectedType)) {
+                return value;
+            }
+        }
+        // 暂不支持的抛出异常
+        throw new IllegalArgumentException("Non-collection generic type fields not supported: " + expectedType);
+    }
+
+    /**
+     * 根据声明类型判断读取的容器值能否直接共享，在创建映射计划时调用
+     * <p>
+     * 只判断参数化的Collection、Map类型：读取方的容器类型可赋值给写入方，类型参数相同，
+     * 且逐层的元素类型均为final类型或{@link ImmutableTypeRegistry}中的不可变类型，元素无需按运行时类型检查。
+     * 通配符、类型变量等无法在创建计划时确定的，返回false，转换时逐个检查元素
+     *
+     * @param readType              读取方字段Type
+     * @param expectedType          写入方字段Type
+     * @param immutableTypeRegistry 不可变类型注册表
+     * @return 是否可以直接共享
+     */
+    public static boolean isShareable(Type readType, Type expectedType, ImmutableTypeRegistry immutableTypeRegistry) {
+        if (!(readType instanceof ParameterizedType) || !(expectedType instanceof ParameterizedType)) {
+            return false;
+        }
+        Class<?> rawClass = getRawClass(expectedType);
+        if (!Map.class.isAssignableFrom(rawClass) && !Iterable.class.isAssignableFrom(rawClass)) {
+            return false;
+        }
+        Type[] typeArguments = ((ParameterizedType) expectedType).getActualTypeArguments();
+        if (!rawClass.isAssignableFrom(getRawClass(readType))
+                || !Arrays.equals(((ParameterizedType) readType).getActualTypeArguments(), typeArguments)) {
+            return false;
+        }
+        return isFixedTypes(typeArguments, immutableTypeRegistry);
+    }
+
+    /**
+     * 元素类型的值无需按运行时类型转换：final类型、不可变类型，及其组成的数组与参数化容器
+     */
+    private static boolean isFixedTypes(Type[] types, ImmutableTypeRegistry immutableTypeRegistry) {
+        for (Type type : types) {
+            if (!isFixedType(type, immutableTypeRegistry)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isFixedType(Type type, ImmutableTypeRegistry immutableTypeRegistry) {
+        if (type instanceof Class) {
+            Class<?> typeClass = (Class<?>) type;
+            if (typeClass.isArray()) {
+                return isFixedType(typeClass.getComponentType(), immutableTypeRegistry);
+            }
+            return Modifier.isFinal(typeClass.getModifiers())
+                    || immutableTypeRegistry.isImmutable(Primitives.wrap(typeClass));
+        }
+        if (type instanceof GenericArrayType) {
+            return isFixedType(((GenericArrayType) type).getGenericComponentType(), immutableTypeRegistry);
+        }
+        if (type instanceof ParameterizedType) {
+            Class<?> rawClass = getRawClass(type);
+            return (Map.class.isAssignableFrom(rawClass) || Iterable.class.isAssignableFrom(rawClass))
+                    && isFixedTypes(((ParameterizedType) type).getActualTypeArguments(), immutableTypeRegistry);
+        }
+        return false;
+    }
+
+    /**
+     * 将容器值转换后填充到已有的容器中，用于合并到已有对象时复用容器
+     * <p>
+     * 只处理参数化的Collection、Map类型，已有容器先清空再逐个写入转换后的元素；
+     * 类型不匹配或已有容器不可修改时返回false，调用方应改为{@link #convert(Object, Type, ElementConverters)}后赋值
+     *
+     * @param value             转换前的值，非空
+     * @param expectedType      期望的Type
+     * @param existing          已有的容器，非空
+     * @param elementConverters 非容器元素的转换函数
+     * @return 是否已填充
+     */
+    public boolean convertInto(Object value, Type expectedType, Object existing,
+                               ElementConverters elementConverters) {
+        if (!(expectedType instanceof ParameterizedType)) {
+            return false;
+        }
+        ParameterizedType parameterizedType = (ParameterizedType) expectedType;
+        Class<?> rawClass = getRawClass(parameterizedType);
+        Type[] typeArguments = parameterizedType.getActualTypeArguments();
+        if (!rawClass.isInstance(existing)) {
+            return false;
+        }
+        if (value == existing) {
+            return true;
+        }
+        try {
+            if (existing instanceof Map && typeArguments.length == 2 && value instanceof Map) {
+                fillMap((Map<?, ?>) value, (Map<Object, Object>) existing, typeArguments[0], typeArguments[1],
+                        elementConverters);
+                return true;
+            }
+            if (existing instanceof Collection && typeArguments.length == 1) {
+                fillCollection(toCollection(value, rawClass), (Collection<Object>) existing, typeArguments[0],
+                        elementConverters);
+                return true;
+            }
+        } catch (UnsupportedOperationException e) {
+            // 不可修改的容器，由调用方替换
+            return false;
+        }
+        return false;
+    }
+
+    private void fillCollection(Collection<?> source, Collection<Object> target, Type elementType,
+                                ElementConverters elementConverters) {
+        target.clear();
+        Function<Object, Object> elementFunction = elementFunction(elementType, elementConverters);
+        for (Object element : source) {
+            target.add(elementFunction.apply(element));
+        }
+    }
+
+    private void fillMap(Map<?, ?> source, Map<Object, Object> target, Type keyType, Type valueType,
+                         ElementConverters elementConverters) {
+        target.clear();
+        Function<Object, Object> keyFunction = elementFunction(keyType, elementConverters);
+        Function<Object, Object> valueFunction = elementFunction(valueType, elementConverters);
+        for (Map.Entry<?, ?> entry : source.entrySet()) {
+            target.put(keyFunction.apply(entry.getKey()), valueFunction.apply(entry.getValue()));
+        }
+    }
+
+    /**
+     * 判断值是否可以直接赋值给期望的Type，容器逐层检查元素，无法检查的泛型参数视为可赋值
+     *
+     * @param value        值，可为空
+     * @param expectedType 期望的Type
+     * @return 是否可以直接赋值
+     */
+    public boolean isAssignable(Object value, Type expectedType) {
+        if (value == null) {
+            return true;
+        }
+        if (expectedType instanceof Class) {
+            return Primitives.wrap((Class<?>) expectedType).isInstance(value);
+        }
+        if (expectedType instanceof WildcardType || expectedType instanceof TypeVariable) {
+            return isAssignable(value, getUpperBound(expectedType));
+        }
+        if (expectedType instanceof GenericArrayType) {
+            if (!(value instanceof Object[])) {
+                return false;
+            }
+            return isAllAssignable(Arrays.asList((Object[]) value),
+                    ((GenericArrayType) expectedType).getGenericComponentType());
+        }
+        if (expectedType instanceof ParameterizedType) {
+            ParameterizedType parameterizedType = (ParameterizedType) expectedType;
+            if (!getRawClass(parameterizedType).isInstance(value)) {
+                return false;
+            }
+            Type[] typeArguments = parameterizedType.getActualTypeArguments();
+            if (value instanceof Map && typeArguments.length == 2) {
+                Map<?, ?> map = (Map<?, ?>) value;
+                return isAllAssignable(map.keySet(), typeArguments[0])
+                        && isAllAssignable(map.values(), typeArguments[1]);
+            }
+            if (value instanceof Iterable && typeArguments.length == 1) {
+                return isAllAssignable((Iterable<?>) value, typeArguments[0]);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private boolean isAllAssignable(Iterable<?> elements, Type elementType) {
+        if (elementType == Object.class) {
+            return true;
+        }
+        for (Object element : elements) {
+            if (!isAssignable(element, elementType)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 逐个转换元素，值已是期望的容器类型时，出现第一个与原元素不同的转换结果才创建新容器并复制之前的元素
+     */
+    private Object convertCollection(Object value, Class<?> rawClass, Type elementType,
+                                     ElementConverters elementConverters) {
+        Collection<?> source = toCollection(value, rawClass);
+        Function<Object, Object> elementFunction = elementFunction(elementType, elementConverters);
+        Collection<Object> target = rawClass.isInstance(value) ? null : newCollection(rawClass, source.size());
+        int index = 0;
+        for (Object element : source) {
+            Object convertedElement = elementFunction.apply(element);
+            if (target == null && convertedElement != element) {
+                target = newCollection(rawClass, source.size());
+                Iterables.addAll(target, Iterables.limit(source, index));
+            }
+            if (target != null) {
+                target.add(convertedElement);
+            }
+            index++;
+        }
+        return target != null ? target : value;
+    }
+
+    /**
+     * 与{@link #convertCollection(Object, Class, Type, ElementConverters)}相同，键和值均未转换的共享原Map
+     */
+    private Object convertMap(Object value, Class<?> rawClass, Type keyType, Type valueType,
+                              ElementConverters elementConverters) {
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException("Type mismatch and cannot convert: " + value.getClass().getSimpleName()
+                    + " to " + rawClass.getSimpleName());
+        }
+        Map<?, ?> source = (Map<?, ?>) value;
+        Function<Object, Object> keyFunction = elementFunction(keyType, elementConverters);
+        Function<Object, Object> valueFunction = elementFunction(valueType, elementConverters);
+        Map<Object, Object> target = rawClass.isInstance(value) ? null : newMap(rawClass, source.size());
+        int index = 0;
+        for (Map.Entry<?, ?> entry : source.entrySet()) {
+            Object key = keyFunction.apply(entry.getKey());
+            Object convertedValue = valueFunction.apply(entry.getValue());
+            if (target == null && (key != entry.getKey() || convertedValue != entry.getValue())) {
+                target = newMap(rawClass, source.size());
+                for (Map.Entry<?, ?> copiedEntry : Iterables.limit(source.entrySet(), index)) {
+                    target.put(copiedEntry.getKey(), copiedEntry.getValue());
+                }
+            }
+            if (target != null) {
+                target.put(key, convertedValue);
+            }
+            index++;
+        }
+        return target != null ? target : value;
+    }
+
+    private Object convertArray(Object value, Type componentType, Class<?> componentClass,
+                                ElementConverters elementConverters) {
+        if (componentType instanceof Class && Array.newInstance(componentClass, 0).getClass().isInstance(value)) {
+            // 数组运行时类型保证了元素类型
+            return value;
+        }
+
+        Collection<?> source = toCollection(value, Array.newInstance(componentClass, 0).getClass());
+        Object target = Array.newInstance(componentClass, source.size());
+        Function<Object, Object> elementFunction = elementFunction(componentType, elementConverters);
+        int index = 0;
+        for (Object element : source) {
+            Array.set(target, index++, elementFunction.apply(element));
+        }
+        return target;
+    }
+
+    /**
+     * 元素转换函数，非容器元素在同一个容器内共用{@link ElementConverters}提供的函数
+     */
+    private Function<Object, Object> elementFunction(final Type elementType,
+                                                     final ElementConverters elementConverters) {
+        if (elementType instanceof Class && !((Class<?>) elementType).isArray()) {
+            final Class<?> wrappedClass = Primitives.wrap((Class<?>) elementType);
+            return new Function<Object, Object>() {
+                private Function<Object, Object> converter;
+
+                @Override
+                public Object apply(Object element) {
+                    if (element == null || wrappedClass.isInstance(element)) {
+                        return element;
+                    }
+                    if (converter == null) {
+                        converter = elementConverters.get(wrappedClass);
+                    }
+                    return converter.apply(element);
+                }
+            };
+        }
+        return new Function<Object, Object>() {
+            @Override
+            public Object apply(Object element) {
+                return convert(element, elementType, elementConverters);
+            }
+        };
+    }
+
+    private static Collection<?> toCollection(Object value, Class<?> expectedClass) {
+        if (value instanceof Collection) {
+            return (Collection<?>) value;
+        }
+        if (value instanceof Iterable) {
+            return Lists.newArrayList((Iterable<?>) value);
+        }
+        if (value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            List<Object> elements = new ArrayList<>(length);
+            for (int i = 0; i < length; i++) {
+                elements.add(Array.get(value, i));
+            }
+            return elements;
+        }
+        throw new IllegalArgumentException("Type mismatch and cannot convert: " + value.getClass().getSimpleName()
+                + " to " + expectedClass.getSimpleName());
+    }
+
+    /**
+     * 按最终大小创建容器，期望类型可以使用默认实现的优先使用默认实现（如HashSet使用LinkedHashSet），否则使用无参构造
+     */
+    private static Collection<Object> newCollection(Class<?> rawClass, int size) {
+        if (rawClass.isAssignableFrom(ArrayList.class)) {
+            return new ArrayList<>(size);
+        }
+        if (rawClass.isAssignableFrom(LinkedHashSet.class)) {
+            return Sets.newLinkedHashSetWithExpectedSize(size);
+        }
+        if (rawClass.isAssignableFrom(TreeSet.class) && SortedSet.class.isAssignableFrom(rawClass)) {
+            return new TreeSet<>();
+        }
+        if (rawClass.isAssignableFrom(ArrayDeque.class) && Queue.class.isAssignableFrom(rawClass)) {
+            return new ArrayDeque<>(size);
+        }
+        return (Collection<Object>) ReflectionUtils.newInstance(rawClass);
+    }
+
+    private static Map<Object, Object> newMap(Class<?> rawClass, int size) {
+        if (rawClass.isAssignableFrom(LinkedHashMap.class)) {
+            return Maps.newLinkedHashMapWithExpectedSize(size);
+        }
+        if (rawClass.isAssignableFrom(TreeMap.class) && SortedMap.class.isAssignableFrom(rawClass)) {
+            return new TreeMap<>();
+        }
+        if (rawClass.isAssignableFrom(ConcurrentHashMap.class) && ConcurrentMap.class.isAssignableFrom(rawClass)) {
+            return new ConcurrentHashMap<>(Math.max((int) (size / 0.75f) + 1, 16));
+        }
+        return (Map<Object, Object>) ReflectionUtils.newInstance(rawClass);
+    }
+
+    private static Type getUpperBound(Type type) {
+        Type[] bounds = type instanceof WildcardType
+                ? ((WildcardType) type).getUpperBounds()
+                : ((TypeVariable<?>) type).getBounds();
+        return bounds.length > 0 ? bounds[0] : Object.class;
+    }
+
+    private static Class<?> getRawClass(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        }
+        if (type instanceof ParameterizedType) {
+            return getRawClass(((ParameterizedType) type).getRawType());
+        }
+        if (type instanceof GenericArrayType) {
+            Class<?> componentClass = getRawClass(((GenericArrayType) type).getGenericComponentType());
+            return Array.newInstance(componentClass, 0).getClass();
+        }
+        if (type instanceof WildcardType || type instanceof TypeVariable) {
+            return getRawClass(getUpperBound(type));
+        }
+        return Object.class;
+    }
+}
@@ -1,21 +1,30 @@
 package me.caosh.autoasm.converter;
 
 import com.google.common.base.Converter;
-import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
-import com.google.common.base.Predicate;
-import com.google.common.collect.Iterables;
+import me.caosh.autoasm.util.ClassPairMap;
 
-import java.util.LinkedList;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * 源类型、目标类型组合键至{@link com.google.common.base.Converter}的映射
+ * <p>
+ * 查找规则：按注册顺序从后往前，第一个源类型、目标类型均可赋值的converter
+ * 已注册的类型组合在注册时即完成查找，其他类型组合的查找结果（包括不存在）在首次查找后缓存
+ * <p>
+ * 已注册的converter保存在不可变快照中，注册时复制并建立索引后原子地替换快照（copy-on-write），
+ * 查找不加锁，运行中注册converter与并发的查找互不影响
  *
  * @author caosh/shuhaoc@qq.com
  * @date 2018/1/13
  */
 public class ConverterMapping {
-    private LinkedList<ConverterItem> converterItems = new LinkedList<>();
+    /**
+     * 缓存中表示converter不存在的占位对象
+     */
+    private static final ClassifiedConverter<?, ?> NOT_FOUND = new NotConfiguredClassifiedConverter();
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(new Snapshot(0, new ConverterItem[0]));
 
     /**
      * 注册源类型与目标类型之间互转的converter
@@ -42,10 +51,18 @@ public class ConverterMapping {
      */
     public <S, T> void register(Class<S> sourceClass, Class<T> targetClass, ClassifiedConverter<S, T> converter) {
         ConverterItem<S, T> converterItem = new ConverterItem<>(sourceClass, targetClass, converter);
-        converterItems.addFirst(converterItem);
-
         ConverterItem reversedConverterItem = converterItem.reverse();
-        converterItems.addFirst(reversedConverterItem);
+
+        while (true) {
+            Snapshot current = snapshot.get();
+            ConverterItem[] converterItems = new ConverterItem[current.converterItems.length + 2];
+            converterItems[0] = reversedConverterItem;
+            converterItems[1] = converterItem;
+            System.arraycopy(current.converterItems, 0, converterItems, 2, current.converterItems.length);
+            if (snapshot.compareAndSet(current, new Snapshot(current.version + 1, converterItems))) {
+                return;
+            }
+        }
     }
 
     /**
@@ -57,19 +74,73 @@ public class ConverterMapping {
      * @param <T>         目标类型参数
      * @return 源类型转换为目标类型的converter
      */
-    public <S, T> ClassifiedConverter<S, T> find(final Class<S> sourceClass, final Class<T> targetClass) {
-        Optional<ConverterItem> converter = Iterables.tryFind(converterItems, new Predicate<ConverterItem>() {
-                    @Override
-                    public boolean apply(ConverterItem converterItem) {
-                        return converterItem.getSourceClass().isAssignableFrom(sourceClass)
-                                && converterItem.getTargetClass().isAssignableFrom(targetClass);
+    public <S, T> ClassifiedConverter<S, T> find(Class<S> sourceClass, Class<T> targetClass) {
+        return (ClassifiedConverter<S, T>) snapshot.get().find(sourceClass, targetClass);
+    }
+
+    /**
+     * 当前快照的版本号，每次注册加1，缓存了查找结果的调用方据此判断缓存是否失效
+     *
+     * @return 版本号
+     */
+    public long getVersion() {
+        return snapshot.get().version;
+    }
+
+    /**
+     * 某次注册后的全部converter及其索引，创建后converter列表和精确索引不再修改
+     */
+    private static class Snapshot {
+        private final long version;
+        /**
+         * 按优先级从高到低排列，即最后注册的在最前
+         */
+        private final ConverterItem[] converterItems;
+        private final ClassPairMap<ClassifiedConverter<?, ?>> exactIndex = new ClassPairMap<>();
+        /**
+         * 未注册类型组合的查找结果，随快照一起丢弃，新注册的converter可能覆盖已有的查找结果
+         */
+        private final ClassPairMap<ClassifiedConverter<?, ?>> resolvedCache = new ClassPairMap<>();
+
+        Snapshot(long version, ConverterItem[] converterItems) {
+            this.version = version;
+            this.converterItems = converterItems;
+            for (ConverterItem converterItem : converterItems) {
+                Class<?> sourceClass = converterItem.getSourceClass();
+                Class<?> targetClass = converterItem.getTargetClass();
+                if (exactIndex.get(sourceClass, targetClass) == null) {
+                    exactIndex.put(sourceClass, targetClass, scan(sourceClass, targetClass));
+                }
+            }
+        }
+
+        ClassifiedConverter<?, ?> find(Class<?> sourceClass, Class<?> targetClass) {
+            ClassifiedConverter<?, ?> converter = exactIndex.get(sourceClass, targetClass);
+            if (converter == null) {
+                converter = resolvedCache.get(sourceClass, targetClass);
+                if (converter == null) {
+                    converter = scan(sourceClass, targetClass);
+                    if (converter == null) {
+                        converter = NOT_FOUND;
                     }
+                    resolvedCache.put(sourceClass, targetClass, converter);
+                }
+            }
+            if (converter == NOT_FOUND) {
+                return null;
+            }
+            return converter;
+        }
+
+        private ClassifiedConverter<?, ?> scan(Class<?> sourceClass, Class<?> targetClass) {
+            for (ConverterItem converterItem : converterItems) {
+                if (converterItem.getSourceClass().isAssignableFrom(sourceClass)
+                        && converterItem.getTargetClass().isAssignableFrom(targetClass)) {
+                    return converterItem.getConverter();
                 }
-        );
-        if (converter.isPresent()) {
-            return converter.get().getConverter();
+            }
+            return null;
         }
-        return null;
     }
 
     private static class ConverterItem<A, B> {
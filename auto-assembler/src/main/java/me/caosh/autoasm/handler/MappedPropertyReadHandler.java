@@ -1,6 +1,7 @@
 package me.caosh.autoasm.handler;
 
 import me.caosh.autoasm.FieldMapping;
+import me.caosh.autoasm.util.PropertyPath;
 import me.caosh.autoasm.util.PropertyUtils;
 
 /**
@@ -10,8 +11,25 @@ import me.caosh.autoasm.util.PropertyUtils;
  * @date 2018/1/10
  */
 public class MappedPropertyReadHandler implements ReadHandler {
+    /**
+     * 创建映射计划时已编译的属性路径，为空时每次根据字段配置查找
+     */
+    private final PropertyPath compiledPath;
+
+    public MappedPropertyReadHandler() {
+        this(null);
+    }
+
+    public MappedPropertyReadHandler(PropertyPath compiledPath) {
+        this.compiledPath = compiledPath;
+    }
+
     @Override
     public Object read(FieldMapping fieldMapping, Object object, String propertyName) {
+        if (compiledPath != null) {
+            return compiledPath.read(object);
+        }
+
         String propertyPath;
         String mappedProperty = fieldMapping.mappedProperty();
         if (!mappedProperty.isEmpty()) {
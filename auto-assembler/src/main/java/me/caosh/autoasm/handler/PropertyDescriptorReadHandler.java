@@ -0,0 +1,29 @@
+package me.caosh.autoasm.handler;
+
+import me.caosh.autoasm.FieldMapping;
+import me.caosh.autoasm.util.PropertyAccessor;
+
+import java.beans.PropertyDescriptor;
+
+/**
+ * 使用预先解析好的{@link PropertyDescriptor}读取字段值，读取时不再查找属性
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/16
+ */
+public class PropertyDescriptorReadHandler implements ReadHandler {
+    private final PropertyAccessor propertyAccessor;
+
+    public PropertyDescriptorReadHandler(PropertyDescriptor propertyDescriptor) {
+        this.propertyAccessor = PropertyAccessor.of(propertyDescriptor);
+    }
+
+    public PropertyAccessor getPropertyAccessor() {
+        return propertyAccessor;
+    }
+
+    @Override
+    public Object read(FieldMapping fieldMapping, Object object, String propertyName) {
+        return propertyAccessor.get(object);
+    }
+}
@@ -1,10 +1,7 @@
 package me.caosh.autoasm.handler;
 
-import com.google.common.collect.ImmutableList;
 import me.caosh.autoasm.FieldMapping;
 
-import java.util.List;
-
 /**
  * 依次调用所有handlers直到任意一个handler返回非空
  *
@@ -12,15 +9,18 @@ import java.util.List;
  * @date 2018/1/10
  */
 public class ReadHandlerChain implements ReadHandler {
-    private final List<ReadHandler> readHandlerList;
+    /**
+     * 使用数组保存，遍历时不创建迭代器
+     */
+    private final ReadHandler[] readHandlers;
 
     public ReadHandlerChain(ReadHandler... handlers) {
-        this.readHandlerList = ImmutableList.copyOf(handlers);
+        this.readHandlers = handlers.clone();
     }
 
     @Override
     public Object read(FieldMapping fieldMapping, Object object, String propertyName) {
-        for (ReadHandler readHandler : readHandlerList) {
+        for (ReadHandler readHandler : readHandlers) {
             Object value = readHandler.read(fieldMapping, object, propertyName);
             if (value != null) {
                 return value;
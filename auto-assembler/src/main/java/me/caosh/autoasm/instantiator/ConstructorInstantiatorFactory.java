@@ -0,0 +1,88 @@
+package me.caosh.autoasm.instantiator;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+
+/**
+ * 默认的{@link InstantiatorFactory}，使用public的无参构造函数创建实例
+ * <p>
+ * 构造函数只解析一次并转换为{@link MethodHandle}，创建实例时不再做{@link Class#newInstance()}的访问检查
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+public class ConstructorInstantiatorFactory implements InstantiatorFactory {
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+
+    @Override
+    public <T> Instantiator<T> getInstantiator(Class<T> objectClass) {
+        try {
+            return new ConstructorInstantiator<>(objectClass, findConstructor(objectClass));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return new FailedInstantiator<>(objectClass, e);
+        }
+    }
+
+    private static MethodHandle findConstructor(Class<?> objectClass) throws ReflectiveOperationException {
+        if (Modifier.isAbstract(objectClass.getModifiers())) {
+            throw new InstantiationException(objectClass.getName());
+        }
+        Constructor<?> constructor = objectClass.getConstructor();
+        if (!Modifier.isPublic(objectClass.getModifiers())) {
+            // 非public类的public构造函数，与PropertyAccessor一致，取消访问检查后使用
+            constructor.setAccessible(true);
+        }
+        return MethodHandles.lookup().unreflectConstructor(constructor).asType(CONSTRUCTOR_TYPE);
+    }
+
+    private static IllegalArgumentException newInstanceFailed(Class<?> objectClass, Throwable cause) {
+        return new IllegalArgumentException("Create object <" + objectClass.getSimpleName()
+                + "> using non-argument-constructor failed", cause);
+    }
+
+    private static class ConstructorInstantiator<T> implements Instantiator<T> {
+        private final Class<T> objectClass;
+        /**
+         * ()Object
+         */
+        private final MethodHandle constructor;
+
+        ConstructorInstantiator(Class<T> objectClass, MethodHandle constructor) {
+            this.objectClass = objectClass;
+            this.constructor = constructor;
+        }
+
+        @Override
+        public T newInstance() {
+            try {
+                return (T) (Object) constructor.invokeExact();
+            } catch (RuntimeException | Error e) {
+                // 与Class.newInstance()一致，构造函数抛出的非受检异常直接抛出
+                throw e;
+            } catch (Throwable e) {
+                throw newInstanceFailed(objectClass, e);
+            }
+        }
+    }
+
+    /**
+     * 无法创建实例的类型，在创建时抛出异常，与{@link Class#newInstance()}失败的时机一致
+     */
+    private static class FailedInstantiator<T> implements Instantiator<T> {
+        private final Class<T> objectClass;
+        private final Exception cause;
+
+        FailedInstantiator(Class<T> objectClass, Exception cause) {
+            this.objectClass = objectClass;
+            this.cause = cause;
+        }
+
+        @Override
+        public T newInstance() {
+            throw newInstanceFailed(objectClass, cause);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package me.caosh.autoasm.instantiator;
+
+/**
+ * 创建对象实例，每个类型一个实例，由{@link InstantiatorFactory}创建并被缓存
+ *
+ * @param <T> 对象类型
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+public interface Instantiator<T> {
+    /**
+     * 创建新实例
+     *
+     * @return 新实例，不可能为空
+     */
+    T newInstance();
+}
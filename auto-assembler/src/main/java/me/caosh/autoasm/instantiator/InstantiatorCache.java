@@ -0,0 +1,40 @@
+package me.caosh.autoasm.instantiator;
+
+/**
+ * 按类型缓存{@link InstantiatorFactory}创建的{@link Instantiator}，缓存随类型卸载
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+public class InstantiatorCache {
+    private final ClassValue<Instantiator<?>> instantiators;
+
+    public InstantiatorCache(final InstantiatorFactory instantiatorFactory) {
+        this.instantiators = new ClassValue<Instantiator<?>>() {
+            @Override
+            protected Instantiator<?> computeValue(Class<?> type) {
+                return instantiatorFactory.getInstantiator(type);
+            }
+        };
+    }
+
+    /**
+     * 创建类型的新实例
+     *
+     * @param objectClass 对象类型
+     * @param <T>         对象类型
+     * @return 新实例
+     */
+    public <T> T newInstance(Class<T> objectClass) {
+        return ((Instantiator<T>) instantiators.get(objectClass)).newInstance();
+    }
+
+    /**
+     * 预先创建类型的{@link Instantiator}，不创建实例
+     *
+     * @param objectClass 对象类型
+     */
+    public void preload(Class<?> objectClass) {
+        instantiators.get(objectClass);
+    }
+}
@@ -0,0 +1,21 @@
+package me.caosh.autoasm.instantiator;
+
+/**
+ * {@link Instantiator}的工厂，可通过{@link me.caosh.autoasm.AutoAssemblerBuilder#instantiatorFactory(InstantiatorFactory)}
+ * 替换为objenesis、对象池等其他实现
+ * <p>
+ * {@link me.caosh.autoasm.AutoAssembler}对每个类型只调用一次{@link #getInstantiator(Class)}，结果被缓存
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+public interface InstantiatorFactory {
+    /**
+     * 获取类型的Instantiator，无法创建实例时应返回调用时抛出异常的Instantiator，而不是在此处抛出
+     *
+     * @param objectClass 对象类型
+     * @param <T>         对象类型
+     * @return Instantiator
+     */
+    <T> Instantiator<T> getInstantiator(Class<T> objectClass);
+}
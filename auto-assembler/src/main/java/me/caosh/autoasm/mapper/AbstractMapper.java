@@ -0,0 +1,61 @@
+package me.caosh.autoasm.mapper;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableSet;
+import me.caosh.autoasm.plan.MappingDirection;
+
+import java.util.Set;
+
+/**
+ * {@link Mapper}的基类，编译期生成的映射器继承此类，只需实现{@link #map(Object, Object)}
+ * 生成的映射器直接调用getter/setter，其抛出的异常不做包装
+ *
+ * @param <F> 读取方类型
+ * @param <T> 写入方类型
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+public abstract class AbstractMapper<F, T> implements Mapper<F, T> {
+    private final MappingDirection direction;
+    private final Class<F> fromClass;
+    private final Class<T> toClass;
+    private final Set<String> mappedProperties;
+
+    protected AbstractMapper(MappingDirection direction, Class<F> fromClass, Class<T> toClass,
+                             String... mappedProperties) {
+        this.direction = direction;
+        this.fromClass = fromClass;
+        this.toClass = toClass;
+        this.mappedProperties = ImmutableSet.copyOf(mappedProperties);
+    }
+
+    @Override
+    public MappingDirection getDirection() {
+        return direction;
+    }
+
+    @Override
+    public Class<F> getFromClass() {
+        return fromClass;
+    }
+
+    @Override
+    public Class<T> getToClass() {
+        return toClass;
+    }
+
+    @Override
+    public Set<String> getMappedProperties() {
+        return mappedProperties;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(getClass())
+                .add("direction", direction)
+                .add("fromClass", fromClass.getSimpleName())
+                .add("toClass", toClass.getSimpleName())
+                .add("mappedProperties", mappedProperties)
+                .toString();
+    }
+}
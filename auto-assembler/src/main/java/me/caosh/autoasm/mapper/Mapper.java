@@ -0,0 +1,54 @@
+package me.caosh.autoasm.mapper;
+
+import me.caosh.autoasm.plan.MappingDirection;
+
+import java.util.Set;
+
+/**
+ * 一对类型在一个映射方向上的映射器，直接调用getter/setter完成部分属性的读写
+ * 未包含在{@link #getMappedProperties()}中的属性仍由{@link me.caosh.autoasm.AutoAssembler}按映射计划处理
+ * <p>
+ * assemble时读取方为源对象、写入方为目标对象；disassemble时读取方为目标对象、写入方为源对象
+ *
+ * @param <F> 读取方类型
+ * @param <T> 写入方类型
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+public interface Mapper<F, T> {
+    /**
+     * 映射方向
+     *
+     * @return 映射方向
+     */
+    MappingDirection getDirection();
+
+    /**
+     * 读取方类型，与运行时类型精确匹配
+     *
+     * @return 读取方类型
+     */
+    Class<F> getFromClass();
+
+    /**
+     * 写入方类型，与运行时类型精确匹配
+     *
+     * @return 写入方类型
+     */
+    Class<T> getToClass();
+
+    /**
+     * 本映射器处理的属性，为目标类上的属性名
+     *
+     * @return 属性名集合
+     */
+    Set<String> getMappedProperties();
+
+    /**
+     * 将读取方对象的属性写入写入方对象，值为null的属性不写入
+     *
+     * @param from 读取方对象
+     * @param to   写入方对象
+     */
+    void map(F from, T to);
+}
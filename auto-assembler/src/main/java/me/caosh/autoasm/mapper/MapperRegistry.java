@@ -0,0 +1,70 @@
+package me.caosh.autoasm.mapper;
+
+import me.caosh.autoasm.plan.MappingDirection;
+import me.caosh.autoasm.util.ClassPairMap;
+
+import java.util.ServiceLoader;
+
+/**
+ * 编译期生成的{@link Mapper}注册表
+ * <p>
+ * 生成的映射器由auto-assembler-processor注册在META-INF/services/me.caosh.autoasm.mapper.Mapper中，
+ * 通过{@link ServiceLoader}加载，按映射方向、读取方类型、写入方类型索引
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+public class MapperRegistry {
+    private final ClassPairMap<Mapper<Object, Object>> assembleMappers = new ClassPairMap<>();
+    private final ClassPairMap<Mapper<Object, Object>> disassembleMappers = new ClassPairMap<>();
+
+    /**
+     * 从当前线程的上下文类加载器中加载所有已注册的映射器
+     *
+     * @return 注册表
+     */
+    public static MapperRegistry load() {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        return load(classLoader != null ? classLoader : MapperRegistry.class.getClassLoader());
+    }
+
+    /**
+     * 从类加载器中加载所有已注册的映射器
+     *
+     * @param classLoader 类加载器
+     * @return 注册表
+     */
+    public static MapperRegistry load(ClassLoader classLoader) {
+        MapperRegistry mapperRegistry = new MapperRegistry();
+        for (Mapper mapper : ServiceLoader.load(Mapper.class, classLoader)) {
+            mapperRegistry.register(mapper);
+        }
+        return mapperRegistry;
+    }
+
+    /**
+     * 注册映射器，同一方向、同一对类型已存在的将被覆盖
+     *
+     * @param mapper 映射器
+     */
+    public void register(Mapper<?, ?> mapper) {
+        getMappers(mapper.getDirection()).put(mapper.getFromClass(), mapper.getToClass(),
+                (Mapper<Object, Object>) mapper);
+    }
+
+    /**
+     * 查找映射器，类型需精确匹配
+     *
+     * @param direction 映射方向
+     * @param fromClass 读取方类型
+     * @param toClass   写入方类型
+     * @return 映射器，不存在返回null
+     */
+    public Mapper<Object, Object> find(MappingDirection direction, Class<?> fromClass, Class<?> toClass) {
+        return getMappers(direction).get(fromClass, toClass);
+    }
+
+    private ClassPairMap<Mapper<Object, Object>> getMappers(MappingDirection direction) {
+        return direction == MappingDirection.ASSEMBLE ? assembleMappers : disassembleMappers;
+    }
+}
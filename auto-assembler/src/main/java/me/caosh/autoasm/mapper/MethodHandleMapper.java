@@ -0,0 +1,85 @@
+package me.caosh.autoasm.mapper;
+
+import com.google.common.base.MoreObjects;
+import me.caosh.autoasm.plan.MappingDirection;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Set;
+
+/**
+ * 由{@link MethodHandleMapperFactory}组合生成的{@link Mapper}，所有属性的读写组合为一个{@link MethodHandle}
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+class MethodHandleMapper implements Mapper<Object, Object> {
+    private final MappingDirection direction;
+    private final Class<Object> fromClass;
+    private final Class<Object> toClass;
+    private final Set<String> mappedProperties;
+    /**
+     * 是否组合了converter
+     */
+    private final boolean converterDependent;
+    /**
+     * (Object, Object)void
+     */
+    private final MethodHandle mapHandle;
+
+    MethodHandleMapper(MappingDirection direction, Class<Object> fromClass, Class<Object> toClass,
+                       Set<String> mappedProperties, boolean converterDependent, MethodHandle mapHandle) {
+        this.direction = direction;
+        this.fromClass = fromClass;
+        this.toClass = toClass;
+        this.mappedProperties = mappedProperties;
+        this.converterDependent = converterDependent;
+        this.mapHandle = mapHandle;
+    }
+
+    @Override
+    public MappingDirection getDirection() {
+        return direction;
+    }
+
+    @Override
+    public Class<Object> getFromClass() {
+        return fromClass;
+    }
+
+    @Override
+    public Class<Object> getToClass() {
+        return toClass;
+    }
+
+    @Override
+    public Set<String> getMappedProperties() {
+        return mappedProperties;
+    }
+
+    boolean isConverterDependent() {
+        return converterDependent;
+    }
+
+    @Override
+    public void map(Object from, Object to) {
+        try {
+            mapHandle.invokeExact(from, to);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            // getter/setter的异常已在组合时包装为RuntimeException，不会到达这里
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(MethodHandleMapper.class)
+                .add("direction", direction)
+                .add("fromClass", fromClass.getSimpleName())
+                .add("toClass", toClass.getSimpleName())
+                .add("mappedProperties", mappedProperties)
+                .add("converterDependent", converterDependent)
+                .toString();
+    }
+}
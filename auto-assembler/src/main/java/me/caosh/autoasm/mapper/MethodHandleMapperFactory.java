@@ -0,0 +1,189 @@
+package me.caosh.autoasm.mapper;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.primitives.Primitives;
+import me.caosh.autoasm.converter.ClassifiedConverter;
+import me.caosh.autoasm.converter.ConverterMapping;
+import me.caosh.autoasm.handler.PropertyDescriptorReadHandler;
+import me.caosh.autoasm.plan.MappingPlan;
+import me.caosh.autoasm.plan.PropertyPlan;
+import me.caosh.autoasm.util.PropertyAccessor;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * 运行时根据{@link MappingPlan}生成{@link Mapper}
+ * <p>
+ * 对于无{@link me.caosh.autoasm.FieldMapping}配置的非泛型字段，getter返回类型可直接赋值给字段类型的，
+ * 将getter、判空、setter组合为一个{@link MethodHandle}；getter返回final类型或基本类型的，值的运行时类型与声明类型一致，
+ * 转换时选用的converter可以预先确定，将该converter组合在判空与setter之间。
+ * 其他需要嵌套转换、路径映射或按运行时类型查找converter的属性仍由映射计划处理
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+public class MethodHandleMapperFactory {
+    private static final MethodType MAP_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private static final MethodHandle NON_NULL;
+    private static final MethodHandle DO_NOTHING;
+    private static final MethodHandle READ_FAILED;
+    private static final MethodHandle WRITE_FAILED;
+    /**
+     * {@link ClassifiedConverter#convert(Object, Class)}
+     */
+    private static final MethodHandle CONVERT;
+
+    static {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            NON_NULL = lookup.findStatic(MethodHandleMapperFactory.class, "nonNull",
+                    MethodType.methodType(boolean.class, Object.class));
+            DO_NOTHING = lookup.findStatic(MethodHandleMapperFactory.class, "doNothing", MAP_TYPE);
+            READ_FAILED = lookup.findStatic(MethodHandleMapperFactory.class, "readFailed",
+                    MethodType.methodType(Object.class, Method.class, Throwable.class, Object.class));
+            WRITE_FAILED = lookup.findStatic(MethodHandleMapperFactory.class, "writeFailed",
+                    MethodType.methodType(void.class, Method.class, Throwable.class, Object.class, Object.class));
+            CONVERT = lookup.findVirtual(ClassifiedConverter.class, "convert",
+                    MethodType.methodType(Object.class, Object.class, Class.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * 根据映射计划生成映射器，只处理可直接赋值的属性，没有可直接赋值的属性时返回null
+     *
+     * @param mappingPlan 映射计划
+     * @return 映射器
+     */
+    public Mapper<Object, Object> create(MappingPlan mappingPlan) {
+        return create(mappingPlan, null);
+    }
+
+    /**
+     * 根据映射计划生成映射器，没有可处理的属性时返回null
+     *
+     * @param mappingPlan      映射计划
+     * @param converterMapping 查找属性converter的映射，为空时不组合converter
+     * @return 映射器
+     */
+    public Mapper<Object, Object> create(MappingPlan mappingPlan, ConverterMapping converterMapping) {
+        ImmutableSet.Builder<String> mappedProperties = ImmutableSet.builder();
+        MethodHandle mapHandle = null;
+        boolean converterDependent = false;
+        for (PropertyPlan propertyPlan : mappingPlan.getPropertyPlans()) {
+            MethodHandle copyHandle = createCopyHandle(propertyPlan, null);
+            if (copyHandle == null && converterMapping != null) {
+                copyHandle = createCopyHandle(propertyPlan, converterMapping);
+                converterDependent |= copyHandle != null;
+            }
+            if (copyHandle == null) {
+                continue;
+            }
+            mappedProperties.add(propertyPlan.getPropertyName());
+            // 先执行已组合的属性，再执行当前属性
+            mapHandle = mapHandle == null ? copyHandle : MethodHandles.foldArguments(copyHandle, mapHandle);
+        }
+        if (mapHandle == null) {
+            return null;
+        }
+        return new MethodHandleMapper(mappingPlan.getDirection(), (Class<Object>) mappingPlan.getFromClass(),
+                (Class<Object>) mappingPlan.getToClass(), mappedProperties.build(), converterDependent,
+                mapHandle);
+    }
+
+    /**
+     * 映射器是否组合了converter，注册新的converter后需要重新生成
+     *
+     * @param mapper 映射器，可为空
+     * @return 是否依赖converter
+     */
+    public boolean isConverterDependent(Mapper<?, ?> mapper) {
+        return mapper instanceof MethodHandleMapper && ((MethodHandleMapper) mapper).isConverterDependent();
+    }
+
+    /**
+     * 创建单个属性的复制handle，类型为(Object from, Object to)void，属性不能直接赋值或转换的返回null
+     */
+    private static MethodHandle createCopyHandle(PropertyPlan propertyPlan, ConverterMapping converterMapping) {
+        if (propertyPlan.getFieldMapping() != null
+                || !(propertyPlan.getReadHandler() instanceof PropertyDescriptorReadHandler)
+                || propertyPlan.getWritePropertyAccessor() == null
+                || !(propertyPlan.getWriteFieldGenericType() instanceof Class)) {
+            return null;
+        }
+
+        PropertyAccessor readAccessor = ((PropertyDescriptorReadHandler) propertyPlan.getReadHandler())
+                .getPropertyAccessor();
+        PropertyAccessor writeAccessor = propertyPlan.getWritePropertyAccessor();
+        MethodHandle getter = readAccessor.getGetterHandle();
+        MethodHandle setter = writeAccessor.getSetterHandle();
+        if (getter == null || setter == null) {
+            return null;
+        }
+
+        Class<?> valueType = Primitives.wrap(readAccessor.getReadMethod().getReturnType());
+        Class<?> fieldClass = (Class<?>) propertyPlan.getWriteFieldGenericType();
+        Class<?> fieldType = Primitives.wrap(fieldClass);
+        Class<?> parameterType = Primitives.wrap(writeAccessor.getWriteMethod().getParameterTypes()[0]);
+        if (isOptionalRelated(valueType)) {
+            return null;
+        }
+        MethodHandle convert = null;
+        if (!fieldType.isAssignableFrom(valueType)) {
+            // 与映射计划一致：值不是字段类型实例时，使用按值类型查找的converter
+            ClassifiedConverter<?, ?> converter = converterMapping != null && Modifier.isFinal(valueType.getModifiers())
+                    ? propertyPlan.findConverter(converterMapping, valueType) : null;
+            if (converter == null) {
+                return null;
+            }
+            // (value)Object
+            convert = MethodHandles.insertArguments(CONVERT.bindTo(converter), 1, fieldClass);
+        } else if (!parameterType.isAssignableFrom(valueType)) {
+            return null;
+        }
+
+        getter = MethodHandles.catchException(getter, Throwable.class,
+                READ_FAILED.bindTo(readAccessor.getReadMethod()));
+        setter = MethodHandles.catchException(setter, Throwable.class,
+                WRITE_FAILED.bindTo(writeAccessor.getWriteMethod()));
+        if (convert != null) {
+            // converter抛出的异常不包装，与映射计划一致
+            setter = MethodHandles.filterArguments(setter, 1, convert);
+        }
+        // (to, value)void，值为null时不写入，与映射计划的处理一致
+        MethodHandle write = MethodHandles.guardWithTest(
+                MethodHandles.dropArguments(NON_NULL, 0, Object.class), setter, DO_NOTHING);
+        // (to, from)void
+        MethodHandle copy = MethodHandles.filterArguments(write, 1, getter);
+        return MethodHandles.permuteArguments(copy, MAP_TYPE, 1, 0);
+    }
+
+    /**
+     * 值可能是{@link Optional}的，映射计划需要先取出其中的值，不能直接赋值
+     */
+    private static boolean isOptionalRelated(Class<?> valueType) {
+        return Optional.class.isAssignableFrom(valueType) || valueType.isAssignableFrom(Optional.class);
+    }
+
+    private static boolean nonNull(Object value) {
+        return value != null;
+    }
+
+    private static void doNothing(Object to, Object value) {
+    }
+
+    private static Object readFailed(Method readMethod, Throwable e, Object object) {
+        throw PropertyAccessor.readFailed(readMethod, object, e);
+    }
+
+    private static void writeFailed(Method writeMethod, Throwable e, Object object, Object value) {
+        throw PropertyAccessor.writeFailed(writeMethod, object, value, e);
+    }
+}
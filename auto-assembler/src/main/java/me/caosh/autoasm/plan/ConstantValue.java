@@ -0,0 +1,109 @@
+package me.caosh.autoasm.plan;
+
+import com.google.common.base.MoreObjects;
+import me.caosh.autoasm.FieldMapping;
+
+import java.util.Calendar;
+import java.util.Date;
+
+/**
+ * 由{@link FieldMapping#value()}或{@link FieldMapping#defaultValue()}配置的常量值，在创建映射计划时转换为写入方属性类型
+ * <p>
+ * 转换结果为不可变类型的，所有对象共享同一个转换结果；可变类型的转换结果作为原型保存，避免多个对象共享同一个可变值：
+ * {@link Date}、{@link Calendar}每次写入原型的副本，其他可变类型每次由字面值重新转换
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+public class ConstantValue {
+    private final String literal;
+    private final Object value;
+    private final boolean shared;
+    private final boolean copyable;
+
+    private ConstantValue(String literal, Object value, boolean shared) {
+        this.literal = literal;
+        this.value = value;
+        this.shared = shared;
+        this.copyable = value instanceof Date || value instanceof Calendar;
+    }
+
+    /**
+     * 创建可共享的常量值
+     *
+     * @param literal 配置的字面值
+     * @param value   转换后的值
+     * @return 常量值
+     */
+    public static ConstantValue shared(String literal, Object value) {
+        return new ConstantValue(literal, value, true);
+    }
+
+    /**
+     * 创建不可共享的常量值，每次使用时复制原型或由字面值重新转换
+     *
+     * @param literal   配置的字面值
+     * @param prototype 转换后的值
+     * @return 常量值
+     */
+    public static ConstantValue unshared(String literal, Object prototype) {
+        return new ConstantValue(literal, prototype, false);
+    }
+
+    /**
+     * 配置的字面值
+     *
+     * @return 字面值
+     */
+    public String getLiteral() {
+        return literal;
+    }
+
+    /**
+     * 转换后的值，不可共享的为原型，不能直接写入
+     *
+     * @return 转换后的值
+     */
+    public Object getValue() {
+        return value;
+    }
+
+    /**
+     * 转换后的值是否可以直接写入
+     *
+     * @return 是否可共享
+     */
+    public boolean isShared() {
+        return shared;
+    }
+
+    /**
+     * 不可共享的值是否可以由原型复制，不能复制的需要由字面值重新转换
+     *
+     * @return 是否可复制
+     */
+    public boolean isCopyable() {
+        return copyable;
+    }
+
+    /**
+     * 复制原型，仅在{@link #isCopyable()}为true时有效
+     *
+     * @return 原型的副本
+     */
+    public Object copy() {
+        if (value instanceof Date) {
+            return ((Date) value).clone();
+        }
+        return ((Calendar) value).clone();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(ConstantValue.class).omitNullValues()
+                .add("literal", literal)
+                .add("value", value)
+                .add("shared", shared)
+                .toString();
+    }
+}
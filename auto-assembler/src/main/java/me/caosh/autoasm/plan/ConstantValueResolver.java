@@ -0,0 +1,21 @@
+package me.caosh.autoasm.plan;
+
+/**
+ * 在创建映射计划时将常量字面值转换为写入方属性类型
+ * <p>
+ * 字面值无法转换的应直接抛出异常，使配置错误在创建映射计划时暴露
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+public interface ConstantValueResolver {
+    /**
+     * 转换常量字面值
+     *
+     * @param direction    映射方向
+     * @param propertyPlan 写入方属性已确定的属性映射计划
+     * @param literal      字面值
+     * @return 常量值
+     */
+    ConstantValue resolve(MappingDirection direction, PropertyPlan propertyPlan, String literal);
+}
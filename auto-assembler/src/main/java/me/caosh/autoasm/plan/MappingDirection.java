@@ -0,0 +1,18 @@
+package me.caosh.autoasm.plan;
+
+/**
+ * 映射方向
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/16
+ */
+public enum MappingDirection {
+    /**
+     * 源对象装载为目标对象
+     */
+    ASSEMBLE,
+    /**
+     * 目标对象反装载为源对象
+     */
+    DISASSEMBLE
+}
@@ -0,0 +1,173 @@
+package me.caosh.autoasm.plan;
+
+import com.google.common.base.MoreObjects;
+import me.caosh.autoasm.mapper.Mapper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 一对源类型、目标类型在一个映射方向上的映射计划
+ * 计划中的属性描述、字段配置、读取方式在创建时一次解析完成，转换时直接使用
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/16
+ */
+public class MappingPlan {
+    /**
+     * 不依赖converter的计划的{@link #getConverterVersion()}
+     */
+    public static final long CONVERTER_INDEPENDENT = -1;
+
+    private final Class<?> sourceClass;
+    private final Class<?> targetClass;
+    private final MappingDirection direction;
+    private final PropertyPlan[] propertyPlans;
+    private final PropertyPlan[] allPropertyPlans;
+    private final Mapper<Object, Object> mapper;
+    private final long converterVersion;
+
+    public MappingPlan(Class<?> sourceClass, Class<?> targetClass, MappingDirection direction,
+                       PropertyPlan[] propertyPlans) {
+        this(sourceClass, targetClass, direction, propertyPlans, propertyPlans, null, CONVERTER_INDEPENDENT);
+    }
+
+    private MappingPlan(Class<?> sourceClass, Class<?> targetClass, MappingDirection direction,
+                        PropertyPlan[] propertyPlans, PropertyPlan[] allPropertyPlans,
+                        Mapper<Object, Object> mapper, long converterVersion) {
+        this.sourceClass = sourceClass;
+        this.targetClass = targetClass;
+        this.direction = direction;
+        this.propertyPlans = propertyPlans;
+        this.allPropertyPlans = allPropertyPlans;
+        this.mapper = mapper;
+        this.converterVersion = converterVersion;
+    }
+
+    /**
+     * 使用映射器处理部分属性，返回新的映射计划，映射器已处理的属性从计划中排除
+     *
+     * @param mapper 映射器，为null时返回this
+     * @return 映射计划
+     */
+    public MappingPlan withMapper(Mapper<?, ?> mapper) {
+        if (mapper == null) {
+            return this;
+        }
+        List<PropertyPlan> residualPlans = new ArrayList<>(propertyPlans.length);
+        for (PropertyPlan propertyPlan : propertyPlans) {
+            if (!mapper.getMappedProperties().contains(propertyPlan.getPropertyName())) {
+                residualPlans.add(propertyPlan);
+            }
+        }
+        return new MappingPlan(sourceClass, targetClass, direction,
+                residualPlans.toArray(new PropertyPlan[residualPlans.size()]), allPropertyPlans,
+                (Mapper<Object, Object>) mapper, converterVersion);
+    }
+
+    /**
+     * 返回依赖指定版本converter的新计划
+     *
+     * @param converterVersion 创建常量值、映射器时的converter版本
+     * @return 映射计划
+     */
+    public MappingPlan withConverterVersion(long converterVersion) {
+        return new MappingPlan(sourceClass, targetClass, direction, propertyPlans, allPropertyPlans, mapper,
+                converterVersion);
+    }
+
+    public Class<?> getSourceClass() {
+        return sourceClass;
+    }
+
+    public Class<?> getTargetClass() {
+        return targetClass;
+    }
+
+    public MappingDirection getDirection() {
+        return direction;
+    }
+
+    /**
+     * 读取方类型，assemble时为源类型，disassemble时为目标类型
+     *
+     * @return 读取方类型
+     */
+    public Class<?> getFromClass() {
+        return direction == MappingDirection.ASSEMBLE ? sourceClass : targetClass;
+    }
+
+    /**
+     * 写入方类型，assemble时为目标类型，disassemble时为源类型
+     *
+     * @return 写入方类型
+     */
+    public Class<?> getToClass() {
+        return direction == MappingDirection.ASSEMBLE ? targetClass : sourceClass;
+    }
+
+    /**
+     * 先于属性计划执行的映射器，可为空
+     *
+     * @return 映射器
+     */
+    public Mapper<Object, Object> getMapper() {
+        return mapper;
+    }
+
+    /**
+     * 需要处理的属性计划，已排除class属性和{@link me.caosh.autoasm.SkippedField}配置的字段
+     * 返回内部数组，调用方不应修改
+     *
+     * @return 属性计划
+     */
+    public PropertyPlan[] getPropertyPlans() {
+        return propertyPlans;
+    }
+
+    /**
+     * 全部属性计划，包括映射器已处理的属性，用于不经过映射器逐个处理属性的场景
+     * 返回内部数组，调用方不应修改
+     *
+     * @return 属性计划
+     */
+    public PropertyPlan[] getAllPropertyPlans() {
+        return allPropertyPlans;
+    }
+
+    /**
+     * 计划中的常量值、映射器组合的converter所对应的{@link me.caosh.autoasm.converter.ConverterMapping#getVersion()}，
+     * 不依赖converter的为{@link #CONVERTER_INDEPENDENT}
+     *
+     * @return converter版本
+     */
+    public long getConverterVersion() {
+        return converterVersion;
+    }
+
+    /**
+     * 是否有在创建计划时转换的常量值
+     *
+     * @return 是否有常量值
+     */
+    public boolean hasConstantValues() {
+        for (PropertyPlan propertyPlan : allPropertyPlans) {
+            if (propertyPlan.getConstantValue() != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(MappingPlan.class)
+                .add("sourceClass", sourceClass.getSimpleName())
+                .add("targetClass", targetClass.getSimpleName())
+                .add("direction", direction)
+                .add("mapper", mapper)
+                .add("propertyPlans", Arrays.toString(propertyPlans))
+                .toString();
+    }
+}
@@ -0,0 +1,59 @@
+package me.caosh.autoasm.plan;
+
+import me.caosh.autoasm.util.ClassPairMap;
+
+import java.util.List;
+
+/**
+ * 单个映射方向上的{@link MappingPlan}缓存，以读取方类型、写入方类型两级索引，查找时不创建组合键对象，
+ * 缓存不阻止类型随类加载器卸载，见{@link ClassPairMap}
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/16
+ */
+public class MappingPlanCache {
+    private final ClassPairMap<MappingPlan> plans = new ClassPairMap<>();
+
+    /**
+     * 查找缓存的映射计划，不存在返回null
+     *
+     * @param fromClass 读取方类型
+     * @param toClass   写入方类型
+     * @return 映射计划
+     */
+    public MappingPlan get(Class<?> fromClass, Class<?> toClass) {
+        return plans.get(fromClass, toClass);
+    }
+
+    /**
+     * 缓存映射计划，如已存在则返回已缓存的计划
+     *
+     * @param fromClass 读取方类型
+     * @param toClass   写入方类型
+     * @param plan      映射计划
+     * @return 最终缓存的映射计划
+     */
+    public MappingPlan putIfAbsent(Class<?> fromClass, Class<?> toClass, MappingPlan plan) {
+        return plans.putIfAbsent(fromClass, toClass, plan);
+    }
+
+    /**
+     * 缓存映射计划，替换已缓存的计划
+     *
+     * @param fromClass 读取方类型
+     * @param toClass   写入方类型
+     * @param plan      映射计划
+     */
+    public void put(Class<?> fromClass, Class<?> toClass, MappingPlan plan) {
+        plans.put(fromClass, toClass, plan);
+    }
+
+    /**
+     * 获取全部缓存的映射计划
+     *
+     * @return 映射计划列表
+     */
+    public List<MappingPlan> values() {
+        return plans.values();
+    }
+}
@@ -0,0 +1,270 @@
+package me.caosh.autoasm.plan;
+
+import com.google.common.primitives.Primitives;
+import me.caosh.autoasm.FieldMapping;
+import me.caosh.autoasm.PropertyMeta;
+import me.caosh.autoasm.SkippedField;
+import me.caosh.autoasm.collection.GenericTypeConverter;
+import me.caosh.autoasm.handler.ConstantValueReadHandler;
+import me.caosh.autoasm.handler.FieldMappingDisassembleReadHandler;
+import me.caosh.autoasm.handler.MappedPropertyReadHandler;
+import me.caosh.autoasm.handler.PropertyDescriptorReadHandler;
+import me.caosh.autoasm.handler.ReadHandler;
+import me.caosh.autoasm.handler.ReadHandlerChain;
+import me.caosh.autoasm.util.BeanIntrospector;
+import me.caosh.autoasm.util.ImmutableTypeRegistry;
+import me.caosh.autoasm.util.PropertyPath;
+import me.caosh.autoasm.util.PropertyUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 解析类型信息创建{@link MappingPlan}
+ * <p>
+ * 读取方式与原{@link ReadHandlerChain}逐个尝试的语义一致，只是在创建计划时就排除了必然返回null的handler
+ * <p>
+ * 配置了{@link ConstantValueResolver}的，{@link FieldMapping#value()}和{@link FieldMapping#defaultValue()}
+ * 在创建计划时转换为写入方属性类型，转换失败时创建计划失败
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/16
+ */
+public class MappingPlanFactory {
+    private static final String CLASS = "class";
+    private static final String PATH_SEPARATOR = ".";
+
+    private final ReadHandler constantValueReadHandler = new ConstantValueReadHandler();
+    private final ReadHandler defaultValueReadHandler = new FieldMappingDisassembleReadHandler();
+    /**
+     * 为空时常量值在转换时由对应handler读取
+     */
+    private final ConstantValueResolver constantValueResolver;
+    private final ImmutableTypeRegistry immutableTypeRegistry;
+
+    public MappingPlanFactory() {
+        this(null);
+    }
+
+    public MappingPlanFactory(ConstantValueResolver constantValueResolver) {
+        this(constantValueResolver, new ImmutableTypeRegistry());
+    }
+
+    public MappingPlanFactory(ConstantValueResolver constantValueResolver,
+                              ImmutableTypeRegistry immutableTypeRegistry) {
+        this.constantValueResolver = constantValueResolver;
+        this.immutableTypeRegistry = immutableTypeRegistry;
+    }
+
+    /**
+     * 创建源类型装载为目标类型的映射计划
+     *
+     * @param sourceClass 源类型
+     * @param targetClass 目标类型
+     * @return 映射计划
+     */
+    public MappingPlan createAssemblePlan(Class<?> sourceClass, Class<?> targetClass) {
+        List<PropertyPlan> propertyPlans = new ArrayList<>();
+        for (PropertyDescriptor targetPropertyDescriptor : BeanIntrospector.getPropertyDescriptors(targetClass)) {
+            Method writeMethod = targetPropertyDescriptor.getWriteMethod();
+            if (writeMethod == null) {
+                continue;
+            }
+            String propertyName = targetPropertyDescriptor.getName();
+            if (CLASS.equals(propertyName)) {
+                // 每个对象都有一个class属性，不处理
+                continue;
+            }
+
+            PropertyMeta propertyMeta = getPropertyMeta(propertyName, writeMethod);
+            if (propertyMeta.getSkippedField().isPresent()) {
+                // 配置为跳过的字段不处理
+                continue;
+            }
+
+            FieldMapping fieldMapping = propertyMeta.getFieldMapping().orNull();
+            ReadHandler readHandler = createAssembleReadHandler(sourceClass, propertyName, fieldMapping);
+            if (readHandler == null) {
+                // 源类型中无可读取的值
+                continue;
+            }
+            PropertyPlan propertyPlan = withDirectWrite(new PropertyPlan(propertyName, fieldMapping, readHandler,
+                    null, targetPropertyDescriptor, propertyMeta.getFieldGenericType(), null));
+            if (constantValueResolver != null && readHandler == constantValueReadHandler) {
+                propertyPlan = propertyPlan.withConstantValue(constantValueResolver.resolve(
+                        MappingDirection.ASSEMBLE, propertyPlan, fieldMapping.value()));
+            }
+            propertyPlans.add(propertyPlan);
+        }
+        return new MappingPlan(sourceClass, targetClass, MappingDirection.ASSEMBLE,
+                propertyPlans.toArray(new PropertyPlan[propertyPlans.size()]));
+    }
+
+    /**
+     * 使用当前的converter重新转换计划中的常量值，返回不含映射器的新计划
+     *
+     * @param mappingPlan 映射计划
+     * @return 映射计划
+     */
+    public MappingPlan resolveConstantValues(MappingPlan mappingPlan) {
+        PropertyPlan[] allPropertyPlans = mappingPlan.getAllPropertyPlans();
+        PropertyPlan[] propertyPlans = new PropertyPlan[allPropertyPlans.length];
+        for (int i = 0; i < allPropertyPlans.length; i++) {
+            PropertyPlan propertyPlan = allPropertyPlans[i];
+            ConstantValue constantValue = propertyPlan.getConstantValue();
+            propertyPlans[i] = constantValue == null ? propertyPlan
+                    : propertyPlan.withConstantValue(constantValueResolver.resolve(mappingPlan.getDirection(),
+                    propertyPlan, constantValue.getLiteral()));
+        }
+        return new MappingPlan(mappingPlan.getSourceClass(), mappingPlan.getTargetClass(), mappingPlan.getDirection(),
+                propertyPlans);
+    }
+
+    /**
+     * 创建目标类型反装载为源类型的映射计划
+     *
+     * @param targetClass 目标类型
+     * @param sourceClass 源类型
+     * @return 映射计划
+     */
+    public MappingPlan createDisassemblePlan(Class<?> targetClass, Class<?> sourceClass) {
+        List<PropertyPlan> propertyPlans = new ArrayList<>();
+        for (PropertyDescriptor targetPropertyDescriptor : BeanIntrospector.getPropertyDescriptors(targetClass)) {
+            Method readMethod = targetPropertyDescriptor.getReadMethod();
+            if (readMethod == null) {
+                continue;
+            }
+            String propertyName = targetPropertyDescriptor.getName();
+            if (CLASS.equals(propertyName)) {
+                // 每个对象都有一个class属性，不处理
+                continue;
+            }
+
+            PropertyMeta propertyMeta = getPropertyMeta(propertyName, readMethod);
+            if (propertyMeta.getSkippedField().isPresent()) {
+                // 配置为跳过的字段不处理
+                continue;
+            }
+
+            FieldMapping fieldMapping = propertyMeta.getFieldMapping().orNull();
+            ReadHandler readHandler = new PropertyDescriptorReadHandler(targetPropertyDescriptor);
+            boolean hasDefaultValue = fieldMapping != null && !fieldMapping.defaultValue().isEmpty();
+
+            String propertyPath = getPropertyPath(propertyName, fieldMapping);
+            if (propertyPath.contains(PATH_SEPARATOR)) {
+                // 多级属性路径依赖运行时的中间对象，在转换时查找，默认值也只能在转换时转换
+                if (hasDefaultValue) {
+                    readHandler = new ReadHandlerChain(readHandler, defaultValueReadHandler);
+                }
+                propertyPlans.add(new PropertyPlan(propertyName, fieldMapping, readHandler,
+                        targetPropertyDescriptor.getPropertyType(), null, null,
+                        PropertyPath.compile(sourceClass, propertyPath)));
+                continue;
+            }
+
+            PropertyDescriptor sourcePropertyDescriptor = BeanIntrospector.getPropertyDescriptor(sourceClass, propertyPath);
+            if (sourcePropertyDescriptor == null || sourcePropertyDescriptor.getWriteMethod() == null) {
+                // 源类型中无可写入的属性
+                continue;
+            }
+            if (hasDefaultValue && constantValueResolver == null) {
+                readHandler = new ReadHandlerChain(readHandler, defaultValueReadHandler);
+            }
+            PropertyPlan propertyPlan = withDirectWrite(new PropertyPlan(propertyName, fieldMapping, readHandler,
+                    targetPropertyDescriptor.getPropertyType(), sourcePropertyDescriptor,
+                    PropertyUtils.getFieldGenericType(sourcePropertyDescriptor), null));
+            if (hasDefaultValue && constantValueResolver != null) {
+                propertyPlan = propertyPlan.withConstantValue(constantValueResolver.resolve(
+                        MappingDirection.DISASSEMBLE, propertyPlan, fieldMapping.defaultValue()));
+            }
+            propertyPlans.add(propertyPlan);
+        }
+        return new MappingPlan(sourceClass, targetClass, MappingDirection.DISASSEMBLE,
+                propertyPlans.toArray(new PropertyPlan[propertyPlans.size()]));
+    }
+
+    /**
+     * 写入方字段为不可变类型的，标记可直接写入该类型的值；
+     * 读取方与写入方为可共享的容器声明类型的，标记直接写入读取的容器
+     */
+    private PropertyPlan withDirectWrite(PropertyPlan propertyPlan) {
+        if (!(propertyPlan.getWriteFieldGenericType() instanceof Class)) {
+            ReadHandler readHandler = propertyPlan.getReadHandler();
+            if (readHandler instanceof PropertyDescriptorReadHandler && GenericTypeConverter.isShareable(
+                    ((PropertyDescriptorReadHandler) readHandler).getPropertyAccessor().getFieldGenericType(),
+                    propertyPlan.getWriteFieldGenericType(), immutableTypeRegistry)) {
+                return propertyPlan.withSharedContainer();
+            }
+            return propertyPlan;
+        }
+        Class<?> fieldClass = Primitives.wrap((Class<?>) propertyPlan.getWriteFieldGenericType());
+        if (!immutableTypeRegistry.isImmutable(fieldClass)) {
+            return propertyPlan;
+        }
+        return propertyPlan.withDirectWriteClass(fieldClass);
+    }
+
+    private ReadHandler createAssembleReadHandler(Class<?> sourceClass, String propertyName,
+                                                  FieldMapping fieldMapping) {
+        ReadHandler reflectionReadHandler = createReadHandler(sourceClass, propertyName);
+        if (fieldMapping == null) {
+            return reflectionReadHandler;
+        }
+        if (!fieldMapping.value().isEmpty()) {
+            return constantValueReadHandler;
+        }
+
+        String propertyPath = getPropertyPath(propertyName, fieldMapping);
+        ReadHandler mappedReadHandler;
+        if (propertyPath.contains(PATH_SEPARATOR)) {
+            mappedReadHandler = new MappedPropertyReadHandler(PropertyPath.compile(sourceClass, propertyPath));
+        } else if (propertyPath.equals(propertyName)) {
+            return reflectionReadHandler;
+        } else {
+            mappedReadHandler = createReadHandler(sourceClass, propertyPath);
+        }
+
+        if (mappedReadHandler == null) {
+            return reflectionReadHandler;
+        }
+        if (reflectionReadHandler == null) {
+            return mappedReadHandler;
+        }
+        return new ReadHandlerChain(mappedReadHandler, reflectionReadHandler);
+    }
+
+    private ReadHandler createReadHandler(Class<?> objectClass, String propertyName) {
+        PropertyDescriptor propertyDescriptor = BeanIntrospector.getPropertyDescriptor(objectClass, propertyName);
+        if (propertyDescriptor == null || propertyDescriptor.getReadMethod() == null) {
+            return null;
+        }
+        return new PropertyDescriptorReadHandler(propertyDescriptor);
+    }
+
+    private static String getPropertyPath(String propertyName, FieldMapping fieldMapping) {
+        if (fieldMapping != null) {
+            String mappedProperty = fieldMapping.mappedProperty();
+            if (!mappedProperty.isEmpty()) {
+                return mappedProperty;
+            }
+        }
+        return propertyName;
+    }
+
+    private static PropertyMeta getPropertyMeta(String propertyName, Method accessorMethod) {
+        Field declaredField = BeanIntrospector.getDeclaredField(accessorMethod.getDeclaringClass(), propertyName);
+        if (declaredField == null) {
+            throw new IllegalArgumentException("Get declared field (" + propertyName + ") from property declaring class <"
+                    + accessorMethod.getDeclaringClass().getSimpleName() + "> failed");
+        }
+
+        Type genericType = declaredField.getGenericType();
+        FieldMapping fieldMapping = declaredField.getAnnotation(FieldMapping.class);
+        SkippedField skippedField = declaredField.getAnnotation(SkippedField.class);
+        return new PropertyMeta(genericType, fieldMapping, skippedField);
+    }
+}
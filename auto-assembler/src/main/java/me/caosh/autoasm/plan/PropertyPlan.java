@@ -0,0 +1,291 @@
+package me.caosh.autoasm.plan;
+
+import com.google.common.base.MoreObjects;
+import me.caosh.autoasm.FieldMapping;
+import me.caosh.autoasm.converter.ClassifiedConverter;
+import me.caosh.autoasm.converter.ConverterMapping;
+import me.caosh.autoasm.converter.NotConfiguredClassifiedConverter;
+import me.caosh.autoasm.handler.ReadHandler;
+import me.caosh.autoasm.util.PropertyAccessor;
+import me.caosh.autoasm.util.PropertyPath;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+
+/**
+ * 单个属性的映射计划
+ * <p>
+ * assemble时读取方为源对象，写入方为目标对象；disassemble时读取方为目标对象，写入方为源对象
+ * 写入方属性在创建计划时无法确定（如配置了多级mappedProperty）的，由{@link #getWritePropertyPath()}在转换时查找
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/16
+ */
+public class PropertyPlan {
+    private final String propertyName;
+    private final FieldMapping fieldMapping;
+    private final ReadHandler readHandler;
+    private final Class<?> readPropertyType;
+    private final PropertyDescriptor writePropertyDescriptor;
+    private final PropertyAccessor writePropertyAccessor;
+    private final Type writeFieldGenericType;
+    private final PropertyPath writePropertyPath;
+    private final ConstantValue constantValue;
+    private final Class<?> directWriteClass;
+    private final boolean sharedContainer;
+    /**
+     * 从{@link FieldMapping}中预先取出的converter配置，转换时不再调用注解方法
+     */
+    private final Class<? extends ClassifiedConverter> customConverterClass;
+    private final boolean customConverterStateful;
+
+    /**
+     * 值类型缓存的上限，超出的值类型每次从{@link ConverterMapping}中查找
+     */
+    private static final int POLYMORPHIC_LIMIT = 4;
+
+    /**
+     * 已查找的converter，按查找顺序缓存最多{@link #POLYMORPHIC_LIMIT}种值类型，均属于同一converter版本
+     */
+    private volatile CachedConverter[] cachedConverters;
+
+    public PropertyPlan(String propertyName, FieldMapping fieldMapping, ReadHandler readHandler,
+                        Class<?> readPropertyType, PropertyDescriptor writePropertyDescriptor,
+                        Type writeFieldGenericType, PropertyPath writePropertyPath) {
+        this(propertyName, fieldMapping, readHandler, readPropertyType, writePropertyDescriptor,
+                writeFieldGenericType, writePropertyPath, null, null, false);
+    }
+
+    private PropertyPlan(String propertyName, FieldMapping fieldMapping, ReadHandler readHandler,
+                         Class<?> readPropertyType, PropertyDescriptor writePropertyDescriptor,
+                         Type writeFieldGenericType, PropertyPath writePropertyPath, ConstantValue constantValue,
+                         Class<?> directWriteClass, boolean sharedContainer) {
+        this.propertyName = propertyName;
+        this.fieldMapping = fieldMapping;
+        this.readHandler = readHandler;
+        this.readPropertyType = readPropertyType;
+        this.writePropertyDescriptor = writePropertyDescriptor;
+        this.writePropertyAccessor = writePropertyDescriptor != null ? PropertyAccessor.of(writePropertyDescriptor) : null;
+        this.writeFieldGenericType = writeFieldGenericType;
+        this.writePropertyPath = writePropertyPath;
+        this.constantValue = constantValue;
+        this.directWriteClass = directWriteClass;
+        this.sharedContainer = sharedContainer;
+        if (fieldMapping != null && !NotConfiguredClassifiedConverter.class.equals(fieldMapping.customConverterClass())) {
+            this.customConverterClass = fieldMapping.customConverterClass();
+            this.customConverterStateful = fieldMapping.customConverterStateful();
+        } else {
+            this.customConverterClass = null;
+            this.customConverterStateful = false;
+        }
+    }
+
+    /**
+     * 返回附带已转换常量值的新计划
+     *
+     * @param constantValue 常量值
+     * @return 新的属性映射计划
+     */
+    public PropertyPlan withConstantValue(ConstantValue constantValue) {
+        return new PropertyPlan(propertyName, fieldMapping, readHandler, readPropertyType, writePropertyDescriptor,
+                writeFieldGenericType, writePropertyPath, constantValue, directWriteClass, sharedContainer);
+    }
+
+    /**
+     * 返回可直接写入指定类型值的新计划
+     *
+     * @param directWriteClass 不可变的写入方字段类型，基本类型为其包装类型
+     * @return 新的属性映射计划
+     */
+    public PropertyPlan withDirectWriteClass(Class<?> directWriteClass) {
+        return new PropertyPlan(propertyName, fieldMapping, readHandler, readPropertyType, writePropertyDescriptor,
+                writeFieldGenericType, writePropertyPath, constantValue, directWriteClass, sharedContainer);
+    }
+
+    /**
+     * 返回读取的容器值可直接写入的新计划
+     *
+     * @return 新的属性映射计划
+     */
+    public PropertyPlan withSharedContainer() {
+        return new PropertyPlan(propertyName, fieldMapping, readHandler, readPropertyType, writePropertyDescriptor,
+                writeFieldGenericType, writePropertyPath, constantValue, directWriteClass, true);
+    }
+
+    /**
+     * 目标类上的属性名，两个方向上字段配置均来自目标类
+     *
+     * @return 属性名
+     */
+    public String getPropertyName() {
+        return propertyName;
+    }
+
+    /**
+     * 字段映射配置，可为空
+     *
+     * @return 字段映射配置
+     */
+    public FieldMapping getFieldMapping() {
+        return fieldMapping;
+    }
+
+    /**
+     * 从读取方对象读取字段值的handler，已根据字段配置选定
+     *
+     * @return 读取handler
+     */
+    public ReadHandler getReadHandler() {
+        return readHandler;
+    }
+
+    /**
+     * 读取方属性类型
+     *
+     * @return 读取方属性类型
+     */
+    public Class<?> getReadPropertyType() {
+        return readPropertyType;
+    }
+
+    /**
+     * 写入方属性描述，需要在转换时查找的为null
+     *
+     * @return 写入方属性描述
+     */
+    public PropertyDescriptor getWritePropertyDescriptor() {
+        return writePropertyDescriptor;
+    }
+
+    /**
+     * 写入方属性读写器，需要在转换时查找的为null
+     *
+     * @return 写入方属性读写器
+     */
+    public PropertyAccessor getWritePropertyAccessor() {
+        return writePropertyAccessor;
+    }
+
+    /**
+     * 写入方字段Type，需要在转换时查找的为null
+     *
+     * @return 写入方字段Type
+     */
+    public Type getWriteFieldGenericType() {
+        return writeFieldGenericType;
+    }
+
+    /**
+     * 转换时查找写入方属性的已编译路径，写入方属性已确定的为null
+     *
+     * @return 写入方属性路径
+     */
+    public PropertyPath getWritePropertyPath() {
+        return writePropertyPath;
+    }
+
+    /**
+     * 已转换的常量值，assemble时为{@link FieldMapping#value()}，直接写入不再读取；
+     * disassemble时为{@link FieldMapping#defaultValue()}，读取的值为null时写入。未配置或未转换的为null
+     *
+     * @return 常量值
+     */
+    public ConstantValue getConstantValue() {
+        return constantValue;
+    }
+
+    /**
+     * 写入方字段为不可变类型时的字段类型（基本类型为包装类型），值为该类型实例时直接写入，无需查找converter；
+     * 其他字段为null
+     *
+     * @return 可直接写入的类型
+     */
+    public Class<?> getDirectWriteClass() {
+        return directWriteClass;
+    }
+
+    /**
+     * 读取方与写入方的容器声明类型在创建计划时判定可共享的为true，读取的值直接写入，不再逐个检查元素
+     *
+     * @return 是否直接写入读取的容器值
+     * @see me.caosh.autoasm.collection.GenericTypeConverter#isShareable
+     */
+    public boolean isSharedContainer() {
+        return sharedContainer;
+    }
+
+    /**
+     * {@link FieldMapping#customConverterClass()}配置的converter类，未配置的为null
+     *
+     * @return converter类
+     */
+    public Class<? extends ClassifiedConverter> getCustomConverterClass() {
+        return customConverterClass;
+    }
+
+    public boolean isCustomConverterStateful() {
+        return customConverterStateful;
+    }
+
+    /**
+     * 查找将valueClass转换为写入方属性类型的converter
+     * <p>
+     * 查找结果按值类型缓存，子类、代理类混合的多态字段最多缓存{@link #POLYMORPHIC_LIMIT}种值类型，
+     * 缓存命中及超出上限时均不创建对象；注册新的converter后缓存失效
+     *
+     * @param converterMapping converter映射
+     * @param valueClass       字段值类型
+     * @return converter，不存在返回null
+     */
+    public ClassifiedConverter<?, ?> findConverter(ConverterMapping converterMapping, Class<?> valueClass) {
+        long version = converterMapping.getVersion();
+        CachedConverter[] cached = cachedConverters;
+        if (cached != null && cached[0].version == version) {
+            for (CachedConverter cachedConverter : cached) {
+                if (cachedConverter.valueClass == valueClass) {
+                    return cachedConverter.converter;
+                }
+            }
+        } else {
+            cached = null;
+        }
+
+        ClassifiedConverter<?, ?> converter = converterMapping.find(valueClass,
+                writePropertyDescriptor.getPropertyType());
+        if (cached == null) {
+            cachedConverters = new CachedConverter[]{new CachedConverter(valueClass, version, converter)};
+        } else if (cached.length < POLYMORPHIC_LIMIT) {
+            CachedConverter[] expanded = Arrays.copyOf(cached, cached.length + 1);
+            expanded[cached.length] = new CachedConverter(valueClass, version, converter);
+            cachedConverters = expanded;
+        }
+        return converter;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(PropertyPlan.class).omitNullValues()
+                .add("propertyName", propertyName)
+                .add("fieldMapping", fieldMapping)
+                .add("readHandler", readHandler)
+                .add("writePropertyDescriptor", writePropertyDescriptor)
+                .add("writeFieldGenericType", writeFieldGenericType)
+                .add("writePropertyPath", writePropertyPath)
+                .add("constantValue", constantValue)
+                .add("sharedContainer", sharedContainer)
+                .toString();
+    }
+
+    private static class CachedConverter {
+        private final Class<?> valueClass;
+        private final long version;
+        private final ClassifiedConverter<?, ?> converter;
+
+        CachedConverter(Class<?> valueClass, long version, ClassifiedConverter<?, ?> converter) {
+            this.valueClass = valueClass;
+            this.version = version;
+            this.converter = converter;
+        }
+    }
+}
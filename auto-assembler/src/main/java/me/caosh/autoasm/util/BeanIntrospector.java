@@ -0,0 +1,281 @@
+package me.caosh.autoasm.util;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.beans.IntrospectionException;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 轻量的属性内省，替代{@link java.beans.Introspector}
+ * <p>
+ * 每个类只遍历一次public方法，按JavaBeans命名识别属性：
+ * 1. getter为无参、非void的getXxx，及返回boolean的isXxx（同时存在时优先isXxx）
+ * 2. setter为单参数的setXxx，返回值不限，支持返回builder自身的链式setter
+ * 3. getter与setter类型不一致时setter不属于该属性，只有setter时取参数类型最具体的setter
+ * 4. 非public类（如匿名类）中覆盖的方法，与Introspector一致使用public父类或接口中的同一方法，保证可以访问
+ * <p>
+ * 结果按类缓存，属性按名称排序，不经过Introspector的全局锁及BeanInfo查找
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+public class BeanIntrospector {
+    private static final String GET_PREFIX = "get";
+    private static final String IS_PREFIX = "is";
+    private static final String SET_PREFIX = "set";
+
+    /**
+     * 正在预设的属性描述，只在{@link #preset(Class, PropertyDescriptor[])}期间存在
+     */
+    private static final ConcurrentMap<Class<?>, PropertyDescriptor[]> PRESETS = new ConcurrentHashMap<>();
+
+    private static final ClassValue<BeanProperties> BEAN_PROPERTIES = new ClassValue<BeanProperties>() {
+        @Override
+        protected BeanProperties computeValue(Class<?> type) {
+            PropertyDescriptor[] presetPropertyDescriptors = PRESETS.get(type);
+            if (presetPropertyDescriptors != null) {
+                return new BeanProperties(presetPropertyDescriptors);
+            }
+            return introspect(type);
+        }
+    };
+
+    private static final ClassValue<Map<String, Field>> DECLARED_FIELDS = new ClassValue<Map<String, Field>>() {
+        @Override
+        protected Map<String, Field> computeValue(Class<?> type) {
+            Map<String, Field> declaredFields = new HashMap<>();
+            for (Field field : type.getDeclaredFields()) {
+                declaredFields.put(field.getName(), field);
+            }
+            return ImmutableMap.copyOf(declaredFields);
+        }
+    };
+
+    /**
+     * 获取类型的全部属性
+     * 返回缓存的数组，调用方不应修改
+     *
+     * @param type 类型
+     * @return 属性描述，按名称排序
+     */
+    public static PropertyDescriptor[] getPropertyDescriptors(Class<?> type) {
+        return BEAN_PROPERTIES.get(type).propertyDescriptors;
+    }
+
+    /**
+     * 获取类型的指定属性
+     *
+     * @param type         类型
+     * @param propertyName 属性名
+     * @return 属性描述，不存在时返回null
+     */
+    public static PropertyDescriptor getPropertyDescriptor(Class<?> type, String propertyName) {
+        return BEAN_PROPERTIES.get(type).propertyDescriptorMap.get(propertyName);
+    }
+
+    /**
+     * 获取类中声明的字段，与{@link Class#getDeclaredField(String)}相同但不存在时不抛出异常
+     *
+     * @param declaringClass 声明字段的类
+     * @param fieldName      字段名
+     * @return 字段，不存在时返回null
+     */
+    public static Field getDeclaredField(Class<?> declaringClass, String fieldName) {
+        return DECLARED_FIELDS.get(declaringClass).get(fieldName);
+    }
+
+    /**
+     * 使用预先解析的属性描述作为类型的内省结果，如从快照中恢复的结果，类型已内省过的不生效
+     *
+     * @param type                类型
+     * @param propertyDescriptors 属性描述，须与内省结果一致
+     */
+    public static void preset(Class<?> type, PropertyDescriptor[] propertyDescriptors) {
+        PRESETS.put(type, propertyDescriptors);
+        try {
+            BEAN_PROPERTIES.get(type);
+        } finally {
+            PRESETS.remove(type);
+        }
+    }
+
+    private static BeanProperties introspect(Class<?> type) {
+        Map<String, Method> getters = new HashMap<>();
+        Map<String, Method> isGetters = new HashMap<>();
+        Map<String, List<Method>> setters = new HashMap<>();
+        for (Method method : type.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers()) || method.isBridge()) {
+                continue;
+            }
+            String methodName = method.getName();
+            Class<?>[] parameterTypes = method.getParameterTypes();
+            if (parameterTypes.length > 1) {
+                continue;
+            }
+            method = getPublicMethod(method, parameterTypes);
+            if (parameterTypes.length == 0) {
+                if (methodName.length() > GET_PREFIX.length() && methodName.startsWith(GET_PREFIX)
+                        && method.getReturnType() != void.class) {
+                    putGetter(getters, decapitalize(methodName.substring(GET_PREFIX.length())), method);
+                } else if (methodName.length() > IS_PREFIX.length() && methodName.startsWith(IS_PREFIX)
+                        && method.getReturnType() == boolean.class) {
+                    putGetter(isGetters, decapitalize(methodName.substring(IS_PREFIX.length())), method);
+                }
+            } else if (methodName.length() > SET_PREFIX.length() && methodName.startsWith(SET_PREFIX)) {
+                String propertyName = decapitalize(methodName.substring(SET_PREFIX.length()));
+                List<Method> propertySetters = setters.get(propertyName);
+                if (propertySetters == null) {
+                    propertySetters = new ArrayList<>(1);
+                    setters.put(propertyName, propertySetters);
+                }
+                propertySetters.add(method);
+            }
+        }
+
+        Map<String, PropertyDescriptor> propertyDescriptors = new TreeMap<>();
+        for (Map.Entry<String, Method> entry : getters.entrySet()) {
+            String propertyName = entry.getKey();
+            if (!isGetters.containsKey(propertyName)) {
+                propertyDescriptors.put(propertyName, createPropertyDescriptor(propertyName, entry.getValue(),
+                        setters.get(propertyName)));
+            }
+        }
+        for (Map.Entry<String, Method> entry : isGetters.entrySet()) {
+            String propertyName = entry.getKey();
+            propertyDescriptors.put(propertyName, createPropertyDescriptor(propertyName, entry.getValue(),
+                    setters.get(propertyName)));
+        }
+        for (Map.Entry<String, List<Method>> entry : setters.entrySet()) {
+            String propertyName = entry.getKey();
+            if (!propertyDescriptors.containsKey(propertyName)) {
+                propertyDescriptors.put(propertyName, createPropertyDescriptor(propertyName, null, entry.getValue()));
+            }
+        }
+        return new BeanProperties(propertyDescriptors.values()
+                .toArray(new PropertyDescriptor[propertyDescriptors.size()]));
+    }
+
+    private static Method getPublicMethod(Method method, Class<?>[] parameterTypes) {
+        if (Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+            return method;
+        }
+        for (Class<?> type = method.getDeclaringClass().getSuperclass(); type != null; type = type.getSuperclass()) {
+            if (Modifier.isPublic(type.getModifiers())) {
+                Method publicMethod = findMethod(type, method.getName(), parameterTypes);
+                if (publicMethod != null) {
+                    return publicMethod;
+                }
+            }
+        }
+        for (Class<?> interfaceType : method.getDeclaringClass().getInterfaces()) {
+            if (Modifier.isPublic(interfaceType.getModifiers())) {
+                Method publicMethod = findMethod(interfaceType, method.getName(), parameterTypes);
+                if (publicMethod != null) {
+                    return publicMethod;
+                }
+            }
+        }
+        return method;
+    }
+
+    private static Method findMethod(Class<?> type, String methodName, Class<?>[] parameterTypes) {
+        try {
+            return type.getMethod(methodName, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 同名getter（如接口与实现类的协变返回类型）取返回类型最具体的
+     */
+    private static void putGetter(Map<String, Method> getters, String propertyName, Method getter) {
+        Method existing = getters.get(propertyName);
+        if (existing == null || existing.getReturnType().isAssignableFrom(getter.getReturnType())) {
+            getters.put(propertyName, getter);
+        }
+    }
+
+    private static PropertyDescriptor createPropertyDescriptor(String propertyName, Method getter,
+                                                               List<Method> setters) {
+        Method setter = null;
+        if (setters != null) {
+            setter = getter != null ? findSetter(setters, getter.getReturnType()) : findMostSpecificSetter(setters);
+        }
+        try {
+            return new PropertyDescriptor(propertyName, getter, setter);
+        } catch (IntrospectionException e) {
+            throw new IllegalArgumentException("Create property descriptor (" + propertyName + ") failed", e);
+        }
+    }
+
+    private static Method findSetter(List<Method> setters, Class<?> propertyType) {
+        Method assignableSetter = null;
+        for (Method setter : setters) {
+            Class<?> parameterType = setter.getParameterTypes()[0];
+            if (parameterType == propertyType) {
+                return setter;
+            }
+            if (assignableSetter == null && parameterType.isAssignableFrom(propertyType)) {
+                assignableSetter = setter;
+            }
+        }
+        return assignableSetter;
+    }
+
+    private static Method findMostSpecificSetter(List<Method> setters) {
+        Method mostSpecific = setters.get(0);
+        for (int i = 1; i < setters.size(); i++) {
+            Method setter = setters.get(i);
+            Class<?> parameterType = setter.getParameterTypes()[0];
+            Class<?> mostSpecificType = mostSpecific.getParameterTypes()[0];
+            if (mostSpecificType.isAssignableFrom(parameterType)
+                    && (mostSpecificType != parameterType || setter.getReturnType() == void.class)) {
+                mostSpecific = setter;
+            }
+        }
+        return mostSpecific;
+    }
+
+    /**
+     * 与{@link java.beans.Introspector#decapitalize(String)}相同，前两个字符均为大写时保持不变
+     */
+    static String decapitalize(String name) {
+        if (name.length() > 1 && Character.isUpperCase(name.charAt(1)) && Character.isUpperCase(name.charAt(0))) {
+            return name;
+        }
+        char[] chars = name.toCharArray();
+        chars[0] = Character.toLowerCase(chars[0]);
+        return new String(chars);
+    }
+
+    private static class BeanProperties {
+        private final PropertyDescriptor[] propertyDescriptors;
+        private final Map<String, PropertyDescriptor> propertyDescriptorMap;
+
+        BeanProperties(PropertyDescriptor[] propertyDescriptors) {
+            Map<String, PropertyDescriptor> propertyDescriptorMap = new TreeMap<>();
+            for (PropertyDescriptor propertyDescriptor : propertyDescriptors) {
+                propertyDescriptorMap.put(propertyDescriptor.getName(), propertyDescriptor);
+            }
+            this.propertyDescriptors = propertyDescriptorMap.values()
+                    .toArray(new PropertyDescriptor[propertyDescriptorMap.size()]);
+            this.propertyDescriptorMap = ImmutableMap.copyOf(propertyDescriptorMap);
+        }
+    }
+
+    private BeanIntrospector() {
+    }
+
+    private static final BeanIntrospector CODE_COVERAGE = new BeanIntrospector();
+}
@@ -0,0 +1,86 @@
+package me.caosh.autoasm.util;
+
+import com.google.common.collect.MapMaker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 以两个Class为组合键的并发Map，按第一个、第二个Class两级索引，查找时不创建组合键对象
+ * <p>
+ * 第一级由{@link ClassValue}保存在第一个Class上，第二级以弱引用的Class为键，Map本身不阻止类卸载；
+ * 值引用了两个Class的（如映射计划），随第一个Class所在的类加载器一起回收
+ *
+ * @param <V> 值类型
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/16
+ */
+public class ClassPairMap<V> {
+    private final ClassValue<ConcurrentMap<Class<?>, V>> map = new ClassValue<ConcurrentMap<Class<?>, V>>() {
+        @Override
+        protected ConcurrentMap<Class<?>, V> computeValue(Class<?> type) {
+            return new MapMaker().weakKeys().makeMap();
+        }
+    };
+    /**
+     * 放入过值的第一个Class，用于遍历全部值
+     */
+    private final Set<Class<?>> firstClasses = Collections.newSetFromMap(
+            new MapMaker().weakKeys().<Class<?>, Boolean>makeMap());
+
+    /**
+     * 查找值，不存在返回null
+     *
+     * @param firstClass  第一个Class
+     * @param secondClass 第二个Class
+     * @return 值
+     */
+    public V get(Class<?> firstClass, Class<?> secondClass) {
+        return map.get(firstClass).get(secondClass);
+    }
+
+    /**
+     * 放入值，如已存在则保留并返回已存在的值
+     *
+     * @param firstClass  第一个Class
+     * @param secondClass 第二个Class
+     * @param value       值，非空
+     * @return 最终保存的值
+     */
+    public V putIfAbsent(Class<?> firstClass, Class<?> secondClass, V value) {
+        V existing = getSecondLevel(firstClass).putIfAbsent(secondClass, value);
+        return existing != null ? existing : value;
+    }
+
+    /**
+     * 放入值，覆盖已存在的值
+     *
+     * @param firstClass  第一个Class
+     * @param secondClass 第二个Class
+     * @param value       值，非空
+     */
+    public void put(Class<?> firstClass, Class<?> secondClass, V value) {
+        getSecondLevel(firstClass).put(secondClass, value);
+    }
+
+    /**
+     * 获取全部值
+     *
+     * @return 值列表
+     */
+    public List<V> values() {
+        List<V> values = new ArrayList<>();
+        for (Class<?> firstClass : firstClasses) {
+            values.addAll(map.get(firstClass).values());
+        }
+        return values;
+    }
+
+    private ConcurrentMap<Class<?>, V> getSecondLevel(Class<?> firstClass) {
+        firstClasses.add(firstClass);
+        return map.get(firstClass);
+    }
+}
@@ -2,13 +2,32 @@ package me.caosh.autoasm.util;
 
 import me.caosh.autoasm.ConvertibleEnum;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * 根据标量值查找枚举的工具类
+ * <p>
+ * 每个枚举类在首次查找时建立标量值到枚举的索引，由{@link ClassValue}缓存及安全发布，
+ * 标量值全部为{@link Integer}或{@link Long}的使用基本类型索引，查找时不计算hashCode
  *
  * @author shuhaoc@qq.com
  * @date 2018/1/14
  */
 public class ConvertibleEnumUtils {
+    /**
+     * 取值范围不超过枚举数量的该倍数时使用数组直接索引，否则二分查找
+     */
+    private static final int DENSE_FACTOR = 4;
+
+    private static final ClassValue<EnumLookup> LOOKUPS = new ClassValue<EnumLookup>() {
+        @Override
+        protected EnumLookup computeValue(Class<?> type) {
+            return createLookup(type);
+        }
+    };
+
     /**
      * 根据标量值查找枚举，查找失败抛出异常
      *
@@ -20,17 +39,151 @@ public class ConvertibleEnumUtils {
      */
     public static <ValueType, EnumType extends ConvertibleEnum<ValueType>>
     EnumType valueOf(ValueType value, Class<EnumType> enumClass) {
-        ConvertibleEnum[] convertibleEnums = enumClass.getEnumConstants();
-        for (ConvertibleEnum convertibleEnum : convertibleEnums) {
-            if (convertibleEnum.getValue().equals(value)) {
-                return (EnumType) convertibleEnum;
+        Object convertibleEnum = value == null ? null : LOOKUPS.get(enumClass).find(value);
+        if (convertibleEnum == null) {
+            throw new IllegalArgumentException("value=" + value + ", enumClass=" + enumClass);
+        }
+        return (EnumType) convertibleEnum;
+    }
+
+    private static EnumLookup createLookup(Class<?> enumClass) {
+        Object[] enumConstants = enumClass.getEnumConstants();
+        if (enumConstants == null) {
+            enumConstants = new Object[0];
+        }
+
+        // 标量值相同的枚举，与顺序查找一致，取声明在前的
+        Map<Object, Object> enumsByValue = new HashMap<>();
+        Class<?> valueClass = null;
+        boolean sameValueClass = true;
+        for (Object enumConstant : enumConstants) {
+            Object value = ((ConvertibleEnum<?>) enumConstant).getValue();
+            if (value == null || enumsByValue.containsKey(value)) {
+                continue;
             }
+            enumsByValue.put(value, enumConstant);
+            if (valueClass == null) {
+                valueClass = value.getClass();
+            } else if (valueClass != value.getClass()) {
+                sameValueClass = false;
+            }
+        }
+
+        if (sameValueClass && (valueClass == Integer.class || valueClass == Long.class)) {
+            return createPrimitiveLookup(valueClass, enumsByValue);
         }
-        throw new IllegalArgumentException("value=" + value + ", enumClass=" + enumClass);
+        return new HashLookup(enumsByValue);
+    }
+
+    private static EnumLookup createPrimitiveLookup(Class<?> valueClass, Map<Object, Object> enumsByValue) {
+        long[] keys = new long[enumsByValue.size()];
+        int i = 0;
+        for (Object value : enumsByValue.keySet()) {
+            keys[i++] = ((Number) value).longValue();
+        }
+        Arrays.sort(keys);
+
+        Object[] enums = new Object[keys.length];
+        for (i = 0; i < keys.length; i++) {
+            enums[i] = enumsByValue.get(box(valueClass, keys[i]));
+        }
+
+        long min = keys[0];
+        long range = keys[keys.length - 1] - min;
+        if (range >= 0 && range < (long) keys.length * DENSE_FACTOR) {
+            Object[] table = new Object[(int) range + 1];
+            for (i = 0; i < keys.length; i++) {
+                table[(int) (keys[i] - min)] = enums[i];
+            }
+            return new DenseLookup(valueClass, min, table);
+        }
+        return new SortedLookup(valueClass, keys, enums);
+    }
+
+    private static Object box(Class<?> valueClass, long key) {
+        return valueClass == Integer.class ? (Object) Integer.valueOf((int) key) : (Object) Long.valueOf(key);
     }
 
     private ConvertibleEnumUtils() {
     }
 
     private static final ConvertibleEnumUtils CODE_COVERAGE = new ConvertibleEnumUtils();
+
+    /**
+     * 单个枚举类的标量值索引
+     */
+    private interface EnumLookup {
+        /**
+         * 查找标量值对应的枚举
+         *
+         * @param value 标量值，非空
+         * @return 枚举，不存在返回null
+         */
+        Object find(Object value);
+    }
+
+    private static class HashLookup implements EnumLookup {
+        private final Map<Object, Object> enumsByValue;
+
+        HashLookup(Map<Object, Object> enumsByValue) {
+            this.enumsByValue = enumsByValue;
+        }
+
+        @Override
+        public Object find(Object value) {
+            return enumsByValue.get(value);
+        }
+    }
+
+    /**
+     * 取值连续或接近连续的整数标量值，以偏移量直接索引
+     */
+    private static class DenseLookup implements EnumLookup {
+        private final Class<?> valueClass;
+        private final long min;
+        private final Object[] table;
+
+        DenseLookup(Class<?> valueClass, long min, Object[] table) {
+            this.valueClass = valueClass;
+            this.min = min;
+            this.table = table;
+        }
+
+        @Override
+        public Object find(Object value) {
+            // 与equals一致，Integer不能匹配Long
+            if (value.getClass() != valueClass) {
+                return null;
+            }
+            long index = ((Number) value).longValue() - min;
+            if (index < 0 || index >= table.length) {
+                return null;
+            }
+            return table[(int) index];
+        }
+    }
+
+    /**
+     * 取值稀疏的整数标量值，在有序数组中二分查找
+     */
+    private static class SortedLookup implements EnumLookup {
+        private final Class<?> valueClass;
+        private final long[] keys;
+        private final Object[] enums;
+
+        SortedLookup(Class<?> valueClass, long[] keys, Object[] enums) {
+            this.valueClass = valueClass;
+            this.keys = keys;
+            this.enums = enums;
+        }
+
+        @Override
+        public Object find(Object value) {
+            if (value.getClass() != valueClass) {
+                return null;
+            }
+            int index = Arrays.binarySearch(keys, ((Number) value).longValue());
+            return index >= 0 ? enums[index] : null;
+        }
+    }
 }
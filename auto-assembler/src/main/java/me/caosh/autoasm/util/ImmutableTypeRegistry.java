@@ -0,0 +1,39 @@
+package me.caosh.autoasm.util;
+
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * 不可变类型注册表，在{@link ImmutableTypes}内置类型的基础上增加使用方注册的值类型
+ * <p>
+ * 不可变类型的属性值可以直接共享：值为字段类型的实例时直接写入，不查找converter；字面常量转换后在计划中缓存
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+public class ImmutableTypeRegistry {
+    private final Set<Class<?>> registeredTypes;
+
+    public ImmutableTypeRegistry() {
+        this(Collections.<Class<?>>emptySet());
+    }
+
+    /**
+     * @param registeredTypes 额外的不可变类型，按类型精确匹配，不包括子类
+     */
+    public ImmutableTypeRegistry(Set<Class<?>> registeredTypes) {
+        this.registeredTypes = ImmutableSet.copyOf(registeredTypes);
+    }
+
+    /**
+     * 判断类型是否不可变
+     *
+     * @param type 类型
+     * @return 是否不可变
+     */
+    public boolean isImmutable(Class<?> type) {
+        return ImmutableTypes.isImmutable(type) || registeredTypes.contains(type);
+    }
+}
@@ -0,0 +1,56 @@
+package me.caosh.autoasm.util;
+
+import com.google.common.collect.ImmutableSet;
+import org.joda.time.DateTime;
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+import org.joda.time.LocalDate;
+import org.joda.time.LocalDateTime;
+import org.joda.time.LocalTime;
+import org.joda.time.MonthDay;
+import org.joda.time.Period;
+import org.joda.time.YearMonth;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.util.Currency;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 不可变类型判断，不可变类型的值可以在多个对象间共享
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+public class ImmutableTypes {
+    private static final String JAVA_TIME_PACKAGE = "java.time.";
+
+    private static final Set<Class<?>> IMMUTABLE_TYPES = ImmutableSet.<Class<?>>builder()
+            .add(String.class, Boolean.class, Character.class, Byte.class, Short.class, Integer.class,
+                    Long.class, Float.class, Double.class, BigInteger.class, BigDecimal.class)
+            .add(Class.class, UUID.class, Locale.class, Currency.class, URI.class)
+            .add(LocalDate.class, LocalDateTime.class, LocalTime.class, YearMonth.class, MonthDay.class,
+                    DateTime.class, Instant.class, Duration.class, Period.class)
+            .build();
+
+    /**
+     * 判断类型是否不可变，基本类型、枚举、常用值类型及java.time包中的类型视为不可变
+     *
+     * @param type 类型
+     * @return 是否不可变
+     */
+    public static boolean isImmutable(Class<?> type) {
+        return type.isPrimitive()
+                || Enum.class.isAssignableFrom(type)
+                || IMMUTABLE_TYPES.contains(type)
+                || type.getName().startsWith(JAVA_TIME_PACKAGE);
+    }
+
+    private ImmutableTypes() {
+    }
+
+    private static final ImmutableTypes CODE_COVERAGE = new ImmutableTypes();
+}
@@ -0,0 +1,220 @@
+package me.caosh.autoasm.util;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.MapMaker;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 属性读写器，由{@link PropertyDescriptor}的getter/setter创建{@link MethodHandle}，创建后复用
+ * <p>
+ * 相比{@link Method#invoke(Object, Object...)}，不需要每次调用时进行访问检查和参数数组包装，JIT可以内联getter/setter
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/16
+ */
+public class PropertyAccessor {
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final Object[] NO_ARGUMENTS = new Object[0];
+
+    /**
+     * 以{@link PropertyDescriptor}实例为键（identity比较）的缓存，弱引用不阻止类卸载
+     */
+    private static final ConcurrentMap<PropertyDescriptor, PropertyAccessor> ACCESSORS = new MapMaker()
+            .weakKeys().makeMap();
+
+    private final String propertyName;
+    private final Class<?> propertyType;
+    private final Type fieldGenericType;
+    private final Method readMethod;
+    private final Method writeMethod;
+    private final MethodHandle getter;
+    private final MethodHandle setter;
+
+    private PropertyAccessor(PropertyDescriptor propertyDescriptor) {
+        this.propertyName = propertyDescriptor.getName();
+        this.propertyType = propertyDescriptor.getPropertyType();
+        this.fieldGenericType = PropertyUtils.getFieldGenericType(propertyDescriptor);
+        this.readMethod = propertyDescriptor.getReadMethod();
+        this.writeMethod = propertyDescriptor.getWriteMethod();
+        this.getter = readMethod != null ? unreflect(readMethod, GETTER_TYPE) : null;
+        this.setter = writeMethod != null ? unreflect(writeMethod, SETTER_TYPE) : null;
+    }
+
+    /**
+     * 获取属性读写器，同一个{@link PropertyDescriptor}只创建一次
+     *
+     * @param propertyDescriptor 属性描述
+     * @return 属性读写器
+     */
+    public static PropertyAccessor of(PropertyDescriptor propertyDescriptor) {
+        PropertyAccessor propertyAccessor = ACCESSORS.get(propertyDescriptor);
+        if (propertyAccessor == null) {
+            propertyAccessor = new PropertyAccessor(propertyDescriptor);
+            PropertyAccessor existing = ACCESSORS.putIfAbsent(propertyDescriptor, propertyAccessor);
+            if (existing != null) {
+                propertyAccessor = existing;
+            }
+        }
+        return propertyAccessor;
+    }
+
+    /**
+     * 无法通过{@link MethodHandles.Lookup}访问的方法（如非public类中定义的public方法）返回null，调用时使用反射
+     */
+    private static MethodHandle unreflect(Method method, MethodType methodType) {
+        try {
+            return MethodHandles.publicLookup().unreflect(method).asType(methodType);
+        } catch (IllegalAccessException e) {
+            try {
+                method.setAccessible(true);
+                return MethodHandles.lookup().unreflect(method).asType(methodType);
+            } catch (IllegalAccessException | SecurityException e1) {
+                return null;
+            }
+        }
+    }
+
+    public String getPropertyName() {
+        return propertyName;
+    }
+
+    public Class<?> getPropertyType() {
+        return propertyType;
+    }
+
+    /**
+     * 属性对应字段的Type，字段不存在时为属性类型
+     *
+     * @return 字段Type
+     */
+    public Type getFieldGenericType() {
+        return fieldGenericType;
+    }
+
+    public Method getReadMethod() {
+        return readMethod;
+    }
+
+    public Method getWriteMethod() {
+        return writeMethod;
+    }
+
+    public boolean isReadable() {
+        return readMethod != null;
+    }
+
+    public boolean isWritable() {
+        return writeMethod != null;
+    }
+
+    /**
+     * 读取属性值，不可读的属性返回null
+     *
+     * @param object 对象
+     * @return 属性值
+     */
+    public Object get(Object object) {
+        if (readMethod == null) {
+            return null;
+        }
+
+        try {
+            if (getter != null) {
+                return (Object) getter.invokeExact(object);
+            }
+            return readMethod.invoke(object, NO_ARGUMENTS);
+        } catch (Throwable e) {
+            // 与反射调用一致，getter抛出的异常统一包装
+            throw readFailed(readMethod, object, e);
+        }
+    }
+
+    /**
+     * 写入属性值，不可写的属性返回false
+     *
+     * @param object 对象
+     * @param value  属性值
+     * @return 是否写入
+     */
+    public boolean set(Object object, Object value) {
+        if (writeMethod == null) {
+            return false;
+        }
+
+        try {
+            if (setter != null) {
+                setter.invokeExact(object, value);
+            } else {
+                writeMethod.invoke(object, value);
+            }
+            return true;
+        } catch (Throwable e) {
+            // 与反射调用一致，setter抛出的异常统一包装
+            throw writeFailed(writeMethod, object, value, e);
+        }
+    }
+
+    /**
+     * getter的{@link MethodHandle}，类型为(Object)Object，无法访问或不可读的返回null
+     *
+     * @return getter
+     */
+    public MethodHandle getGetterHandle() {
+        return getter;
+    }
+
+    /**
+     * setter的{@link MethodHandle}，类型为(Object, Object)void，无法访问或不可写的返回null
+     *
+     * @return setter
+     */
+    public MethodHandle getSetterHandle() {
+        return setter;
+    }
+
+    /**
+     * 创建getter调用失败的异常
+     *
+     * @param readMethod getter
+     * @param object     对象
+     * @param cause      getter抛出的异常
+     * @return 包装后的异常
+     */
+    public static RuntimeException readFailed(Method readMethod, Object object, Throwable cause) {
+        return new RuntimeException("Invoke read method failed: "
+                + object.getClass().getSimpleName() + "#" + readMethod.getName(), cause);
+    }
+
+    /**
+     * 创建setter调用失败的异常
+     *
+     * @param writeMethod setter
+     * @param object      对象
+     * @param value       属性值
+     * @param cause       setter抛出的异常
+     * @return 包装后的异常
+     */
+    public static RuntimeException writeFailed(Method writeMethod, Object object, Object value, Throwable cause) {
+        return new RuntimeException("Invoke write method failed: <"
+                + (value == null ? null : value.getClass().getSimpleName()) + "> "
+                + object.getClass().getSimpleName() + "#"
+                + writeMethod.getName() + "(" + value + ")", cause);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(PropertyAccessor.class).omitNullValues()
+                .add("propertyName", propertyName)
+                .add("readMethod", readMethod)
+                .add("writeMethod", writeMethod)
+                .toString();
+    }
+}
@@ -0,0 +1,183 @@
+package me.caosh.autoasm.util;
+
+import com.google.common.base.MoreObjects;
+
+import java.beans.PropertyDescriptor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 编译后的多级属性路径，如"customer.address.city"
+ * <p>
+ * 路径只解析一次，由映射计划各自持有，不全局缓存。每一级属性按运行时类型缓存查找到的{@link PropertyAccessor}，
+ * 最多缓存{@link #POLYMORPHIC_LIMIT}种类型，填满后的其他类型每次查找但不再创建对象；
+ * 类型已缓存时读写不再查找属性描述，也不创建对象。路径中的任一级为null时返回null
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+public class PropertyPath {
+    private static final char SEPARATOR = '.';
+
+    /**
+     * 每一级属性缓存的运行时类型数量上限
+     */
+    private static final int POLYMORPHIC_LIMIT = 4;
+
+    private final String path;
+    private final Segment[] segments;
+
+    private PropertyPath(String path, Segment[] segments) {
+        this.path = path;
+        this.segments = segments;
+    }
+
+    /**
+     * 编译属性路径
+     *
+     * @param path 以"."分隔的属性路径
+     * @return 属性路径
+     */
+    public static PropertyPath compile(String path) {
+        return compile(null, path);
+    }
+
+    /**
+     * 编译属性路径，第一级属性预先按起始对象的声明类型查找
+     *
+     * @param rootClass 起始对象的类型，可为空
+     * @param path      以"."分隔的属性路径
+     * @return 属性路径
+     */
+    public static PropertyPath compile(Class<?> rootClass, String path) {
+        List<Segment> segments = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i <= path.length(); i++) {
+            if (i == path.length() || path.charAt(i) == SEPARATOR) {
+                if (i > start) {
+                    // 与原Scanner的分隔一致，忽略空的一级
+                    segments.add(new Segment(path.substring(start, i)));
+                }
+                start = i + 1;
+            }
+        }
+        if (rootClass != null && !segments.isEmpty()) {
+            segments.get(0).resolve(rootClass);
+        }
+        return new PropertyPath(path, segments.toArray(new Segment[segments.size()]));
+    }
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * 读取路径上的属性值
+     *
+     * @param object 起始对象
+     * @return 属性值，路径中任一级为null或属性不存在时返回null
+     */
+    public Object read(Object object) {
+        if (segments.length == 0) {
+            return null;
+        }
+        Object current = object;
+        for (Segment segment : segments) {
+            if (current == null) {
+                return null;
+            }
+            PropertyAccessor propertyAccessor = segment.resolve(current.getClass());
+            if (propertyAccessor == null) {
+                return null;
+            }
+            current = propertyAccessor.get(current);
+        }
+        return current;
+    }
+
+    /**
+     * 读取路径上最后一级属性的所属对象，用于写入
+     *
+     * @param object 起始对象
+     * @return 所属对象，路径中任一级为null或属性不存在时返回null
+     */
+    public Object readOwner(Object object) {
+        Object current = object;
+        for (int i = 0; i < segments.length - 1; i++) {
+            if (current == null) {
+                return null;
+            }
+            PropertyAccessor propertyAccessor = segments[i].resolve(current.getClass());
+            if (propertyAccessor == null) {
+                return null;
+            }
+            current = propertyAccessor.get(current);
+        }
+        return current;
+    }
+
+    /**
+     * 查找最后一级属性的读写器
+     *
+     * @param ownerClass {@link #readOwner(Object)}返回对象的类型
+     * @return 属性读写器，属性不存在时返回null
+     */
+    public PropertyAccessor resolveLast(Class<?> ownerClass) {
+        if (segments.length == 0) {
+            return null;
+        }
+        return segments[segments.length - 1].resolve(ownerClass);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(PropertyPath.class)
+                .add("path", path)
+                .toString();
+    }
+
+    /**
+     * 路径中的一级属性，多态内联缓存：依次保存最多{@link #POLYMORPHIC_LIMIT}种运行时类型的读写器，
+     * 缓存项只在首次遇到某类型时创建，填满后的其他类型每次查找，不再创建对象
+     */
+    private static class Segment {
+        private final String propertyName;
+        private final AtomicReferenceArray<ResolvedAccessor> resolved =
+                new AtomicReferenceArray<>(POLYMORPHIC_LIMIT);
+
+        Segment(String propertyName) {
+            this.propertyName = propertyName;
+        }
+
+        PropertyAccessor resolve(Class<?> ownerClass) {
+            for (int i = 0; i < POLYMORPHIC_LIMIT; i++) {
+                ResolvedAccessor current = resolved.get(i);
+                if (current == null) {
+                    PropertyAccessor propertyAccessor = lookup(ownerClass);
+                    // 并发填充同一位置时保留先写入的，同一类型可能重复缓存，不影响结果
+                    resolved.compareAndSet(i, null, new ResolvedAccessor(ownerClass, propertyAccessor));
+                    return propertyAccessor;
+                }
+                if (current.ownerClass == ownerClass) {
+                    return current.propertyAccessor;
+                }
+            }
+            return lookup(ownerClass);
+        }
+
+        private PropertyAccessor lookup(Class<?> ownerClass) {
+            PropertyDescriptor propertyDescriptor = BeanIntrospector.getPropertyDescriptor(ownerClass, propertyName);
+            return propertyDescriptor != null ? PropertyAccessor.of(propertyDescriptor) : null;
+        }
+    }
+
+    private static class ResolvedAccessor {
+        private final Class<?> ownerClass;
+        private final PropertyAccessor propertyAccessor;
+
+        ResolvedAccessor(Class<?> ownerClass, PropertyAccessor propertyAccessor) {
+            this.ownerClass = ownerClass;
+            this.propertyAccessor = propertyAccessor;
+        }
+    }
+}
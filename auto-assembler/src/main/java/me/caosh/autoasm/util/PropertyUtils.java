@@ -1,10 +1,11 @@
 package me.caosh.autoasm.util;
 
-import org.springframework.beans.BeanUtils;
+import com.google.common.base.MoreObjects;
 
 import java.beans.PropertyDescriptor;
+import java.lang.reflect.Field;
 import java.lang.reflect.Method;
-import java.util.Scanner;
+import java.lang.reflect.Type;
 
 /**
  * @author caosh/shuhaoc@qq.com
@@ -13,7 +14,7 @@ import java.util.Scanner;
 public class PropertyUtils {
     public static Object getPropertySoftly(Object object, String propertyName) {
         Class<?> objectClass = object.getClass();
-        PropertyDescriptor propertyDescriptor = BeanUtils.getPropertyDescriptor(objectClass, propertyName);
+        PropertyDescriptor propertyDescriptor = BeanIntrospector.getPropertyDescriptor(objectClass, propertyName);
         if (propertyDescriptor == null) {
             return null;
         }
@@ -22,37 +23,16 @@ public class PropertyUtils {
     }
 
     public static Object getProperty(PropertyDescriptor propertyDescriptor, Object object) {
-        Method readMethod = propertyDescriptor.getReadMethod();
-        if (readMethod == null) {
-            return null;
-        }
-
-        try {
-            return readMethod.invoke(object);
-        } catch (ReflectiveOperationException e) {
-            throw new RuntimeException("Invoke read method failed: "
-                    + object.getClass().getSimpleName() + "#" + readMethod.getName(), e);
-        }
+        return PropertyAccessor.of(propertyDescriptor).get(object);
     }
 
     public static Object getPathPropertySoftly(Object object, String propertyPath) {
-        Object nextProperty = null;
-        Scanner scanner = new Scanner(propertyPath);
-        scanner.useDelimiter("\\.");
-        while (scanner.hasNext()) {
-            String partialPropertyName = scanner.next();
-            Object currentProperty = nextProperty == null ? object : nextProperty;
-            nextProperty = getPropertySoftly(currentProperty, partialPropertyName);
-            if (nextProperty == null) {
-                return null;
-            }
-        }
-        return nextProperty;
+        return PropertyPath.compile(propertyPath).read(object);
     }
 
     public static boolean setPropertySoftly(Object object, String propertyName, Object value) {
         Class<?> objectClass = object.getClass();
-        PropertyDescriptor propertyDescriptor = BeanUtils.getPropertyDescriptor(objectClass, propertyName);
+        PropertyDescriptor propertyDescriptor = BeanIntrospector.getPropertyDescriptor(objectClass, propertyName);
         if (propertyDescriptor == null) {
             return false;
         }
@@ -61,19 +41,24 @@ public class PropertyUtils {
     }
 
     public static boolean setProperty(PropertyDescriptor propertyDescriptor, Object object, Object value) {
-        Method writeMethod = propertyDescriptor.getWriteMethod();
-        if (writeMethod == null) {
-            return false;
-        }
+        return PropertyAccessor.of(propertyDescriptor).set(object, value);
+    }
 
-        try {
-            writeMethod.invoke(object, value);
-            return true;
-        } catch (Exception e) {
-            throw new RuntimeException("Invoke write method failed: <" + value.getClass().getSimpleName() + "> "
-                    + object.getClass().getSimpleName() + "#"
-                    + writeMethod.getName() + "(" + value + ")", e);
+    /**
+     * 获取属性对应字段的Type，字段不存在时返回属性类型
+     *
+     * @param propertyDescriptor 属性描述
+     * @return 字段Type
+     */
+    public static Type getFieldGenericType(PropertyDescriptor propertyDescriptor) {
+        String propertyName = propertyDescriptor.getName();
+        Method accessorMethod = MoreObjects.firstNonNull(propertyDescriptor.getWriteMethod(),
+                propertyDescriptor.getReadMethod());
+        Field declaredField = BeanIntrospector.getDeclaredField(accessorMethod.getDeclaringClass(), propertyName);
+        if (declaredField == null) {
+            return propertyDescriptor.getPropertyType();
         }
+        return declaredField.getGenericType();
     }
 
     private PropertyUtils() {
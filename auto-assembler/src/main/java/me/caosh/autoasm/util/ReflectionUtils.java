@@ -1,19 +1,27 @@
 package me.caosh.autoasm.util;
 
+import me.caosh.autoasm.instantiator.ConstructorInstantiatorFactory;
+import me.caosh.autoasm.instantiator.InstantiatorCache;
+
 /**
  * @author caosh/shuhaoc@qq.com
  * @date 2018/1/13
  */
 public class ReflectionUtils {
+    private static final InstantiatorCache INSTANTIATORS = new InstantiatorCache(new ConstructorInstantiatorFactory());
+
     public static <T> T newInstance(Class<T> objectClass) {
-        T object;
-        try {
-            object = objectClass.newInstance();
-        } catch (ReflectiveOperationException e) {
-            throw new IllegalArgumentException("Create object <" + objectClass.getSimpleName()
-                    + "> using non-argument-constructor failed", e);
-        }
-        return object;
+        return INSTANTIATORS.newInstance(objectClass);
+    }
+
+    /**
+     * 获取加载使用方类型的ClassLoader，优先使用线程上下文ClassLoader
+     *
+     * @return ClassLoader
+     */
+    public static ClassLoader getDefaultClassLoader() {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        return classLoader != null ? classLoader : ReflectionUtils.class.getClassLoader();
     }
 
     private ReflectionUtils() {
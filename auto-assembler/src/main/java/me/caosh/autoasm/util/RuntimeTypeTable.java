@@ -0,0 +1,113 @@
+package me.caosh.autoasm.util;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableMap;
+import me.caosh.autoasm.MappedClass;
+import me.caosh.autoasm.RuntimeType;
+
+/**
+ * {@link RuntimeType}根类型的分派表，按值的运行时类型查找转换使用的子类型
+ * <p>
+ * 子类型的{@link MappedClass}配置在创建分派表时读取并校验，每个运行时类型的查找结果（包括未找到）只计算一次
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+public class RuntimeTypeTable {
+    private static final ClassValue<RuntimeTypeTable> TABLES = new ClassValue<RuntimeTypeTable>() {
+        @Override
+        protected RuntimeTypeTable computeValue(Class<?> type) {
+            RuntimeType runtimeType = type.getAnnotation(RuntimeType.class);
+            return runtimeType != null ? new RuntimeTypeTable(runtimeType) : null;
+        }
+    };
+
+    private final Class<?>[] subClasses;
+    private final Class<?>[] mappedClasses;
+
+    /**
+     * assemble时，按源对象运行时类型查找目标子类型
+     */
+    private final ClassValue<Optional<Class<?>>> assembleClasses = new ClassValue<Optional<Class<?>>>() {
+        @Override
+        protected Optional<Class<?>> computeValue(Class<?> valueClass) {
+            for (int i = 0; i < subClasses.length; i++) {
+                if (mappedClasses[i].isAssignableFrom(valueClass)) {
+                    return Optional.<Class<?>>of(subClasses[i]);
+                }
+            }
+            return Optional.absent();
+        }
+    };
+
+    /**
+     * disassemble时，按目标对象运行时类型查找源类型
+     */
+    private final ClassValue<Optional<Class<?>>> disassembleClasses = new ClassValue<Optional<Class<?>>>() {
+        @Override
+        protected Optional<Class<?>> computeValue(Class<?> valueClass) {
+            for (int i = 0; i < subClasses.length; i++) {
+                if (subClasses[i].isAssignableFrom(valueClass)) {
+                    return Optional.<Class<?>>of(mappedClasses[i]);
+                }
+            }
+            return Optional.absent();
+        }
+    };
+
+    private RuntimeTypeTable(RuntimeType runtimeType) {
+        this.subClasses = runtimeType.value().clone();
+        this.mappedClasses = new Class<?>[subClasses.length];
+        for (int i = 0; i < subClasses.length; i++) {
+            MappedClass mappedClass = subClasses[i].getAnnotation(MappedClass.class);
+            if (mappedClass == null) {
+                throw new IllegalArgumentException("Runtime type subclass should be annotated with @MappedClass");
+            }
+            mappedClasses[i] = mappedClass.value();
+        }
+    }
+
+    /**
+     * 获取类型的分派表，同一个类型只创建一次
+     *
+     * @param type 类型
+     * @return 分派表，类型未配置{@link RuntimeType}返回null
+     * @throws IllegalArgumentException 子类型未配置{@link MappedClass}
+     */
+    public static RuntimeTypeTable of(Class<?> type) {
+        return TABLES.get(type);
+    }
+
+    /**
+     * 查找assemble使用的子类型，按{@link RuntimeType#value()}顺序取第一个映射类型匹配的
+     *
+     * @param valueClass 源对象运行时类型
+     * @return 子类型，不存在返回null
+     */
+    public Class<?> getAssembleClass(Class<?> valueClass) {
+        return assembleClasses.get(valueClass).orNull();
+    }
+
+    /**
+     * 查找disassemble使用的源类型，按{@link RuntimeType#value()}顺序取第一个匹配的子类型的映射类型
+     *
+     * @param valueClass 目标对象运行时类型
+     * @return 源类型，不存在返回null
+     */
+    public Class<?> getDisassembleClass(Class<?> valueClass) {
+        return disassembleClasses.get(valueClass).orNull();
+    }
+
+    /**
+     * 获取全部子类型及其映射类型，用于预加载
+     *
+     * @return 子类型到映射类型的Map，按{@link RuntimeType#value()}顺序
+     */
+    public ImmutableMap<Class<?>, Class<?>> getMappedClasses() {
+        ImmutableMap.Builder<Class<?>, Class<?>> builder = ImmutableMap.builder();
+        for (int i = 0; i < subClasses.length; i++) {
+            builder.put(subClasses[i], mappedClasses[i]);
+        }
+        return builder.build();
+    }
+}
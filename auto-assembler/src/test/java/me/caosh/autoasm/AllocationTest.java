@@ -0,0 +1,175 @@
+package me.caosh.autoasm;
+
+import com.google.common.base.Converter;
+import me.caosh.autoasm.util.PropertyPath;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigDecimal;
+
+import static org.testng.Assert.*;
+
+/**
+ * 稳定状态下转换循环的内存分配，只允许分配目标对象本身
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+public class AllocationTest {
+    private static final int WARM_UP_ITERATIONS = 50000;
+    private static final int MEASURE_ITERATIONS = 20000;
+    /**
+     * 目标对象（对象头及两个引用字段）约24字节，留出余量
+     */
+    private static final long MAX_BYTES_PER_CONVERSION = 64;
+
+    private final AutoAssembler autoAssembler = new AutoAssembler();
+
+    @Test
+    public void testAssembleAllocation() throws Exception {
+        final TestSecurityInfo securityInfo = new TestSecurityInfo("600000", "A");
+        long bytes = measure(new Runnable() {
+            @Override
+            public void run() {
+                autoAssembler.assemble(securityInfo, TestSecurityInfoDTO.class);
+            }
+        });
+        assertTrue(bytes <= MAX_BYTES_PER_CONVERSION, "Allocated bytes per assemble: " + bytes);
+    }
+
+    @Test
+    public void testDisassembleAllocation() throws Exception {
+        final TestSecurityInfoDTO securityInfoDTO = new TestSecurityInfoDTO("600000", "A");
+        long bytes = measure(new Runnable() {
+            @Override
+            public void run() {
+                autoAssembler.disassemble(securityInfoDTO, TestSecurityInfo.class);
+            }
+        });
+        assertTrue(bytes <= MAX_BYTES_PER_CONVERSION, "Allocated bytes per disassemble: " + bytes);
+    }
+
+    @Test
+    public void testPolymorphicFieldAllocation() throws Exception {
+        AutoAssembler autoAssembler = new AutoAssembler();
+        autoAssembler.registerConverter(Number.class, String.class, new Converter<Number, String>() {
+            @Override
+            protected String doForward(Number number) {
+                return "constant";
+            }
+
+            @Override
+            protected Number doBackward(String s) {
+                throw new UnsupportedOperationException();
+            }
+        });
+        final TestAmount[] monomorphic = {new TestAmount(1), new TestAmount(2)};
+        final TestAmount[] polymorphic = {new TestAmount(1), new TestAmount(2L), new TestAmount(3.0),
+                new TestAmount(new BigDecimal("4"))};
+        long monomorphicBytes = measure(newAssembleRunnable(autoAssembler, monomorphic));
+        long polymorphicBytes = measure(newAssembleRunnable(autoAssembler, polymorphic));
+        // 字段值类型交替变化时，查找converter的缓存不分配内存
+        assertTrue(polymorphicBytes <= monomorphicBytes,
+                "Allocated bytes per assemble: " + polymorphicBytes + ", monomorphic: " + monomorphicBytes);
+    }
+
+    @Test
+    public void testPropertyPathAllocation() throws Exception {
+        final PropertyPath propertyPath = PropertyPath.compile(PropertyPathTest.TestOrder.class,
+                "customer.address.city");
+        final PropertyPathTest.TestOrder[] orders = new PropertyPathTest.TestOrder[2];
+        for (int i = 0; i < orders.length; i++) {
+            PropertyPathTest.TestCustomer customer = new PropertyPathTest.TestCustomer();
+            customer.setAddress(i == 0 ? new PropertyPathTest.TestAddress("Shanghai")
+                    : new PropertyPathTest.TestSubAddress("Beijing"));
+            orders[i] = new PropertyPathTest.TestOrder();
+            orders[i].setCustomer(customer);
+        }
+        long bytes = measure(new Runnable() {
+            private int index;
+
+            @Override
+            public void run() {
+                propertyPath.read(orders[index]);
+                index = (index + 1) % orders.length;
+            }
+        });
+        // 中间对象的运行时类型交替变化时，读取路径不分配内存
+        assertEquals(bytes, 0L, "Allocated bytes per read: " + bytes);
+    }
+
+    private static Runnable newAssembleRunnable(final AutoAssembler autoAssembler, final TestAmount[] amounts) {
+        return new Runnable() {
+            private int index;
+
+            @Override
+            public void run() {
+                autoAssembler.assemble(amounts[index], TestAmountDTO.class);
+                index = (index + 1) % amounts.length;
+            }
+        };
+    }
+
+    private static long measure(Runnable conversion) {
+        com.sun.management.ThreadMXBean threadMXBean = getAllocationThreadMXBean();
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+            conversion.run();
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+            conversion.run();
+        }
+        long after = threadMXBean.getThreadAllocatedBytes(threadId);
+        return (after - before) / MEASURE_ITERATIONS;
+    }
+
+    private static com.sun.management.ThreadMXBean getAllocationThreadMXBean() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (!(threadMXBean instanceof com.sun.management.ThreadMXBean)) {
+            throw new SkipException("Thread allocated memory is not supported by this JVM");
+        }
+        com.sun.management.ThreadMXBean allocationMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+        if (!allocationMXBean.isThreadAllocatedMemorySupported()) {
+            throw new SkipException("Thread allocated memory is not supported by this JVM");
+        }
+        if (!allocationMXBean.isThreadAllocatedMemoryEnabled()) {
+            allocationMXBean.setThreadAllocatedMemoryEnabled(true);
+        }
+        return allocationMXBean;
+    }
+
+    public static class TestAmount {
+        private Number amount;
+
+        public TestAmount() {
+        }
+
+        TestAmount(Number amount) {
+            this.amount = amount;
+        }
+
+        public Number getAmount() {
+            return amount;
+        }
+
+        public void setAmount(Number amount) {
+            this.amount = amount;
+        }
+    }
+
+    public static class TestAmountDTO {
+        private String amount;
+
+        public String getAmount() {
+            return amount;
+        }
+
+        public void setAmount(String amount) {
+            this.amount = amount;
+        }
+    }
+}
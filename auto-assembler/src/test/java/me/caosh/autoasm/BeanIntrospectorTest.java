@@ -0,0 +1,114 @@
+package me.caosh.autoasm;
+
+import me.caosh.autoasm.util.BeanIntrospector;
+import org.testng.annotations.Test;
+
+import java.beans.PropertyDescriptor;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.testng.Assert.*;
+
+/**
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+public class BeanIntrospectorTest {
+    @Test
+    public void testPropertyDescriptors() throws Exception {
+        List<String> propertyNames = new ArrayList<>();
+        for (PropertyDescriptor propertyDescriptor : BeanIntrospector.getPropertyDescriptors(TestBean.class)) {
+            propertyNames.add(propertyDescriptor.getName());
+        }
+        // 按名称排序，包括Object.getClass()
+        assertEquals(propertyNames.toString(), "[URL, active, class, count, fluent, name, writeOnly]");
+
+        PropertyDescriptor name = BeanIntrospector.getPropertyDescriptor(TestBean.class, "name");
+        assertEquals(name.getPropertyType(), String.class);
+        assertNotNull(name.getReadMethod());
+        assertNotNull(name.getWriteMethod());
+
+        assertEquals(BeanIntrospector.getPropertyDescriptor(TestBean.class, "active").getReadMethod().getName(),
+                "isActive");
+        // 链式setter
+        assertEquals(BeanIntrospector.getPropertyDescriptor(TestBean.class, "fluent").getWriteMethod().getReturnType(),
+                TestBean.class);
+        // 类型与getter不一致的setter不属于该属性
+        assertNull(BeanIntrospector.getPropertyDescriptor(TestBean.class, "count").getWriteMethod());
+        assertNull(BeanIntrospector.getPropertyDescriptor(TestBean.class, "writeOnly").getReadMethod());
+        assertNotNull(BeanIntrospector.getPropertyDescriptor(TestBean.class, "URL"));
+        assertNull(BeanIntrospector.getPropertyDescriptor(TestBean.class, "missing"));
+        assertSame(BeanIntrospector.getPropertyDescriptors(TestBean.class),
+                BeanIntrospector.getPropertyDescriptors(TestBean.class));
+    }
+
+    @Test
+    public void testNonPublicSubclass() throws Exception {
+        TestBean anonymousBean = new TestBean() {
+            @Override
+            public void setName(String name) {
+                super.setName(name);
+            }
+        };
+        PropertyDescriptor name = BeanIntrospector.getPropertyDescriptor(anonymousBean.getClass(), "name");
+        assertEquals(name.getWriteMethod().getDeclaringClass(), TestBean.class);
+    }
+
+    @Test
+    public void testDeclaredField() throws Exception {
+        assertEquals(BeanIntrospector.getDeclaredField(TestBean.class, "name").getType(), String.class);
+        assertNull(BeanIntrospector.getDeclaredField(TestBean.class, "missing"));
+    }
+
+    public static class TestBean {
+        private String name;
+        private boolean active;
+        private String fluent;
+        private int count;
+        private String url;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+
+        public void setActive(boolean active) {
+            this.active = active;
+        }
+
+        public String getFluent() {
+            return fluent;
+        }
+
+        public TestBean setFluent(String fluent) {
+            this.fluent = fluent;
+            return this;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(String count) {
+            this.count = Integer.parseInt(count);
+        }
+
+        public void setWriteOnly(String writeOnly) {
+        }
+
+        public String getURL() {
+            return url;
+        }
+
+        public static TestBean getInstance() {
+            return new TestBean();
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package me.caosh.autoasm;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import me.caosh.autoasm.collection.GenericTypeConverter;
+import me.caosh.autoasm.util.ImmutableTypeRegistry;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import static org.testng.Assert.*;
+
+/**
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+public class CollectionConvertTest {
+    private final AutoAssembler autoAssembler = new AutoAssembler();
+
+    @Test
+    public void testCollections() throws Exception {
+        TestSecurityInfo first = new TestSecurityInfo("600000", "A");
+        TestSecurityInfo second = new TestSecurityInfo("600001", "B");
+        TestSecurityInfoDTO firstDTO = new TestSecurityInfoDTO("600000", "A");
+        TestSecurityInfoDTO secondDTO = new TestSecurityInfoDTO("600001", "B");
+
+        TestCollectionObject collectionObject = new TestCollectionObject();
+        collectionObject.setSecuritySet(Sets.newLinkedHashSet(Arrays.asList(first, second)));
+        collectionObject.setCodes(Arrays.asList("b", "a", "b"));
+        collectionObject.setSecurityMap(ImmutableMap.of("A", first));
+        collectionObject.setGroupedSecurities(ImmutableMap.of("G", Arrays.asList(first, second)));
+        collectionObject.setNestedSecurities(Arrays.asList(Collections.singletonList(first),
+                Collections.singletonList(second)));
+        collectionObject.setSecurityArray(Arrays.asList(first, second));
+        collectionObject.setNumbers(new Integer[]{1, 2, 3});
+        collectionObject.setRatings(ImmutableMap.of(1, "5"));
+        collectionObject.setNames(Lists.newArrayList("x", "y"));
+
+        TestCollectionDTO collectionDTO = autoAssembler.assemble(collectionObject, TestCollectionDTO.class);
+        assertEquals(collectionDTO.getSecuritySet(), Sets.newHashSet(firstDTO, secondDTO));
+        assertEquals(collectionDTO.getCodes(), new TreeSet<>(Arrays.asList("a", "b")));
+        assertEquals(collectionDTO.getSecurityMap(), ImmutableMap.of("A", firstDTO));
+        assertEquals(collectionDTO.getGroupedSecurities(), ImmutableMap.of("G", Arrays.asList(firstDTO, secondDTO)));
+        assertEquals(collectionDTO.getNestedSecurities(), Arrays.asList(Collections.singletonList(firstDTO),
+                Collections.singletonList(secondDTO)));
+        assertEquals(collectionDTO.getSecurityArray(), new TestSecurityInfoDTO[]{firstDTO, secondDTO});
+        assertEquals(collectionDTO.getNumbers(), new int[]{1, 2, 3});
+        assertEquals(collectionDTO.getRatings(), ImmutableMap.of("1", 5));
+        // 元素已可赋值的直接共享
+        assertSame(collectionDTO.getNames(), collectionObject.getNames());
+
+        TestCollectionObject disassembled = autoAssembler.disassemble(collectionDTO, TestCollectionObject.class);
+        assertEquals(disassembled.getSecuritySet(), collectionObject.getSecuritySet());
+        assertEquals(disassembled.getCodes(), Arrays.asList("a", "b"));
+        assertEquals(disassembled.getSecurityMap(), collectionObject.getSecurityMap());
+        assertEquals(disassembled.getGroupedSecurities(), collectionObject.getGroupedSecurities());
+        assertEquals(disassembled.getNestedSecurities(), collectionObject.getNestedSecurities());
+        assertEquals(disassembled.getSecurityArray(), collectionObject.getSecurityArray());
+        assertEquals(disassembled.getNumbers(), collectionObject.getNumbers());
+        assertEquals(disassembled.getRatings(), collectionObject.getRatings());
+    }
+
+    @Test
+    public void testMapOrderKept() throws Exception {
+        Map<String, TestSecurityInfo> securityMap = new LinkedHashMap<>();
+        for (int i = 0; i < 20; i++) {
+            securityMap.put(String.valueOf(20 - i), new TestSecurityInfo(String.valueOf(i), null));
+        }
+        TestCollectionObject collectionObject = new TestCollectionObject();
+        collectionObject.setSecurityMap(securityMap);
+
+        TestCollectionDTO collectionDTO = autoAssembler.assemble(collectionObject, TestCollectionDTO.class);
+        assertEquals(Lists.newArrayList(collectionDTO.getSecurityMap().keySet()),
+                Lists.newArrayList(securityMap.keySet()));
+    }
+
+    @Test
+    public void testShareableDeclaredTypes() throws Exception {
+        ImmutableTypeRegistry immutableTypeRegistry = new ImmutableTypeRegistry();
+        assertTrue(GenericTypeConverter.isShareable(fieldType(TestCollectionObject.class, "names"),
+                fieldType(TestCollectionDTO.class, "names"), immutableTypeRegistry));
+        assertTrue(GenericTypeConverter.isShareable(fieldType(TestCollectionObject.class, "ratings"),
+                fieldType(TestCollectionObject.class, "ratings"), immutableTypeRegistry));
+        // 元素类型不同、容器类型不兼容
+        assertFalse(GenericTypeConverter.isShareable(fieldType(TestCollectionObject.class, "ratings"),
+                fieldType(TestCollectionDTO.class, "ratings"), immutableTypeRegistry));
+        assertFalse(GenericTypeConverter.isShareable(fieldType(TestCollectionObject.class, "codes"),
+                fieldType(TestCollectionDTO.class, "codes"), immutableTypeRegistry));
+        // 元素类型可能有子类，转换时逐个检查
+        Type nestedSecurities = fieldType(TestCollectionObject.class, "nestedSecurities");
+        assertFalse(GenericTypeConverter.isShareable(nestedSecurities, nestedSecurities, immutableTypeRegistry));
+        assertTrue(GenericTypeConverter.isShareable(nestedSecurities, nestedSecurities,
+                new ImmutableTypeRegistry(Collections.<Class<?>>singleton(TestSecurityInfo.class))));
+    }
+
+    @Test
+    public void testPartiallyConverted() throws Exception {
+        TestSecurityInfoDTO firstDTO = new TestSecurityInfoDTO("600000", "A");
+        TestMixedObject mixedObject = new TestMixedObject();
+        mixedObject.setSecurities(Arrays.<Object>asList(firstDTO, new TestSecurityInfo("600001", "B")));
+
+        TestMixedDTO mixedDTO = autoAssembler.assemble(mixedObject, TestMixedDTO.class);
+        assertEquals(mixedDTO.getSecurities(), Arrays.asList(firstDTO, new TestSecurityInfoDTO("600001", "B")));
+        assertSame(mixedDTO.getSecurities().get(0), firstDTO);
+
+        // 全部元素已可赋值的，遍历一次后共享
+        mixedObject.setSecurities(Arrays.<Object>asList(firstDTO));
+        mixedDTO = autoAssembler.assemble(mixedObject, TestMixedDTO.class);
+        assertSame(mixedDTO.getSecurities(), mixedObject.getSecurities());
+    }
+
+    private static Type fieldType(Class<?> clazz, String fieldName) throws NoSuchFieldException {
+        return clazz.getDeclaredField(fieldName).getGenericType();
+    }
+
+    public static class TestMixedObject {
+        private List<Object> securities;
+
+        public List<Object> getSecurities() {
+            return securities;
+        }
+
+        public void setSecurities(List<Object> securities) {
+            this.securities = securities;
+        }
+    }
+
+    public static class TestMixedDTO {
+        private List<TestSecurityInfoDTO> securities;
+
+        public List<TestSecurityInfoDTO> getSecurities() {
+            return securities;
+        }
+
+        public void setSecurities(List<TestSecurityInfoDTO> securities) {
+            this.securities = securities;
+        }
+    }
+
+    public static class TestCollectionObject {
+        private Set<TestSecurityInfo> securitySet;
+        private List<String> codes;
+        private Map<String, TestSecurityInfo> securityMap;
+        private Map<String, List<TestSecurityInfo>> groupedSecurities;
+        private List<List<TestSecurityInfo>> nestedSecurities;
+        private List<TestSecurityInfo> securityArray;
+        private Integer[] numbers;
+        private Map<Integer, String> ratings;
+        private List<String> names;
+
+        public Set<TestSecurityInfo> getSecuritySet() {
+            return securitySet;
+        }
+
+        public void setSecuritySet(Set<TestSecurityInfo> securitySet) {
+            this.securitySet = securitySet;
+        }
+
+        public List<String> getCodes() {
+            return codes;
+        }
+
+        public void setCodes(List<String> codes) {
+            this.codes = codes;
+        }
+
+        public Map<String, TestSecurityInfo> getSecurityMap() {
+            return securityMap;
+        }
+
+        public void setSecurityMap(Map<String, TestSecurityInfo> securityMap) {
+            this.securityMap = securityMap;
+        }
+
+        public Map<String, List<TestSecurityInfo>> getGroupedSecurities() {
+            return groupedSecurities;
+        }
+
+        public void setGroupedSecurities(Map<String, List<TestSecurityInfo>> groupedSecurities) {
+            this.groupedSecurities = groupedSecurities;
+        }
+
+        public List<List<TestSecurityInfo>> getNestedSecurities() {
+            return nestedSecurities;
+        }
+
+        public void setNestedSecurities(List<List<TestSecurityInfo>> nestedSecurities) {
+            this.nestedSecurities = nestedSecurities;
+        }
+
+        public List<TestSecurityInfo> getSecurityArray() {
+            return securityArray;
+        }
+
+        public void setSecurityArray(List<TestSecurityInfo> securityArray) {
+            this.securityArray = securityArray;
+        }
+
+        public Integer[] getNumbers() {
+            return numbers;
+        }
+
+        public void setNumbers(Integer[] numbers) {
+            this.numbers = numbers;
+        }
+
+        public Map<Integer, String> getRatings() {
+            return ratings;
+        }
+
+        public void setRatings(Map<Integer, String> ratings) {
+            this.ratings = ratings;
+        }
+
+        public List<String> getNames() {
+            return names;
+        }
+
+        public void setNames(List<String> names) {
+            this.names = names;
+        }
+    }
+
+    public static class TestCollectionDTO {
+        private Set<TestSecurityInfoDTO> securitySet;
+        private SortedSet<String> codes;
+        private Map<String, TestSecurityInfoDTO> securityMap;
+        private Map<String, List<TestSecurityInfoDTO>> groupedSecurities;
+        private List<List<TestSecurityInfoDTO>> nestedSecurities;
+        private TestSecurityInfoDTO[] securityArray;
+        private int[] numbers;
+        private Map<String, Integer> ratings;
+        private List<String> names;
+
+        public Set<TestSecurityInfoDTO> getSecuritySet() {
+            return securitySet;
+        }
+
+        public void setSecuritySet(Set<TestSecurityInfoDTO> securitySet) {
+            this.securitySet = securitySet;
+        }
+
+        public SortedSet<String> getCodes() {
+            return codes;
+        }
+
+        public void setCodes(SortedSet<String> codes) {
+            this.codes = codes;
+        }
+
+        public Map<String, TestSecurityInfoDTO> getSecurityMap() {
+            return securityMap;
+        }
+
+        public void setSecurityMap(Map<String, TestSecurityInfoDTO> securityMap) {
+            this.securityMap = securityMap;
+        }
+
+        public Map<String, List<TestSecurityInfoDTO>> getGroupedSecurities() {
+            return groupedSecurities;
+        }
+
+        public void setGroupedSecurities(Map<String, List<TestSecurityInfoDTO>> groupedSecurities) {
+            this.groupedSecurities = groupedSecurities;
+        }
+
+        public List<List<TestSecurityInfoDTO>> getNestedSecurities() {
+            return nestedSecurities;
+        }
+
+        public void setNestedSecurities(List<List<TestSecurityInfoDTO>> nestedSecurities) {
+            this.nestedSecurities = nestedSecurities;
+        }
+
+        public TestSecurityInfoDTO[] getSecurityArray() {
+            return securityArray;
+        }
+
+        public void setSecurityArray(TestSecurityInfoDTO[] securityArray) {
+            this.securityArray = securityArray;
+        }
+
+        public int[] getNumbers() {
+            return numbers;
+        }
+
+        public void setNumbers(int[] numbers) {
+            this.numbers = numbers;
+        }
+
+        public Map<String, Integer> getRatings() {
+            return ratings;
+        }
+
+        public void setRatings(Map<String, Integer> ratings) {
+            this.ratings = ratings;
+        }
+
+        public List<String> getNames() {
+            return names;
+        }
+
+        public void setNames(List<String> names) {
+            this.names = names;
+        }
+    }
+}
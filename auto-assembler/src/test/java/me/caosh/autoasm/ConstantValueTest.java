@@ -0,0 +1,232 @@
+package me.caosh.autoasm;
+
+import com.google.common.base.Converter;
+import me.caosh.autoasm.converter.ClassifiedConverter;
+import me.caosh.autoasm.converter.ConverterMapping;
+import me.caosh.autoasm.converter.DefaultConverterMapping;
+import me.caosh.autoasm.plan.ConstantValue;
+import me.caosh.autoasm.plan.ConstantValueResolver;
+import me.caosh.autoasm.plan.MappingDirection;
+import me.caosh.autoasm.plan.MappingPlan;
+import me.caosh.autoasm.plan.MappingPlanFactory;
+import me.caosh.autoasm.plan.PropertyPlan;
+import org.testng.annotations.Test;
+
+import java.util.Date;
+
+import static org.testng.Assert.*;
+
+/**
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+public class ConstantValueTest {
+    private final AutoAssembler autoAssembler = new AutoAssembler();
+
+    @Test
+    public void testConstantValue() throws Exception {
+        TestConstantDTO first = autoAssembler.assemble(new Object(), TestConstantDTO.class);
+        TestConstantDTO second = autoAssembler.assemble(new Object(), TestConstantDTO.class);
+        assertEquals(first.getStatus(), Integer.valueOf(200));
+        assertEquals(first.getState(), TestState.ACTIVE);
+        // 可变类型的常量每个对象各自一份
+        assertEquals(first.getCreateTime(), second.getCreateTime());
+        assertNotSame(first.getCreateTime(), second.getCreateTime());
+    }
+
+    @Test
+    public void testMutableConstantCopied() throws Exception {
+        ConverterMapping converterMapping = new DefaultConverterMapping();
+        final int[] converted = new int[1];
+        converterMapping.register(String.class, Date.class, new Converter<String, Date>() {
+            @Override
+            protected Date doForward(String s) {
+                converted[0]++;
+                return new Date(0);
+            }
+
+            @Override
+            protected String doBackward(Date date) {
+                throw new UnsupportedOperationException();
+            }
+        });
+        AutoAssembler autoAssembler = new AutoAssembler(converterMapping);
+        TestConstantDTO first = autoAssembler.assemble(new Object(), TestConstantDTO.class);
+        TestConstantDTO second = autoAssembler.assemble(new Object(), TestConstantDTO.class);
+        // 只在创建映射计划时转换一次，之后复制转换结果
+        assertEquals(converted[0], 1);
+        assertEquals(first.getCreateTime(), new Date(0));
+        assertNotSame(first.getCreateTime(), second.getCreateTime());
+    }
+
+    @Test
+    public void testConverterRegisteredAfterPlan() throws Exception {
+        AutoAssembler autoAssembler = new AutoAssembler();
+        assertEquals(autoAssembler.assemble(new Object(), TestConstantDTO.class).getState(), TestState.ACTIVE);
+        autoAssembler.registerConverter(String.class, Date.class, new Converter<String, Date>() {
+            @Override
+            protected Date doForward(String s) {
+                return new Date(0);
+            }
+
+            @Override
+            protected String doBackward(Date date) {
+                throw new UnsupportedOperationException();
+            }
+        });
+        // 已创建的计划中的常量值使用新注册的converter重新转换
+        TestConstantDTO constantDTO = autoAssembler.assemble(new Object(), TestConstantDTO.class);
+        assertEquals(constantDTO.getCreateTime(), new Date(0));
+        assertEquals(constantDTO.getState(), TestState.ACTIVE);
+    }
+
+    @Test
+    public void testNullConstant() throws Exception {
+        ConverterMapping converterMapping = new DefaultConverterMapping();
+        converterMapping.register(String.class, TestState.class, new ClassifiedConverter<String, TestState>() {
+            @Override
+            public TestState convert(String value, Class<TestState> returnClass) {
+                return null;
+            }
+
+            @Override
+            public ClassifiedConverter<TestState, String> reverse() {
+                final ClassifiedConverter<String, TestState> forward = this;
+                return new ClassifiedConverter<TestState, String>() {
+                    @Override
+                    public String convert(TestState value, Class<String> returnClass) {
+                        return value.name();
+                    }
+
+                    @Override
+                    public ClassifiedConverter<String, TestState> reverse() {
+                        return forward;
+                    }
+                };
+            }
+        });
+        AutoAssembler autoAssembler = new AutoAssembler(converterMapping);
+        TestConstantDTO testConstantDTO = autoAssembler.assemble(new Object(), TestConstantDTO.class);
+        assertNull(testConstantDTO.getState());
+        assertEquals(testConstantDTO.getStatus(), Integer.valueOf(200));
+    }
+
+    @Test
+    public void testDefaultValue() throws Exception {
+        TestDefaultObject disassemble = autoAssembler.disassemble(new TestConstantDTO(), TestDefaultObject.class);
+        assertEquals(disassemble.getFlag(), Boolean.TRUE);
+
+        TestConstantDTO testConstantDTO = new TestConstantDTO();
+        testConstantDTO.setFlag(false);
+        disassemble = autoAssembler.disassemble(testConstantDTO, TestDefaultObject.class);
+        assertEquals(disassemble.getFlag(), Boolean.FALSE);
+    }
+
+    @Test
+    public void testResolvedOnPlanCreation() throws Exception {
+        final int[] resolved = new int[1];
+        MappingPlanFactory mappingPlanFactory = new MappingPlanFactory(new ConstantValueResolver() {
+            @Override
+            public ConstantValue resolve(MappingDirection direction, PropertyPlan propertyPlan, String literal) {
+                resolved[0]++;
+                return ConstantValue.shared(literal, literal);
+            }
+        });
+        MappingPlan mappingPlan = mappingPlanFactory.createAssemblePlan(Object.class, TestConstantDTO.class);
+        assertEquals(resolved[0], 3);
+        for (PropertyPlan propertyPlan : mappingPlan.getPropertyPlans()) {
+            assertNotNull(propertyPlan.getConstantValue());
+        }
+
+        mappingPlan = mappingPlanFactory.createDisassemblePlan(TestConstantDTO.class, TestDefaultObject.class);
+        assertEquals(resolved[0], 4);
+        assertEquals(mappingPlan.getPropertyPlans()[0].getConstantValue().getLiteral(), "true");
+    }
+
+    @Test(expectedExceptions = NumberFormatException.class)
+    public void testBadConstantFailsOnPlanCreation() throws Exception {
+        new MappingPlanFactory(new ConstantValueResolver() {
+            @Override
+            public ConstantValue resolve(MappingDirection direction, PropertyPlan propertyPlan, String literal) {
+                return ConstantValue.shared(literal, Integer.valueOf(literal));
+            }
+        }).createAssemblePlan(Object.class, TestBadConstantDTO.class);
+    }
+
+    @Test(expectedExceptions = NumberFormatException.class)
+    public void testBadConstant() throws Exception {
+        autoAssembler.assemble(new Object(), TestBadConstantDTO.class);
+    }
+
+    public enum TestState {
+        ACTIVE, INACTIVE
+    }
+
+    public static class TestConstantDTO {
+        @FieldMapping("200")
+        private Integer status;
+        @FieldMapping("ACTIVE")
+        private TestState state;
+        @FieldMapping("2018-01-17 10:00:00")
+        private Date createTime;
+        @FieldMapping(defaultValue = "true")
+        private Boolean flag;
+
+        public Integer getStatus() {
+            return status;
+        }
+
+        public void setStatus(Integer status) {
+            this.status = status;
+        }
+
+        public TestState getState() {
+            return state;
+        }
+
+        public void setState(TestState state) {
+            this.state = state;
+        }
+
+        public Date getCreateTime() {
+            return createTime;
+        }
+
+        public void setCreateTime(Date createTime) {
+            this.createTime = createTime;
+        }
+
+        public Boolean getFlag() {
+            return flag;
+        }
+
+        public void setFlag(Boolean flag) {
+            this.flag = flag;
+        }
+    }
+
+    public static class TestDefaultObject {
+        private Boolean flag;
+
+        public Boolean getFlag() {
+            return flag;
+        }
+
+        public void setFlag(Boolean flag) {
+            this.flag = flag;
+        }
+    }
+
+    public static class TestBadConstantDTO {
+        @FieldMapping("abc")
+        private Integer status;
+
+        public Integer getStatus() {
+            return status;
+        }
+
+        public void setStatus(Integer status) {
+            this.status = status;
+        }
+    }
+}
@@ -1,12 +1,19 @@
 package me.caosh.autoasm;
 
 import com.google.common.base.Converter;
+import com.google.common.base.Function;
+import com.google.common.base.Functions;
+import com.google.common.primitives.Ints;
 import me.caosh.autoasm.converter.ClassifiedConverter;
+import me.caosh.autoasm.converter.ClassifiedConverterWrapper;
 import me.caosh.autoasm.converter.CommonConverters;
+import me.caosh.autoasm.converter.ConverterMapping;
 import me.caosh.autoasm.converter.DefaultConverterMapping;
 import org.testng.annotations.Test;
 
 import java.util.Date;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.testng.Assert.*;
 
@@ -43,6 +50,108 @@ public class ConverterMappingTest {
         assertEquals(myDateStringConverter2.convert(myDate, String.class), "2018-01-14 00:00:00");
     }
 
+    @Test
+    public void testRegistrationOrderOverExactMatch() throws Exception {
+        ConverterMapping converterMapping = new ConverterMapping();
+        ClassifiedConverter<String, MyDate> exactConverter = new ClassifiedConverterWrapper<>(
+                Converter.from(new Function<String, MyDate>() {
+                    @Override
+                    public MyDate apply(String input) {
+                        return new MyDate(0);
+                    }
+                }, Functions.toStringFunction()));
+        converterMapping.register(String.class, MyDate.class, exactConverter);
+        assertSame(converterMapping.find(String.class, MyDate.class), exactConverter);
+
+        // 后注册的converter优先，即使只是按继承关系匹配
+        ClassifiedConverter<String, Date> stringDateConverter = new ClassifiedConverterWrapper<>(
+                CommonConverters.stringDateConverter());
+        converterMapping.register(String.class, Date.class, stringDateConverter);
+        assertSame(converterMapping.find(String.class, MyDate.class), stringDateConverter);
+        assertSame(converterMapping.find(String.class, Date.class), stringDateConverter);
+    }
+
+    @Test
+    public void testNotFoundCached() throws Exception {
+        ConverterMapping converterMapping = new ConverterMapping();
+        assertNull(converterMapping.find(String.class, MyDate.class));
+        assertNull(converterMapping.find(String.class, MyDate.class));
+
+        // 注册后不再使用缓存的查找结果
+        converterMapping.register(String.class, Date.class, CommonConverters.stringDateConverter());
+        assertNotNull(converterMapping.find(String.class, MyDate.class));
+        assertNotNull(converterMapping.find(MyDate.class, String.class));
+        assertNull(converterMapping.find(Integer.class, MyDate.class));
+    }
+
+    @Test
+    public void testConcurrentRegistration() throws Exception {
+        final ConverterMapping converterMapping = new DefaultConverterMapping();
+        final int registrations = 200;
+        final AtomicBoolean done = new AtomicBoolean();
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread reader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    while (!done.get()) {
+                        // 注册过程中已有的converter始终可见
+                        assertNotNull(converterMapping.find(String.class, Integer.class));
+                        converterMapping.find(String.class, MyDate.class);
+                    }
+                } catch (Throwable e) {
+                    failure.set(e);
+                }
+            }
+        });
+        reader.start();
+
+        long version = converterMapping.getVersion();
+        for (int i = 0; i < registrations; i++) {
+            converterMapping.register(String.class, MyDate.class, new Converter<String, MyDate>() {
+                @Override
+                protected MyDate doForward(String s) {
+                    return new MyDate(Long.parseLong(s));
+                }
+
+                @Override
+                protected String doBackward(MyDate myDate) {
+                    return String.valueOf(myDate.getTime());
+                }
+            });
+        }
+        done.set(true);
+        reader.join();
+
+        assertNull(failure.get());
+        assertEquals(converterMapping.getVersion(), version + registrations);
+        assertNotNull(converterMapping.find(String.class, MyDate.class));
+    }
+
+    @Test
+    public void testRegisterConverterOnAssembler() throws Exception {
+        AutoAssembler autoAssembler = new AutoAssembler();
+        ConstantValueTest.TestConstantDTO testConstantDTO = autoAssembler.assemble(new Object(),
+                ConstantValueTest.TestConstantDTO.class);
+        assertEquals(testConstantDTO.getStatus(), Integer.valueOf(200));
+
+        // 运行中注册的converter对之后的转换生效，包括已转换的常量值
+        autoAssembler.registerConverter(String.class, Integer.class, Ints.stringConverter().andThen(
+                new Converter<Integer, Integer>() {
+                    @Override
+                    protected Integer doForward(Integer integer) {
+                        return integer + 1;
+                    }
+
+                    @Override
+                    protected Integer doBackward(Integer integer) {
+                        return integer - 1;
+                    }
+                }));
+        testConstantDTO = autoAssembler.assemble(new Object(), ConstantValueTest.TestConstantDTO.class);
+        assertEquals(testConstantDTO.getStatus(), Integer.valueOf(201));
+    }
+
     public static class MyDate extends Date {
         public MyDate(long date) {
             super(date);
@@ -0,0 +1,81 @@
+package me.caosh.autoasm;
+
+import me.caosh.autoasm.util.ConvertibleEnumUtils;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+public class ConvertibleEnumUtilsTest {
+    @Test
+    public void testDenseValues() throws Exception {
+        assertEquals(ConvertibleEnumUtils.valueOf(0, ConvertTest.TestEnum.class), ConvertTest.TestEnum.A);
+        assertEquals(ConvertibleEnumUtils.valueOf(2, ConvertTest.TestEnum.class), ConvertTest.TestEnum.C);
+    }
+
+    @Test
+    public void testSparseValues() throws Exception {
+        assertEquals(ConvertibleEnumUtils.valueOf(-100000L, TestSparseEnum.class), TestSparseEnum.LOW);
+        assertEquals(ConvertibleEnumUtils.valueOf(100000L, TestSparseEnum.class), TestSparseEnum.HIGH);
+        // 标量值相同时取声明在前的
+        assertEquals(ConvertibleEnumUtils.valueOf(7L, TestSparseEnum.class), TestSparseEnum.FIRST);
+    }
+
+    @Test
+    public void testStringValues() throws Exception {
+        assertEquals(ConvertibleEnumUtils.valueOf("y", TestStringEnum.class), TestStringEnum.YES);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class,
+            expectedExceptionsMessageRegExp = "value=3, enumClass=.*TestEnum")
+    public void testUnknownValue() throws Exception {
+        ConvertibleEnumUtils.valueOf(3, ConvertTest.TestEnum.class);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testValueTypeMismatch() throws Exception {
+        ConvertibleEnumUtils.valueOf((Object) 7, (Class) TestSparseEnum.class);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testUnknownSparseValue() throws Exception {
+        ConvertibleEnumUtils.valueOf(8L, TestSparseEnum.class);
+    }
+
+    public enum TestSparseEnum implements ConvertibleEnum<Long> {
+        LOW(-100000L),
+        FIRST(7L),
+        SECOND(7L),
+        HIGH(100000L);
+
+        private final Long value;
+
+        TestSparseEnum(Long value) {
+            this.value = value;
+        }
+
+        @Override
+        public Long getValue() {
+            return value;
+        }
+    }
+
+    public enum TestStringEnum implements ConvertibleEnum<String> {
+        YES("y"),
+        NO("n");
+
+        private final String value;
+
+        TestStringEnum(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public String getValue() {
+            return value;
+        }
+    }
+}
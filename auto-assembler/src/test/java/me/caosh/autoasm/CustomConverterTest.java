@@ -8,6 +8,7 @@ import java.math.BigDecimal;
 
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
 
 /**
  * @author shuhaoc@qq.com
@@ -53,6 +54,29 @@ public class CustomConverterTest {
         autoAssembler.disassemble(testCustomConverterDTO, TestCustomConverterObject.class);
     }
 
+    @Test
+    public void testConverterInstanceCached() throws Exception {
+        AutoAssembler autoAssembler = new AutoAssemblerBuilder().build();
+        TestCustomConverterObject testCustomConverterObject = new TestCustomConverterObject();
+        testCustomConverterObject.setDeviationCtrl(new DisabledDeviationCtrl());
+
+        int createdCount = CountingConverter.createdCount;
+        for (int i = 0; i < 3; i++) {
+            TestCountingConverterDTO assemble = autoAssembler.assemble(testCustomConverterObject,
+                    TestCountingConverterDTO.class);
+            assertEquals(assemble.getStatelessFlag(), Integer.valueOf(0));
+            assertEquals(assemble.getStatefulFlag(), Integer.valueOf(0));
+        }
+        // 无状态的只创建1个，有状态的每次转换创建1个
+        assertEquals(CountingConverter.createdCount - createdCount, 1 + 3);
+
+        TestCountingConverterDTO testCountingConverterDTO = new TestCountingConverterDTO();
+        testCountingConverterDTO.setStatelessFlag(1);
+        TestCustomConverterObject disassemble = autoAssembler.disassemble(testCountingConverterDTO,
+                TestCustomConverterObject.class);
+        assertTrue(disassemble.getDeviationCtrl().isEnabled());
+    }
+
     public static class TestCustomConverterObject {
         private DeviationCtrl deviationCtrl;
 
@@ -146,6 +170,49 @@ public class CustomConverterTest {
         }
     }
 
+    public static class TestCountingConverterDTO {
+        @FieldMapping(mappedProperty = "deviationCtrl",
+                customConverterClass = CountingConverter.class)
+        private Integer statelessFlag;
+        @FieldMapping(mappedProperty = "deviationCtrl",
+                customConverterClass = CountingConverter.class, customConverterStateful = true)
+        private Integer statefulFlag;
+
+        public Integer getStatelessFlag() {
+            return statelessFlag;
+        }
+
+        public void setStatelessFlag(Integer statelessFlag) {
+            this.statelessFlag = statelessFlag;
+        }
+
+        public Integer getStatefulFlag() {
+            return statefulFlag;
+        }
+
+        public void setStatefulFlag(Integer statefulFlag) {
+            this.statefulFlag = statefulFlag;
+        }
+    }
+
+    public static class CountingConverter extends AbstractClassifiedConverter<DeviationCtrl, Integer> {
+        private static int createdCount = 0;
+
+        public CountingConverter() {
+            createdCount++;
+        }
+
+        @Override
+        public Integer doForward(DeviationCtrl value, Class<Integer> returnClass) {
+            return value.isEnabled() ? 1 : 0;
+        }
+
+        @Override
+        public DeviationCtrl doBackward(Integer value, Class<DeviationCtrl> returnClass) {
+            return value == 1 ? new EnabledDeviationCtrl(null) : new DisabledDeviationCtrl();
+        }
+    }
+
     public static class DeviationCtrlFlagConverter extends AbstractClassifiedConverter<DeviationCtrl, Integer> {
         @Override
         public Integer doForward(DeviationCtrl value, Class<Integer> returnClass) {
@@ -0,0 +1,168 @@
+package me.caosh.autoasm;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.testng.Assert.*;
+
+/**
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+public class GraphConversionTest {
+    private final AutoAssembler autoAssembler = new AutoAssembler();
+
+    @Test
+    public void testSharedReference() throws Exception {
+        TestNode customer = new TestNode("customer");
+        List<TestNode> orders = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            TestNode order = new TestNode("order" + i);
+            order.setParent(customer);
+            orders.add(order);
+        }
+
+        ConversionContext context = ConversionContext.create();
+        List<TestNodeDTO> orderDTOs = autoAssembler.assembleList(orders, TestNodeDTO.class, context);
+        assertEquals(orderDTOs.size(), 3);
+        assertEquals(orderDTOs.get(0).getParent().getName(), "customer");
+        assertSame(orderDTOs.get(1).getParent(), orderDTOs.get(0).getParent());
+        assertSame(orderDTOs.get(2).getParent(), orderDTOs.get(0).getParent());
+        assertEquals(context.size(), 4);
+
+        // 无上下文时每次引用都转换为新对象
+        List<TestNodeDTO> plainDTOs = autoAssembler.assembleList(orders, TestNodeDTO.class);
+        assertNotSame(plainDTOs.get(1).getParent(), plainDTOs.get(0).getParent());
+    }
+
+    @Test
+    public void testCycle() throws Exception {
+        TestNode parent = new TestNode("parent");
+        TestNode child = new TestNode("child");
+        child.setParent(parent);
+        parent.setChildren(Arrays.asList(child));
+        parent.setParent(parent);
+
+        TestNodeDTO parentDTO = autoAssembler.assemble(parent, TestNodeDTO.class, ConversionContext.create());
+        assertSame(parentDTO.getParent(), parentDTO);
+        assertEquals(parentDTO.getChildren().size(), 1);
+        TestNodeDTO childDTO = parentDTO.getChildren().get(0);
+        assertEquals(childDTO.getName(), "child");
+        assertSame(childDTO.getParent(), parentDTO);
+
+        TestNode disassembled = autoAssembler.disassemble(parentDTO, TestNode.class, ConversionContext.create());
+        assertSame(disassembled.getParent(), disassembled);
+        assertSame(disassembled.getChildren().get(0).getParent(), disassembled);
+    }
+
+    @Test
+    public void testMaxDepth() throws Exception {
+        TestNode root = new TestNode("root");
+        TestNode middle = new TestNode("middle");
+        TestNode leaf = new TestNode("leaf");
+        middle.setParent(root);
+        leaf.setParent(middle);
+
+        try {
+            autoAssembler.assemble(leaf, TestNodeDTO.class, ConversionContext.withMaxDepth(2));
+            fail();
+        } catch (MaxDepthExceededException e) {
+            assertEquals(e.getMaxDepth(), 2);
+        }
+
+        TestNodeDTO leafDTO = autoAssembler.assemble(leaf, TestNodeDTO.class, ConversionContext.withMaxDepth(3));
+        assertEquals(leafDTO.getParent().getParent().getName(), "root");
+    }
+
+    @Test
+    public void testTruncateAtDepth() throws Exception {
+        TestNode root = new TestNode("root");
+        TestNode middle = new TestNode("middle");
+        TestNode leaf = new TestNode("leaf");
+        middle.setParent(root);
+        leaf.setParent(middle);
+
+        ConversionContext context = ConversionContext.truncateAtDepth(2);
+        TestNodeDTO leafDTO = autoAssembler.assemble(leaf, TestNodeDTO.class, context);
+        assertEquals(leafDTO.getName(), "leaf");
+        assertEquals(leafDTO.getParent().getName(), "middle");
+        assertNull(leafDTO.getParent().getParent());
+        assertEquals(context.size(), 2);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidMaxDepth() throws Exception {
+        ConversionContext.withMaxDepth(0);
+    }
+
+    public static class TestNode {
+        private String name;
+        private TestNode parent;
+        private List<TestNode> children;
+
+        public TestNode() {
+        }
+
+        public TestNode(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public TestNode getParent() {
+            return parent;
+        }
+
+        public void setParent(TestNode parent) {
+            this.parent = parent;
+        }
+
+        public List<TestNode> getChildren() {
+            return children;
+        }
+
+        public void setChildren(List<TestNode> children) {
+            this.children = children;
+        }
+    }
+
+    @Convertible
+    public static class TestNodeDTO {
+        private String name;
+        private TestNodeDTO parent;
+        private List<TestNodeDTO> children;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public TestNodeDTO getParent() {
+            return parent;
+        }
+
+        public void setParent(TestNodeDTO parent) {
+            this.parent = parent;
+        }
+
+        public List<TestNodeDTO> getChildren() {
+            return children;
+        }
+
+        public void setChildren(List<TestNodeDTO> children) {
+            this.children = children;
+        }
+    }
+}
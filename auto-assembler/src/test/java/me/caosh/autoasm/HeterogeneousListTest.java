@@ -0,0 +1,105 @@
+package me.caosh.autoasm;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.testng.Assert.*;
+
+/**
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+public class HeterogeneousListTest {
+    private final AutoAssembler autoAssembler = new AutoAssembler();
+
+    @Test
+    public void testMixedSubclasses() throws Exception {
+        List<ParallelListTest.TestItem> items = new ArrayList<>();
+        // 超过内联缓存能保存的类型数量
+        ParallelListTest.TestItem[] prototypes = {new ParallelListTest.TestItem(), new FirstItem(), new SecondItem(),
+                new ThirdItem(), new FourthItem(), new FifthItem()};
+        for (int i = 0; i < 30; i++) {
+            ParallelListTest.TestItem item = prototypes[i % prototypes.length].getClass().newInstance();
+            item.setValue(String.valueOf(i));
+            items.add(item);
+        }
+
+        List<ParallelListTest.TestItemDTO> itemDTOs = autoAssembler.assembleList(items,
+                ParallelListTest.TestItemDTO.class);
+        for (int i = 0; i < itemDTOs.size(); i++) {
+            assertEquals(itemDTOs.get(i).getValue(), Integer.valueOf(i));
+        }
+    }
+
+    @Test
+    public void testDisassembleList() throws Exception {
+        ParallelListTest.TestItemDTO itemDTO = new ParallelListTest.TestItemDTO();
+        itemDTO.setValue(1);
+        SubItemDTO subItemDTO = new SubItemDTO();
+        subItemDTO.setValue(2);
+
+        List<ParallelListTest.TestItem> items = autoAssembler.disassembleList(
+                Arrays.asList(itemDTO, subItemDTO), ParallelListTest.TestItem.class);
+        assertEquals(items.get(0).getValue(), "1");
+        assertEquals(items.get(1).getValue(), "2");
+    }
+
+    @Test
+    public void testMixedListField() throws Exception {
+        SecurityListObject securityListObject = new SecurityListObject();
+        TestSecurityInfoDTO alreadyConverted = new TestSecurityInfoDTO("600000", "A");
+        securityListObject.setSecurities(Arrays.<Object>asList(alreadyConverted,
+                new TestSecurityInfo("600001", "B")));
+
+        SecurityListDTO securityListDTO = autoAssembler.assemble(securityListObject, SecurityListDTO.class);
+        List<TestSecurityInfoDTO> securities = securityListDTO.getSecurities();
+        // 已是目标类型的元素直接使用，其他元素按运行时类型转换
+        assertSame(securities.get(0), alreadyConverted);
+        assertEquals(securities.get(1), new TestSecurityInfoDTO("600001", "B"));
+    }
+
+    public static class FirstItem extends ParallelListTest.TestItem {
+    }
+
+    public static class SecondItem extends ParallelListTest.TestItem {
+    }
+
+    public static class ThirdItem extends ParallelListTest.TestItem {
+    }
+
+    public static class FourthItem extends ParallelListTest.TestItem {
+    }
+
+    public static class FifthItem extends ParallelListTest.TestItem {
+    }
+
+    public static class SubItemDTO extends ParallelListTest.TestItemDTO {
+    }
+
+    public static class SecurityListObject {
+        private List<Object> securities;
+
+        public List<Object> getSecurities() {
+            return securities;
+        }
+
+        public void setSecurities(List<Object> securities) {
+            this.securities = securities;
+        }
+    }
+
+    public static class SecurityListDTO {
+        private List<TestSecurityInfoDTO> securities;
+
+        public List<TestSecurityInfoDTO> getSecurities() {
+            return securities;
+        }
+
+        public void setSecurities(List<TestSecurityInfoDTO> securities) {
+            this.securities = securities;
+        }
+    }
+}
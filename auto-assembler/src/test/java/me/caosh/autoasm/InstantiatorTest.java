@@ -0,0 +1,67 @@
+package me.caosh.autoasm;
+
+import me.caosh.autoasm.instantiator.ConstructorInstantiatorFactory;
+import me.caosh.autoasm.instantiator.Instantiator;
+import me.caosh.autoasm.instantiator.InstantiatorFactory;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.*;
+
+/**
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+public class InstantiatorTest {
+    @Test
+    public void testCustomInstantiatorFactory() throws Exception {
+        final AtomicInteger factoryCalls = new AtomicInteger();
+        final AtomicInteger instantiations = new AtomicInteger();
+        final InstantiatorFactory defaultFactory = new ConstructorInstantiatorFactory();
+        AutoAssembler autoAssembler = new AutoAssemblerBuilder()
+                .instantiatorFactory(new InstantiatorFactory() {
+                    @Override
+                    public <T> Instantiator<T> getInstantiator(Class<T> objectClass) {
+                        factoryCalls.incrementAndGet();
+                        final Instantiator<T> instantiator = defaultFactory.getInstantiator(objectClass);
+                        return new Instantiator<T>() {
+                            @Override
+                            public T newInstance() {
+                                instantiations.incrementAndGet();
+                                return instantiator.newInstance();
+                            }
+                        };
+                    }
+                })
+                .build();
+
+        TestSecurityInfo securityInfo = new TestSecurityInfo("600000", "浦发银行");
+        for (int i = 0; i < 3; i++) {
+            TestSecurityInfoDTO securityInfoDTO = autoAssembler.assemble(securityInfo, TestSecurityInfoDTO.class);
+            assertEquals(securityInfoDTO.getCode(), "600000");
+        }
+        // 每个类型只解析一次
+        assertEquals(factoryCalls.get(), 1);
+        assertEquals(instantiations.get(), 3);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class,
+            expectedExceptionsMessageRegExp = "Create object <TestAbstractObject> using non-argument-constructor failed")
+    public void testAbstractClass() throws Exception {
+        new ConstructorInstantiatorFactory().getInstantiator(TestAbstractObject.class).newInstance();
+    }
+
+    @Test
+    public void testNonPublicClass() throws Exception {
+        assertNotNull(new ConstructorInstantiatorFactory().getInstantiator(TestPackagePrivateObject.class).newInstance());
+    }
+
+    public static abstract class TestAbstractObject {
+    }
+
+    static class TestPackagePrivateObject {
+        public TestPackagePrivateObject() {
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package me.caosh.autoasm;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Lists;
+import org.testng.annotations.Test;
+
+import java.util.Iterator;
+import java.util.List;
+
+import static org.testng.Assert.*;
+
+/**
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+public class LazyConversionTest {
+    private final AutoAssembler autoAssembler = new AutoAssembler();
+
+    @Test
+    public void testAssembleIterator() throws Exception {
+        CountingIterator cursor = new CountingIterator(1000000);
+        Iterator<ParallelListTest.TestItemDTO> iterator = autoAssembler.assembleIterator(cursor,
+                ParallelListTest.TestItemDTO.class);
+        // 未调用next前不读取源对象
+        assertEquals(cursor.read, 0);
+        assertEquals(iterator.next().getValue(), Integer.valueOf(0));
+        assertEquals(iterator.next().getValue(), Integer.valueOf(1));
+        assertEquals(cursor.read, 2);
+    }
+
+    @Test
+    public void testIterable() throws Exception {
+        List<ParallelListTest.TestItem> items = Lists.newArrayList(new CountingIterator(3));
+        Iterable<ParallelListTest.TestItemDTO> itemDTOs = autoAssembler.assembleIterable(items,
+                ParallelListTest.TestItemDTO.class);
+        Iterable<ParallelListTest.TestItem> disassembled = autoAssembler.disassembleIterable(itemDTOs,
+                ParallelListTest.TestItem.class);
+
+        // 每次迭代重新转换
+        assertEquals(Lists.newArrayList(disassembled).size(), 3);
+        items.get(2).setValue("9");
+        List<ParallelListTest.TestItem> disassembledList = Lists.newArrayList(disassembled);
+        assertEquals(disassembledList.get(2).getValue(), "9");
+    }
+
+    @Test
+    public void testListReadsOnce() throws Exception {
+        final CountingIterator cursor = new CountingIterator(5);
+        Iterable<ParallelListTest.TestItem> once = new Iterable<ParallelListTest.TestItem>() {
+            private boolean consumed;
+
+            @Override
+            public Iterator<ParallelListTest.TestItem> iterator() {
+                assertFalse(consumed);
+                consumed = true;
+                return cursor;
+            }
+        };
+        List<ParallelListTest.TestItemDTO> itemDTOs = autoAssembler.assembleList(once,
+                ParallelListTest.TestItemDTO.class);
+        assertEquals(itemDTOs.size(), 5);
+        assertEquals(itemDTOs.get(4).getValue(), Integer.valueOf(4));
+    }
+
+    private static class CountingIterator extends AbstractIterator<ParallelListTest.TestItem> {
+        private final int size;
+        private int read;
+
+        CountingIterator(int size) {
+            this.size = size;
+        }
+
+        @Override
+        protected ParallelListTest.TestItem computeNext() {
+            if (read == size) {
+                return endOfData();
+            }
+            ParallelListTest.TestItem item = new ParallelListTest.TestItem();
+            item.setValue(String.valueOf(read++));
+            return item;
+        }
+    }
+}
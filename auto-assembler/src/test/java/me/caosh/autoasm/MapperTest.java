@@ -0,0 +1,198 @@
+package me.caosh.autoasm;
+
+import com.google.common.base.Converter;
+import me.caosh.autoasm.converter.DefaultConverterMapping;
+import me.caosh.autoasm.mapper.Mapper;
+import me.caosh.autoasm.mapper.MethodHandleMapperFactory;
+import me.caosh.autoasm.plan.MappingPlan;
+import me.caosh.autoasm.plan.MappingPlanCache;
+import me.caosh.autoasm.plan.MappingPlanFactory;
+import me.caosh.autoasm.plan.PropertyPlan;
+import org.joda.time.YearMonth;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Field;
+
+import static org.testng.Assert.*;
+
+/**
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+public class MapperTest {
+    private final MappingPlanFactory mappingPlanFactory = new MappingPlanFactory();
+    private final MethodHandleMapperFactory mapperFactory = new MethodHandleMapperFactory();
+    private final AutoAssembler autoAssembler = new AutoAssemblerBuilder().enableRuntimeMappers().build();
+
+    @Test
+    public void testMappedProperties() throws Exception {
+        MappingPlan mappingPlan = mappingPlanFactory.createAssemblePlan(BasicTest.TestBasicObject.class,
+                BasicTest.TestDTO.class);
+        Mapper<Object, Object> mapper = mapperFactory.create(mappingPlan);
+        assertEquals(mapper.getFromClass(), BasicTest.TestBasicObject.class);
+        assertEquals(mapper.getToClass(), BasicTest.TestDTO.class);
+        assertTrue(mapper.getMappedProperties().contains("id"));
+        assertTrue(mapper.getMappedProperties().contains("name"));
+        // 需要converter、Optional拆箱的属性仍由映射计划处理
+        assertFalse(mapper.getMappedProperties().contains("nullIgnored"));
+        assertFalse(mapper.getMappedProperties().contains("optionalString"));
+
+        MappingPlan residualPlan = mappingPlan.withMapper(mapper);
+        assertSame(residualPlan.getMapper(), mapper);
+        for (PropertyPlan propertyPlan : residualPlan.getPropertyPlans()) {
+            assertFalse(mapper.getMappedProperties().contains(propertyPlan.getPropertyName()));
+        }
+    }
+
+    @Test
+    public void testConvertedProperties() throws Exception {
+        MappingPlan mappingPlan = mappingPlanFactory.createAssemblePlan(TestCountObject.class, TestCountDTO.class);
+        Mapper<Object, Object> mapper = mapperFactory.create(mappingPlan, new DefaultConverterMapping());
+        // 值类型为final类型的，converter在生成映射器时确定
+        assertTrue(mapper.getMappedProperties().contains("count"));
+        // 值类型不确定的，仍按运行时类型查找converter
+        assertFalse(mapper.getMappedProperties().contains("number"));
+
+        TestCountObject countObject = new TestCountObject();
+        countObject.setCount(12);
+        countObject.setNumber(34L);
+        TestCountDTO countDTO = autoAssembler.assemble(countObject, TestCountDTO.class);
+        assertEquals(countDTO.getCount(), "12");
+        assertEquals(countDTO.getNumber(), "34");
+
+        countDTO.setNumber(null);
+        TestCountObject disassembled = autoAssembler.disassemble(countDTO, TestCountObject.class);
+        assertEquals(disassembled.getCount(), Integer.valueOf(12));
+        assertNull(autoAssembler.assemble(new TestCountObject(), TestCountDTO.class).getCount());
+    }
+
+    @Test
+    public void testConverterRegistered() throws Exception {
+        AutoAssembler autoAssembler = new AutoAssemblerBuilder().enableRuntimeMappers().build();
+        TestCountObject countObject = new TestCountObject();
+        countObject.setCount(12);
+        assertEquals(autoAssembler.assemble(countObject, TestCountDTO.class).getCount(), "12");
+
+        // 新注册的converter替换映射器中已组合的converter
+        autoAssembler.registerConverter(Integer.class, String.class, new Converter<Integer, String>() {
+            @Override
+            protected String doForward(Integer integer) {
+                return "#" + integer;
+            }
+
+            @Override
+            protected Integer doBackward(String s) {
+                return Integer.valueOf(s.substring(1));
+            }
+        });
+        assertEquals(autoAssembler.assemble(countObject, TestCountDTO.class).getCount(), "#12");
+    }
+
+    @Test
+    public void testPlanKeptAfterConverterRegistered() throws Exception {
+        AutoAssembler autoAssembler = new AutoAssemblerBuilder().enableRuntimeMappers().build();
+        BasicTest.TestBasicObject testBasicObject = new BasicTest.TestBasicObject();
+        testBasicObject.setId(12);
+        autoAssembler.assemble(testBasicObject, BasicTest.TestDTO.class);
+        TestCountObject countObject = new TestCountObject();
+        countObject.setCount(12);
+        autoAssembler.assemble(countObject, TestCountDTO.class);
+        MappingPlan basicPlan = getAssemblePlan(autoAssembler, BasicTest.TestBasicObject.class, BasicTest.TestDTO.class);
+        MappingPlan countPlan = getAssemblePlan(autoAssembler, TestCountObject.class, TestCountDTO.class);
+
+        autoAssembler.registerConverter(Long.class, String.class, new Converter<Long, String>() {
+            @Override
+            protected String doForward(Long value) {
+                return "#" + value;
+            }
+
+            @Override
+            protected Long doBackward(String s) {
+                return Long.valueOf(s.substring(1));
+            }
+        });
+        assertEquals(autoAssembler.assemble(testBasicObject, BasicTest.TestDTO.class).getId(),
+                testBasicObject.getId());
+        assertEquals(autoAssembler.assemble(countObject, TestCountDTO.class).getCount(), "12");
+        // 不依赖converter的计划原样保留，组合了converter的映射器按新版本重新生成
+        assertSame(getAssemblePlan(autoAssembler, BasicTest.TestBasicObject.class, BasicTest.TestDTO.class),
+                basicPlan);
+        MappingPlan refreshedCountPlan = getAssemblePlan(autoAssembler, TestCountObject.class, TestCountDTO.class);
+        assertNotSame(refreshedCountPlan, countPlan);
+        assertNotSame(refreshedCountPlan.getMapper(), countPlan.getMapper());
+        assertSame(getAssemblePlan(autoAssembler, TestCountObject.class, TestCountDTO.class), refreshedCountPlan);
+    }
+
+    private static MappingPlan getAssemblePlan(AutoAssembler autoAssembler, Class<?> sourceClass,
+                                               Class<?> targetClass) throws Exception {
+        Field field = AutoAssembler.class.getDeclaredField("assemblePlans");
+        field.setAccessible(true);
+        return ((MappingPlanCache) field.get(autoAssembler)).get(sourceClass, targetClass);
+    }
+
+    @Test
+    public void testAssembleAndDisassemble() throws Exception {
+        BasicTest.TestBasicObject testBasicObject = new BasicTest.TestBasicObject();
+        testBasicObject.setId(12);
+        testBasicObject.setName("ccc");
+        testBasicObject.setYearMonth(YearMonth.now());
+
+        BasicTest.TestDTO testDTO = autoAssembler.assemble(testBasicObject, BasicTest.TestDTO.class);
+        assertEquals(testDTO.getId(), testBasicObject.getId());
+        assertEquals(testDTO.getName(), testBasicObject.getName());
+        assertEquals(testDTO.getYearMonth(), testBasicObject.getYearMonth());
+        assertNull(testDTO.getNullIgnored());
+
+        BasicTest.TestBasicObject disassembled = autoAssembler.disassemble(testDTO, BasicTest.TestBasicObject.class);
+        assertEquals(disassembled, testBasicObject);
+    }
+
+    @Test(expectedExceptions = RuntimeException.class,
+            expectedExceptionsMessageRegExp = "Invoke write method failed: <String> TestWriteFailedDTO#setName\\(abc23\\)")
+    public void testWriteFailed() throws Exception {
+        TestWriteFailedObject domainObject = new TestWriteFailedObject(12, "abc23");
+        autoAssembler.assemble(domainObject, TestWriteFailedDTO.class);
+    }
+
+    public static class TestCountObject {
+        private Integer count;
+        private Number number;
+
+        public Integer getCount() {
+            return count;
+        }
+
+        public void setCount(Integer count) {
+            this.count = count;
+        }
+
+        public Number getNumber() {
+            return number;
+        }
+
+        public void setNumber(Number number) {
+            this.number = number;
+        }
+    }
+
+    public static class TestCountDTO {
+        private String count;
+        private String number;
+
+        public String getCount() {
+            return count;
+        }
+
+        public void setCount(String count) {
+            this.count = count;
+        }
+
+        public String getNumber() {
+            return number;
+        }
+
+        public void setNumber(String number) {
+            this.number = number;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package me.caosh.autoasm;
+
+import com.google.common.collect.ImmutableSet;
+import me.caosh.autoasm.plan.MappingDirection;
+import me.caosh.autoasm.plan.MappingPlan;
+import me.caosh.autoasm.plan.MappingPlanCache;
+import me.caosh.autoasm.plan.MappingPlanFactory;
+import me.caosh.autoasm.plan.PropertyPlan;
+import me.caosh.autoasm.util.ImmutableTypeRegistry;
+import org.testng.annotations.Test;
+
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.testng.Assert.*;
+
+/**
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/16
+ */
+public class MappingPlanTest {
+    private final MappingPlanFactory mappingPlanFactory = new MappingPlanFactory();
+
+    @Test
+    public void testAssemblePlan() throws Exception {
+        MappingPlan mappingPlan = mappingPlanFactory.createAssemblePlan(BasicTest.TestBasicObject.class,
+                BasicTest.TestDTO.class);
+        assertEquals(mappingPlan.getDirection(), MappingDirection.ASSEMBLE);
+
+        Map<String, PropertyPlan> propertyPlans = toMap(mappingPlan);
+        // 源对象中不存在的属性、跳过的字段都不在计划中
+        assertFalse(propertyPlans.containsKey("class"));
+        assertFalse(propertyPlans.containsKey("skippedField"));
+        assertFalse(propertyPlans.containsKey("defaultValueField"));
+        assertTrue(propertyPlans.containsKey("id"));
+        assertTrue(propertyPlans.containsKey("name"));
+        assertNotNull(propertyPlans.get("name").getWritePropertyDescriptor());
+        assertNull(propertyPlans.get("name").getWritePropertyPath());
+    }
+
+    @Test
+    public void testDisassemblePlan() throws Exception {
+        MappingPlan mappingPlan = mappingPlanFactory.createDisassemblePlan(MappingTest.TestMappingDTO.class,
+                MappingTest.TestMappingObject.class);
+        assertEquals(mappingPlan.getDirection(), MappingDirection.DISASSEMBLE);
+
+        Map<String, PropertyPlan> propertyPlans = toMap(mappingPlan);
+        assertEquals(propertyPlans.get("dtoName").getWritePropertyDescriptor().getName(), "domainName");
+        // 多级路径在转换时查找
+        assertNull(propertyPlans.get("firstPrice").getWritePropertyDescriptor());
+        assertEquals(propertyPlans.get("firstPrice").getWritePropertyPath().getPath(), "properties.price");
+    }
+
+    @Test
+    public void testDirectWriteClass() throws Exception {
+        Map<String, PropertyPlan> propertyPlans = toMap(mappingPlanFactory.createAssemblePlan(
+                MergeTest.TestAccount.class, MergeTest.TestAccountDTO.class));
+        assertEquals(propertyPlans.get("name").getDirectWriteClass(), String.class);
+        // 基本类型字段按包装类型判断
+        assertEquals(propertyPlans.get("level").getDirectWriteClass(), Integer.class);
+        assertNull(propertyPlans.get("security").getDirectWriteClass());
+        assertNull(propertyPlans.get("securities").getDirectWriteClass());
+
+        MappingPlanFactory registeredFactory = new MappingPlanFactory(null,
+                new ImmutableTypeRegistry(ImmutableSet.<Class<?>>of(TestSecurityInfoDTO.class)));
+        propertyPlans = toMap(registeredFactory.createAssemblePlan(
+                MergeTest.TestAccount.class, MergeTest.TestAccountDTO.class));
+        assertEquals(propertyPlans.get("security").getDirectWriteClass(), TestSecurityInfoDTO.class);
+    }
+
+    @Test
+    public void testCache() throws Exception {
+        MappingPlanCache mappingPlanCache = new MappingPlanCache();
+        assertNull(mappingPlanCache.get(TestSecurityInfo.class, TestSecurityInfoDTO.class));
+
+        MappingPlan mappingPlan = mappingPlanFactory.createAssemblePlan(TestSecurityInfo.class,
+                TestSecurityInfoDTO.class);
+        assertSame(mappingPlanCache.putIfAbsent(TestSecurityInfo.class, TestSecurityInfoDTO.class, mappingPlan),
+                mappingPlan);
+        MappingPlan another = mappingPlanFactory.createAssemblePlan(TestSecurityInfo.class, TestSecurityInfoDTO.class);
+        assertSame(mappingPlanCache.putIfAbsent(TestSecurityInfo.class, TestSecurityInfoDTO.class, another),
+                mappingPlan);
+        assertSame(mappingPlanCache.get(TestSecurityInfo.class, TestSecurityInfoDTO.class), mappingPlan);
+        assertNull(mappingPlanCache.get(TestSecurityInfo.class, TestOrderInfoDTO.class));
+    }
+
+    @Test
+    public void testCacheNotPinningClasses() throws Exception {
+        MappingPlanCache mappingPlanCache = new MappingPlanCache();
+        WeakReference<Class<?>> classReference = cacheFreshPlan(mappingPlanCache);
+        for (int i = 0; i < 100 && classReference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        // 计划引用了读取方、写入方类型，缓存仍然可达时类型可以随类加载器回收
+        assertNull(classReference.get());
+        assertTrue(mappingPlanCache.values().isEmpty());
+    }
+
+    private static WeakReference<Class<?>> cacheFreshPlan(MappingPlanCache mappingPlanCache) throws Exception {
+        // 不委托给测试的ClassLoader，TestUnloadableBean只依赖JDK中的类
+        URL classPath = TestUnloadableBean.class.getProtectionDomain().getCodeSource().getLocation();
+        Class<?> beanClass = Class.forName(TestUnloadableBean.class.getName(), false,
+                new URLClassLoader(new URL[]{classPath}, null));
+        MappingPlan mappingPlan = new MappingPlan(beanClass, beanClass, MappingDirection.ASSEMBLE,
+                new PropertyPlan[0]);
+        assertSame(mappingPlanCache.putIfAbsent(beanClass, beanClass, mappingPlan), mappingPlan);
+        assertEquals(mappingPlanCache.values().size(), 1);
+        return new WeakReference<Class<?>>(beanClass);
+    }
+
+    private static Map<String, PropertyPlan> toMap(MappingPlan mappingPlan) {
+        Map<String, PropertyPlan> propertyPlans = new HashMap<>();
+        for (PropertyPlan propertyPlan : mappingPlan.getPropertyPlans()) {
+            propertyPlans.put(propertyPlan.getPropertyName(), propertyPlan);
+        }
+        return propertyPlans;
+    }
+
+    public static class TestUnloadableBean {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package me.caosh.autoasm;
+
+import com.google.common.collect.Sets;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.testng.Assert.*;
+
+/**
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+public class MergeTest {
+    private final AutoAssembler autoAssembler = new AutoAssembler();
+
+    @Test
+    public void testAssembleInto() throws Exception {
+        TestAccount account = new TestAccount();
+        account.setName("new name");
+        account.setLevel(3);
+        account.setSecurity(new TestSecurityInfo("600001", null));
+        account.setSecurities(Arrays.asList(new TestSecurityInfo("600002", "B")));
+
+        TestAccountDTO accountDTO = new TestAccountDTO();
+        accountDTO.setName("old name");
+        accountDTO.setRemark("kept");
+        accountDTO.setLevel(1);
+        TestSecurityInfoDTO securityDTO = new TestSecurityInfoDTO("600000", "A");
+        accountDTO.setSecurity(securityDTO);
+        List<TestSecurityInfoDTO> securityDTOs = new ArrayList<>();
+        securityDTOs.add(new TestSecurityInfoDTO("600000", "A"));
+        accountDTO.setSecurities(securityDTOs);
+
+        assertSame(autoAssembler.assembleInto(account, accountDTO), accountDTO);
+        assertEquals(accountDTO.getName(), "new name");
+        assertEquals(accountDTO.getRemark(), "kept");
+        assertEquals(accountDTO.getLevel(), 3);
+        // 嵌套对象和集合复用已有实例，null属性保留原值
+        assertSame(accountDTO.getSecurity(), securityDTO);
+        assertEquals(securityDTO, new TestSecurityInfoDTO("600001", "A"));
+        assertSame(accountDTO.getSecurities(), securityDTOs);
+        assertEquals(securityDTOs, Collections.singletonList(new TestSecurityInfoDTO("600002", "B")));
+    }
+
+    @Test
+    public void testSetNull() throws Exception {
+        TestAccount account = new TestAccount();
+        account.setSecurity(new TestSecurityInfo("600001", null));
+
+        TestAccountDTO accountDTO = new TestAccountDTO();
+        accountDTO.setName("old name");
+        accountDTO.setSecurities(new ArrayList<TestSecurityInfoDTO>());
+        TestSecurityInfoDTO securityDTO = new TestSecurityInfoDTO("600000", "A");
+        accountDTO.setSecurity(securityDTO);
+
+        autoAssembler.assembleInto(account, accountDTO, NullValuePolicy.SET_NULL);
+        assertNull(accountDTO.getName());
+        assertNull(accountDTO.getSecurities());
+        assertSame(accountDTO.getSecurity(), securityDTO);
+        assertEquals(securityDTO, new TestSecurityInfoDTO("600001", null));
+    }
+
+    @Test
+    public void testDisassembleInto() throws Exception {
+        TestAccountDTO accountDTO = new TestAccountDTO();
+        accountDTO.setName("new name");
+        accountDTO.setSecurity(new TestSecurityInfoDTO(null, "B"));
+
+        TestAccount account = new TestAccount();
+        account.setName("old name");
+        TestSecurityInfo security = new TestSecurityInfo("600000", "A");
+        account.setSecurity(security);
+        List<TestSecurityInfo> securities = Collections.singletonList(security);
+        account.setSecurities(securities);
+
+        assertSame(autoAssembler.disassembleInto(accountDTO, account), account);
+        assertEquals(account.getName(), "new name");
+        assertSame(account.getSecurity(), security);
+        assertEquals(security, new TestSecurityInfo("600000", "B"));
+        assertSame(account.getSecurities(), securities);
+    }
+
+    @Test
+    public void testImmutableCollectionReplaced() throws Exception {
+        TestAccount account = new TestAccount();
+        account.setSecurities(Arrays.asList(new TestSecurityInfo("600002", "B")));
+
+        TestAccountDTO accountDTO = new TestAccountDTO();
+        accountDTO.setSecurities(Collections.<TestSecurityInfoDTO>emptyList());
+
+        autoAssembler.assembleInto(account, accountDTO);
+        assertEquals(accountDTO.getSecurities(), Collections.singletonList(new TestSecurityInfoDTO("600002", "B")));
+    }
+
+    @Test
+    public void testSkipUnchangedWrites() throws Exception {
+        TestAccountDTO accountDTO = new TestAccountDTO();
+        accountDTO.setName("same name");
+        accountDTO.setLevel(2);
+        accountDTO.setSecurity(new TestSecurityInfoDTO("600000", "B"));
+        accountDTO.setSecurities(Arrays.asList(new TestSecurityInfoDTO("600000", "A")));
+
+        TestAccount account = new TestAccount();
+        account.setName("same name");
+        account.setLevel(1);
+        TestSecurityInfo security = new TestSecurityInfo("600000", "A");
+        account.setSecurity(security);
+        List<TestSecurityInfo> securities = new ArrayList<>();
+        securities.add(new TestSecurityInfo("600000", "A"));
+        account.setSecurities(securities);
+        final List<String> setterCalls = new ArrayList<>();
+        TestAccount trackedAccount = new TestAccount() {
+            @Override
+            public void setName(String name) {
+                setterCalls.add("name");
+                super.setName(name);
+            }
+
+            @Override
+            public void setSecurities(List<TestSecurityInfo> securities) {
+                setterCalls.add("securities");
+                super.setSecurities(securities);
+            }
+        };
+        trackedAccount.setName(account.getName());
+        trackedAccount.setLevel(account.getLevel());
+        trackedAccount.setSecurity(account.getSecurity());
+        trackedAccount.setSecurities(account.getSecurities());
+        setterCalls.clear();
+
+        PropertyChanges changes = new PropertyChanges();
+        autoAssembler.disassembleInto(accountDTO, trackedAccount, NullValuePolicy.IGNORE, changes);
+        assertEquals(setterCalls, Collections.emptyList());
+        assertEquals(trackedAccount.getLevel(), 2);
+        assertSame(trackedAccount.getSecurity(), security);
+        assertEquals(security.getName(), "B");
+        assertSame(trackedAccount.getSecurities(), securities);
+        assertEquals(changes.getChangedProperties(), Sets.newLinkedHashSet(Arrays.asList("level", "security.name")));
+        assertTrue(changes.isChanged("security.name"));
+        assertFalse(changes.isChanged("name"));
+
+        PropertyChanges noChanges = new PropertyChanges();
+        autoAssembler.disassembleInto(accountDTO, trackedAccount, NullValuePolicy.IGNORE, noChanges);
+        assertTrue(noChanges.isEmpty());
+    }
+
+    public static class TestAccount {
+        private String name;
+        private int level;
+        private TestSecurityInfo security;
+        private List<TestSecurityInfo> securities;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getLevel() {
+            return level;
+        }
+
+        public void setLevel(int level) {
+            this.level = level;
+        }
+
+        public TestSecurityInfo getSecurity() {
+            return security;
+        }
+
+        public void setSecurity(TestSecurityInfo security) {
+            this.security = security;
+        }
+
+        public List<TestSecurityInfo> getSecurities() {
+            return securities;
+        }
+
+        public void setSecurities(List<TestSecurityInfo> securities) {
+            this.securities = securities;
+        }
+    }
+
+    public static class TestAccountDTO {
+        private String name;
+        private String remark;
+        private int level;
+        private TestSecurityInfoDTO security;
+        private List<TestSecurityInfoDTO> securities;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getRemark() {
+            return remark;
+        }
+
+        public void setRemark(String remark) {
+            this.remark = remark;
+        }
+
+        public int getLevel() {
+            return level;
+        }
+
+        public void setLevel(int level) {
+            this.level = level;
+        }
+
+        public TestSecurityInfoDTO getSecurity() {
+            return security;
+        }
+
+        public void setSecurity(TestSecurityInfoDTO security) {
+            this.security = security;
+        }
+
+        public List<TestSecurityInfoDTO> getSecurities() {
+            return securities;
+        }
+
+        public void setSecurities(List<TestSecurityInfoDTO> securities) {
+            this.securities = securities;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package me.caosh.autoasm;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.testng.Assert.*;
+
+/**
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+public class ParallelListTest {
+    private final AutoAssembler autoAssembler = new AutoAssembler();
+    private final ExecutorService executorService = Executors.newFixedThreadPool(4);
+    private final ParallelismPolicy parallelismPolicy = ParallelismPolicy.of(executorService, 100, 4);
+
+    @AfterClass
+    public void tearDown() throws Exception {
+        executorService.shutdown();
+    }
+
+    @Test
+    public void testAssembleList() throws Exception {
+        List<TestItem> items = createItems(1001);
+        List<TestItemDTO> itemDTOs = autoAssembler.assembleList(items, TestItemDTO.class, parallelismPolicy);
+        assertEquals(itemDTOs.size(), items.size());
+        for (int i = 0; i < itemDTOs.size(); i++) {
+            assertEquals(itemDTOs.get(i).getValue(), Integer.valueOf(i));
+        }
+
+        List<TestItem> disassembled = autoAssembler.disassembleList(itemDTOs, TestItem.class, parallelismPolicy);
+        assertEquals(disassembled.size(), items.size());
+        for (int i = 0; i < disassembled.size(); i++) {
+            assertEquals(disassembled.get(i).getValue(), String.valueOf(i));
+        }
+    }
+
+    @Test
+    public void testBelowThreshold() throws Exception {
+        List<TestItemDTO> itemDTOs = autoAssembler.assembleList(createItems(10), TestItemDTO.class,
+                parallelismPolicy);
+        assertEquals(itemDTOs.size(), 10);
+        assertEquals(itemDTOs.get(9).getValue(), Integer.valueOf(9));
+    }
+
+    @Test
+    public void testFailedIndex() throws Exception {
+        List<TestItem> items = createItems(1000);
+        items.get(700).setValue("x");
+        try {
+            autoAssembler.assembleList(items, TestItemDTO.class, parallelismPolicy);
+            fail();
+        } catch (ElementConversionException e) {
+            assertEquals(e.getIndex(), 700);
+            assertTrue(e.getCause() instanceof NumberFormatException);
+        }
+    }
+
+    @Test(timeOut = 10000)
+    public void testQueuedChunksRunByCaller() throws Exception {
+        // executor的线程全部忙于等待时，排队中的段由调用线程执行
+        final List<Runnable> queued = new ArrayList<>();
+        ParallelismPolicy saturatedPolicy = ParallelismPolicy.of(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                queued.add(command);
+            }
+        }, 100, 4);
+        List<TestItemDTO> itemDTOs = autoAssembler.assembleList(createItems(1000), TestItemDTO.class,
+                saturatedPolicy);
+        assertEquals(queued.size(), 3);
+        assertEquals(itemDTOs.size(), 1000);
+        assertEquals(itemDTOs.get(999).getValue(), Integer.valueOf(999));
+    }
+
+    private static List<TestItem> createItems(int size) {
+        List<TestItem> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            TestItem item = new TestItem();
+            item.setValue(String.valueOf(i));
+            items.add(item);
+        }
+        return items;
+    }
+
+    public static class TestItem {
+        private String value;
+
+        public String getValue() {
+            return value;
+        }
+
+        public void setValue(String value) {
+            this.value = value;
+        }
+    }
+
+    public static class TestItemDTO {
+        private Integer value;
+
+        public Integer getValue() {
+            return value;
+        }
+
+        public void setValue(Integer value) {
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package me.caosh.autoasm;
+
+import me.caosh.autoasm.instantiator.ConstructorInstantiatorFactory;
+import me.caosh.autoasm.instantiator.Instantiator;
+import me.caosh.autoasm.instantiator.InstantiatorFactory;
+import me.caosh.autoasm.preload.TestPreloadItem;
+import me.caosh.autoasm.preload.TestPreloadItemDTO;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.testng.Assert.*;
+
+/**
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+public class PreloadTest {
+    @Test
+    public void testPreload() throws Exception {
+        Set<Class<?>> resolvedClasses = newConcurrentSet();
+        AutoAssembler autoAssembler = new AutoAssemblerBuilder()
+                .instantiatorFactory(new RecordingInstantiatorFactory(resolvedClasses))
+                .preload(RuntimeTypeTest.TestConditionOrder.class, RuntimeTypeTest.TestConditionOrderDTO.class,
+                        GraphConversionTest.TestNode.class, GraphConversionTest.TestNodeDTO.class)
+                .build();
+        // 嵌套的RuntimeType子类型随外层类型对预加载，循环引用的类型对只预加载一次
+        assertTrue(resolvedClasses.contains(RuntimeTypeTest.TestConditionOrderDTO.class));
+        assertTrue(resolvedClasses.contains(RuntimeTypeTest.FirstExternalPropertiesDTO.class));
+        assertTrue(resolvedClasses.contains(RuntimeTypeTest.FirstExternalProperties.class));
+        assertTrue(resolvedClasses.contains(GraphConversionTest.TestNodeDTO.class));
+        int preloadedCount = resolvedClasses.size();
+
+        RuntimeTypeTest.TestConditionOrder testConditionOrder = new RuntimeTypeTest.TestConditionOrder();
+        RuntimeTypeTest.FirstExternalProperties externalProperties = new RuntimeTypeTest.FirstExternalProperties();
+        externalProperties.setX(123);
+        testConditionOrder.setExternalProperties(externalProperties);
+        RuntimeTypeTest.TestConditionOrderDTO testConditionOrderDTO = autoAssembler.assemble(testConditionOrder,
+                RuntimeTypeTest.TestConditionOrderDTO.class);
+        assertEquals(autoAssembler.disassemble(testConditionOrderDTO, RuntimeTypeTest.TestConditionOrder.class),
+                testConditionOrder);
+        assertEquals(resolvedClasses.size(), preloadedCount);
+    }
+
+    @Test
+    public void testPreloadPackages() throws Exception {
+        Set<Class<?>> resolvedClasses = newConcurrentSet();
+        AutoAssembler autoAssembler = new AutoAssemblerBuilder()
+                .instantiatorFactory(new RecordingInstantiatorFactory(resolvedClasses))
+                .preloadPackages("me.caosh.autoasm.preload")
+                .build();
+        // 按MappedClass扫描到的类型对
+        assertEquals(resolvedClasses, newSet(TestPreloadItem.class, TestPreloadItemDTO.class));
+
+        TestPreloadItem item = new TestPreloadItem();
+        item.setCode("600000");
+        assertEquals(autoAssembler.assemble(item, TestPreloadItemDTO.class).getCode(), "600000");
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class,
+            expectedExceptionsMessageRegExp = "No class found in package me.caosh.autoasm.missing")
+    public void testPreloadMissingPackage() throws Exception {
+        new AutoAssemblerBuilder().preloadPackages("me.caosh.autoasm.missing").build();
+    }
+
+    @Test
+    public void testScanClassPath() throws Exception {
+        // 不依赖类加载器的类路径扫描，用于Java 9+的应用类加载器
+        File jar = File.createTempFile("preload", ".jar");
+        try {
+            try (JarOutputStream output = new JarOutputStream(new FileOutputStream(jar))) {
+                output.putNextEntry(new JarEntry("me/caosh/autoasm/preload/jar/TestJarItem.class"));
+                output.putNextEntry(new JarEntry("me/caosh/autoasm/preload/jar/package-info.class"));
+                output.putNextEntry(new JarEntry("me/caosh/autoasm/other/TestOtherItem.class"));
+                output.putNextEntry(new JarEntry("module-info.class"));
+            }
+            List<String> classNames = Preloader.scanClassPath(
+                    System.getProperty("java.class.path") + File.pathSeparator + jar.getPath(),
+                    "me.caosh.autoasm.preload");
+            assertTrue(classNames.contains(TestPreloadItem.class.getName()));
+            assertTrue(classNames.contains(TestPreloadItemDTO.class.getName()));
+            assertTrue(classNames.contains("me.caosh.autoasm.preload.jar.TestJarItem"));
+            assertFalse(classNames.contains("me.caosh.autoasm.other.TestOtherItem"));
+            assertFalse(classNames.contains("me.caosh.autoasm.preload.jar.package-info"));
+        } finally {
+            assertTrue(jar.delete());
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class,
+            expectedExceptionsMessageRegExp = "Class pairs should be \\(source class, target class\\) pairs")
+    public void testOddClassPairs() throws Exception {
+        new AutoAssemblerBuilder().preload(TestPreloadItem.class);
+    }
+
+    private static Set<Class<?>> newConcurrentSet() {
+        return Collections.newSetFromMap(new ConcurrentHashMap<Class<?>, Boolean>());
+    }
+
+    private static Set<Class<?>> newSet(Class<?>... classes) {
+        Set<Class<?>> set = newConcurrentSet();
+        Collections.addAll(set, classes);
+        return set;
+    }
+
+    private static class RecordingInstantiatorFactory implements InstantiatorFactory {
+        private final InstantiatorFactory defaultFactory = new ConstructorInstantiatorFactory();
+        private final Set<Class<?>> resolvedClasses;
+
+        RecordingInstantiatorFactory(Set<Class<?>> resolvedClasses) {
+            this.resolvedClasses = resolvedClasses;
+        }
+
+        @Override
+        public <T> Instantiator<T> getInstantiator(Class<T> objectClass) {
+            resolvedClasses.add(objectClass);
+            return defaultFactory.getInstantiator(objectClass);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package me.caosh.autoasm;
+
+import me.caosh.autoasm.util.PropertyAccessor;
+import org.testng.annotations.Test;
+
+import java.beans.PropertyDescriptor;
+
+import static org.testng.Assert.*;
+
+/**
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/16
+ */
+public class PropertyAccessorTest {
+    @Test
+    public void testGetAndSet() throws Exception {
+        PropertyDescriptor propertyDescriptor = new PropertyDescriptor("code", TestSecurityInfo.class);
+        PropertyAccessor propertyAccessor = PropertyAccessor.of(propertyDescriptor);
+        assertSame(PropertyAccessor.of(propertyDescriptor), propertyAccessor);
+        assertEquals(propertyAccessor.getPropertyType(), String.class);
+
+        TestSecurityInfo securityInfo = new TestSecurityInfo("600000", "PFYH");
+        assertEquals(propertyAccessor.get(securityInfo), "600000");
+        assertTrue(propertyAccessor.set(securityInfo, "000001"));
+        assertEquals(securityInfo.getCode(), "000001");
+    }
+
+    @Test
+    public void testPrimitive() throws Exception {
+        PropertyAccessor propertyAccessor = PropertyAccessor.of(
+                new PropertyDescriptor("count", PackagePrivateBean.class));
+
+        PackagePrivateBean bean = new PackagePrivateBean();
+        assertTrue(propertyAccessor.set(bean, 5));
+        assertEquals(propertyAccessor.get(bean), 5);
+    }
+
+    @Test
+    public void testReadonly() throws Exception {
+        PropertyAccessor propertyAccessor = PropertyAccessor.of(
+                new PropertyDescriptor("name", PackagePrivateBean.class, "getName", null));
+        assertTrue(propertyAccessor.isReadable());
+        assertFalse(propertyAccessor.isWritable());
+        assertFalse(propertyAccessor.set(new PackagePrivateBean(), "abc"));
+    }
+
+    @Test(expectedExceptions = RuntimeException.class,
+            expectedExceptionsMessageRegExp = "Invoke write method failed: <String> PackagePrivateBean#setCount\\(abc\\)")
+    public void testWrongType() throws Exception {
+        PropertyAccessor propertyAccessor = PropertyAccessor.of(
+                new PropertyDescriptor("count", PackagePrivateBean.class));
+        propertyAccessor.set(new PackagePrivateBean(), "abc");
+    }
+
+    static class PackagePrivateBean {
+        private int count;
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        public String getName() {
+            return "name";
+        }
+    }
+}
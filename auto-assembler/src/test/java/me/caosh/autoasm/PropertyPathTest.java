@@ -0,0 +1,122 @@
+package me.caosh.autoasm;
+
+import me.caosh.autoasm.util.PropertyAccessor;
+import me.caosh.autoasm.util.PropertyPath;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.*;
+
+/**
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+public class PropertyPathTest {
+    @Test
+    public void testRead() throws Exception {
+        PropertyPath propertyPath = PropertyPath.compile(TestOrder.class, "customer.address.city");
+        // 每次编译各自缓存，不全局共享
+        assertNotSame(PropertyPath.compile(TestOrder.class, "customer.address.city"), propertyPath);
+
+        TestCustomer customer = new TestCustomer();
+        TestOrder order = new TestOrder();
+        order.setCustomer(customer);
+        // 中间对象为null
+        assertNull(propertyPath.read(order));
+
+        customer.setAddress(new TestAddress("Shanghai"));
+        assertEquals(propertyPath.read(order), "Shanghai");
+        // 运行时类型变化时重新查找
+        customer.setAddress(new TestSubAddress("Beijing"));
+        assertEquals(propertyPath.read(order), "Beijing");
+
+        assertNull(PropertyPath.compile("customer.notExist").read(order));
+        assertNull(PropertyPath.compile("").read(order));
+    }
+
+    @Test
+    public void testWrite() throws Exception {
+        PropertyPath propertyPath = PropertyPath.compile("customer.address.city");
+        TestOrder order = new TestOrder();
+        assertNull(propertyPath.readOwner(order));
+
+        TestAddress address = new TestAddress("Shanghai");
+        TestCustomer customer = new TestCustomer();
+        customer.setAddress(address);
+        order.setCustomer(customer);
+
+        Object ownObject = propertyPath.readOwner(order);
+        assertSame(ownObject, address);
+        PropertyAccessor propertyAccessor = propertyPath.resolveLast(ownObject.getClass());
+        assertEquals(propertyAccessor.getFieldGenericType(), String.class);
+        propertyAccessor.set(ownObject, "Shenzhen");
+        assertEquals(address.getCity(), "Shenzhen");
+
+        assertNull(PropertyPath.compile("customer.address.notExist").resolveLast(ownObject.getClass()));
+    }
+
+    @Test
+    public void testPolymorphic() throws Exception {
+        PropertyPath propertyPath = PropertyPath.compile(TestOrder.class, "customer.address.city");
+        TestOrder[] orders = new TestOrder[6];
+        for (int i = 0; i < orders.length; i++) {
+            TestCustomer customer = new TestCustomer();
+            // 超过缓存上限的类型每次查找，结果不变
+            customer.setAddress(i % 3 == 0 ? new TestAddress("A" + i) : i % 3 == 1 ? new TestSubAddress("B" + i)
+                    : new TestAddress("C" + i) {
+            });
+            orders[i] = new TestOrder();
+            orders[i].setCustomer(customer);
+        }
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < orders.length; i++) {
+                assertEquals(propertyPath.read(orders[i]), orders[i].getCustomer().getAddress().getCity());
+            }
+        }
+    }
+
+    public static class TestOrder {
+        private TestCustomer customer;
+
+        public TestCustomer getCustomer() {
+            return customer;
+        }
+
+        public void setCustomer(TestCustomer customer) {
+            this.customer = customer;
+        }
+    }
+
+    public static class TestCustomer {
+        private TestAddress address;
+
+        public TestAddress getAddress() {
+            return address;
+        }
+
+        public void setAddress(TestAddress address) {
+            this.address = address;
+        }
+    }
+
+    public static class TestAddress {
+        private String city;
+
+        public TestAddress(String city) {
+            this.city = city;
+        }
+
+        public String getCity() {
+            return city;
+        }
+
+        public void setCity(String city) {
+            this.city = city;
+        }
+    }
+
+    public static class TestSubAddress extends TestAddress {
+        public TestSubAddress(String city) {
+            super(city);
+        }
+    }
+}
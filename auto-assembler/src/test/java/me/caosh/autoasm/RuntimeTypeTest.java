@@ -1,9 +1,12 @@
 package me.caosh.autoasm;
 
 import com.google.common.base.MoreObjects;
+import me.caosh.autoasm.util.RuntimeTypeTable;
 import org.testng.annotations.Test;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
 
 /**
  * @author shuhaoc@qq.com
@@ -42,6 +45,17 @@ public class RuntimeTypeTest {
         assertEquals(disassemble, assemble);
     }
 
+    @Test
+    public void testRuntimeTypeTable() throws Exception {
+        RuntimeTypeTable runtimeTypeTable = RuntimeTypeTable.of(ExternalPropertiesDTO.class);
+        assertSame(RuntimeTypeTable.of(ExternalPropertiesDTO.class), runtimeTypeTable);
+        assertEquals(runtimeTypeTable.getAssembleClass(FirstExternalProperties.class), FirstExternalPropertiesDTO.class);
+        assertEquals(runtimeTypeTable.getDisassembleClass(FirstExternalPropertiesDTO.class),
+                FirstExternalProperties.class);
+        assertNull(runtimeTypeTable.getAssembleClass(String.class));
+        assertNull(RuntimeTypeTable.of(TestConditionOrderDTO.class));
+    }
+
     public static class TestConditionOrder {
         private ExternalProperties externalProperties;
 
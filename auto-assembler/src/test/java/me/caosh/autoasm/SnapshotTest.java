@@ -0,0 +1,216 @@
+package me.caosh.autoasm;
+
+import com.google.common.io.ByteStreams;
+import me.caosh.autoasm.instantiator.ConstructorInstantiatorFactory;
+import me.caosh.autoasm.instantiator.Instantiator;
+import me.caosh.autoasm.instantiator.InstantiatorFactory;
+import me.caosh.autoasm.plan.MappingDirection;
+import me.caosh.autoasm.plan.MappingPlan;
+import me.caosh.autoasm.plan.PropertyPlan;
+import me.caosh.autoasm.util.BeanIntrospector;
+import org.testng.annotations.Test;
+
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.testng.Assert.*;
+
+/**
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+public class SnapshotTest {
+    @Test
+    public void testWriteAndLoad() throws Exception {
+        AutoAssembler autoAssembler = new AutoAssemblerBuilder().build();
+        RuntimeTypeTest.TestConditionOrder testConditionOrder = newConditionOrder();
+        autoAssembler.assemble(testConditionOrder, RuntimeTypeTest.TestConditionOrderDTO.class);
+        MappingTest.TestMappingObject testMappingObject = new MappingTest.TestMappingObject();
+        autoAssembler.disassemble(autoAssembler.assemble(testMappingObject, MappingTest.TestMappingDTO.class),
+                MappingTest.TestMappingObject.class);
+
+        Path snapshotFile = Files.createTempFile("auto-assembler", ".snapshot");
+        try {
+            autoAssembler.writeSnapshot(snapshotFile);
+            List<List<Class<?>>> classPairs = MappingSnapshot.restore(snapshotFile,
+                    SnapshotTest.class.getClassLoader());
+            assertTrue(classPairs.contains(Arrays.<Class<?>>asList(RuntimeTypeTest.TestConditionOrder.class,
+                    RuntimeTypeTest.TestConditionOrderDTO.class)));
+            // 嵌套计划的类型对同样保存
+            assertTrue(classPairs.contains(Arrays.<Class<?>>asList(RuntimeTypeTest.FirstExternalProperties.class,
+                    RuntimeTypeTest.FirstExternalPropertiesDTO.class)));
+            assertTrue(classPairs.contains(Arrays.<Class<?>>asList(MappingTest.TestMappingObject.class,
+                    MappingTest.TestMappingDTO.class)));
+
+            final Set<Class<?>> resolvedClasses = Collections.newSetFromMap(new ConcurrentHashMap<Class<?>, Boolean>());
+            final InstantiatorFactory defaultFactory = new ConstructorInstantiatorFactory();
+            AutoAssembler loadedAutoAssembler = new AutoAssemblerBuilder()
+                    .instantiatorFactory(new InstantiatorFactory() {
+                        @Override
+                        public <T> Instantiator<T> getInstantiator(Class<T> objectClass) {
+                            resolvedClasses.add(objectClass);
+                            return defaultFactory.getInstantiator(objectClass);
+                        }
+                    })
+                    .loadSnapshot(snapshotFile)
+                    .build();
+            assertTrue(resolvedClasses.contains(RuntimeTypeTest.TestConditionOrderDTO.class));
+            assertTrue(resolvedClasses.contains(MappingTest.TestMappingDTO.class));
+
+            RuntimeTypeTest.TestConditionOrderDTO testConditionOrderDTO = loadedAutoAssembler.assemble(
+                    testConditionOrder, RuntimeTypeTest.TestConditionOrderDTO.class);
+            assertEquals(((RuntimeTypeTest.FirstExternalPropertiesDTO) testConditionOrderDTO.getExternalProperties())
+                    .getX(), Integer.valueOf(123));
+        } finally {
+            Files.deleteIfExists(snapshotFile);
+        }
+    }
+
+    @Test
+    public void testInvalidSnapshot() throws Exception {
+        Path snapshotFile = Files.createTempFile("auto-assembler", ".snapshot");
+        try {
+            Files.write(snapshotFile, new byte[]{0x41, 0x41, 0x53, 0x50, 0, 0});
+            assertTrue(MappingSnapshot.restore(snapshotFile, SnapshotTest.class.getClassLoader()).isEmpty());
+            // 无效的快照按无快照处理
+            AutoAssembler autoAssembler = new AutoAssemblerBuilder().loadSnapshot(snapshotFile).build();
+            assertNotNull(autoAssembler.assemble(newConditionOrder(), RuntimeTypeTest.TestConditionOrderDTO.class));
+        } finally {
+            Files.deleteIfExists(snapshotFile);
+        }
+        assertTrue(MappingSnapshot.restore(snapshotFile, SnapshotTest.class.getClassLoader()).isEmpty());
+    }
+
+    @Test
+    public void testFreshClassLoader() throws Exception {
+        String className = TestSnapshotBean.class.getName();
+        byte[] classBytes;
+        try (InputStream in = TestSnapshotBean.class.getResourceAsStream(
+                "/" + className.replace('.', '/') + ".class")) {
+            classBytes = ByteStreams.toByteArray(in);
+        }
+        Path directory = Files.createTempDirectory("auto-assembler");
+        Path classFile = directory.resolve(className.replace('.', '/') + ".class");
+        Path jar = directory.resolve("beans.jar");
+        Path modifiedJar = directory.resolve("modified-beans.jar");
+        Path snapshotFile = directory.resolve("auto-assembler.snapshot");
+        try {
+            Files.createDirectories(classFile.getParent());
+            Files.write(classFile, classBytes);
+            writeJar(jar, className, classBytes);
+            // 同样长度的常量，只有CRC不同
+            writeJar(modifiedJar, className, replace(classBytes, "snapshot-v1", "snapshot-v2"));
+
+            // 目录中的class文件，每个ClassLoader各自加载一份，与测试类无关
+            Class<?> beanClass = loadFresh(directory, className);
+            assertNotSame(beanClass, TestSnapshotBean.class);
+            writeSnapshot(snapshotFile, beanClass);
+            List<Class<?>> presetClasses = new ArrayList<>();
+            Class<?> restoredClass = loadFresh(directory, className);
+            assertTrue(MappingSnapshot.restore(snapshotFile, restoredClass.getClassLoader(), presetClasses)
+                    .contains(Arrays.<Class<?>>asList(restoredClass, restoredClass)));
+            assertEquals(presetClasses, Collections.singletonList(restoredClass));
+            assertEquals(BeanIntrospector.getPropertyDescriptor(restoredClass, "name").getPropertyType(),
+                    String.class);
+
+            // 修改时间变化后重新内省，类型对仍然预加载
+            Files.setLastModifiedTime(classFile, FileTime.fromMillis(
+                    Files.getLastModifiedTime(classFile).toMillis() + TimeUnit.HOURS.toMillis(1)));
+            presetClasses.clear();
+            Class<?> modifiedClass = loadFresh(directory, className);
+            assertFalse(MappingSnapshot.restore(snapshotFile, modifiedClass.getClassLoader(), presetClasses)
+                    .isEmpty());
+            assertTrue(presetClasses.isEmpty());
+
+            // jar中的class文件按条目的CRC比较，与jar的路径、修改时间无关
+            writeSnapshot(snapshotFile, loadFresh(jar, className));
+            presetClasses.clear();
+            Class<?> jarClass = loadFresh(jar, className);
+            MappingSnapshot.restore(snapshotFile, jarClass.getClassLoader(), presetClasses);
+            assertEquals(presetClasses, Collections.singletonList(jarClass));
+
+            presetClasses.clear();
+            Class<?> modifiedJarClass = loadFresh(modifiedJar, className);
+            assertEquals(modifiedJarClass.getMethod("getVersion").invoke(
+                    modifiedJarClass.getDeclaredConstructor().newInstance()),
+                    "snapshot-v2");
+            MappingSnapshot.restore(snapshotFile, modifiedJarClass.getClassLoader(), presetClasses);
+            assertTrue(presetClasses.isEmpty());
+        } finally {
+            for (Path path : Arrays.asList(snapshotFile, modifiedJar, jar, classFile)) {
+                Files.deleteIfExists(path);
+            }
+            for (Path path = classFile.getParent(); !path.equals(directory.getParent()); path = path.getParent()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static Class<?> loadFresh(Path classPath, String className) throws Exception {
+        // 不委托给测试的ClassLoader，TestSnapshotBean只依赖JDK中的类
+        return Class.forName(className, false, new URLClassLoader(new URL[]{classPath.toUri().toURL()}, null));
+    }
+
+    private static void writeSnapshot(Path snapshotFile, Class<?> beanClass) throws Exception {
+        MappingSnapshot.write(snapshotFile, Collections.singletonList(
+                new MappingPlan(beanClass, beanClass, MappingDirection.ASSEMBLE, new PropertyPlan[0])));
+    }
+
+    private static void writeJar(Path jar, String className, byte[] classBytes) throws Exception {
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            out.putNextEntry(new JarEntry(className.replace('.', '/') + ".class"));
+            out.write(classBytes);
+        }
+    }
+
+    private static byte[] replace(byte[] bytes, String target, String replacement) {
+        byte[] targetBytes = target.getBytes(StandardCharsets.UTF_8);
+        byte[] replaced = bytes.clone();
+        for (int i = 0; i + targetBytes.length <= bytes.length; i++) {
+            if (Arrays.equals(Arrays.copyOfRange(bytes, i, i + targetBytes.length), targetBytes)) {
+                byte[] replacementBytes = replacement.getBytes(StandardCharsets.UTF_8);
+                System.arraycopy(replacementBytes, 0, replaced, i, replacementBytes.length);
+                return replaced;
+            }
+        }
+        throw new IllegalArgumentException(target + " not found");
+    }
+
+    private static RuntimeTypeTest.TestConditionOrder newConditionOrder() {
+        RuntimeTypeTest.TestConditionOrder testConditionOrder = new RuntimeTypeTest.TestConditionOrder();
+        RuntimeTypeTest.FirstExternalProperties externalProperties = new RuntimeTypeTest.FirstExternalProperties();
+        externalProperties.setX(123);
+        testConditionOrder.setExternalProperties(externalProperties);
+        return testConditionOrder;
+    }
+
+    public static class TestSnapshotBean {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getVersion() {
+            return "snapshot-v1";
+        }
+    }
+}
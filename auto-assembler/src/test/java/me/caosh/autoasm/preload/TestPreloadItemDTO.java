@@ -0,0 +1,24 @@
+package me.caosh.autoasm.preload;
+
+import me.caosh.autoasm.Convertible;
+import me.caosh.autoasm.MappedClass;
+
+/**
+ * 包扫描预加载使用的类型
+ *
+ * @author caosh/shuhaoc@qq.com
+ * @date 2018/1/17
+ */
+@Convertible
+@MappedClass(TestPreloadItem.class)
+public class TestPreloadItemDTO {
+    private String code;
+
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+}